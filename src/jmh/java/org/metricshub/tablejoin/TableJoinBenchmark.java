@@ -0,0 +1,218 @@
+package org.metricshub.tablejoin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of each phase of a JOIN: parsing, index build, probe and serialization, plus the whole JOIN.
+ * <p>
+ * The tables are generated once per trial: the left table and the right table have the same number of rows,
+ * and <code>hitRatio</code> of the left rows have a match in the right table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TableJoinBenchmark {
+
+	/**
+	 * How the keys are matched
+	 */
+	public enum KeyType {
+		PLAIN,
+		WBEM,
+		CASE_INSENSITIVE,
+		NUMERIC
+	}
+
+	private static final int[] KEY_COLUMN = { 1 };
+	private static final int[] PROJECTED_COLUMNS = { 1, 2 };
+
+	@Param({ "1000", "100000", "1000000" })
+	private int rows;
+
+	@Param({ "PLAIN", "WBEM", "CASE_INSENSITIVE", "NUMERIC" })
+	private KeyType keyType;
+
+	@Param({ "0.1", "0.9" })
+	private double hitRatio;
+
+	@Param({ "3", "10" })
+	private int columns;
+
+	@Param({ ";", "<sep>" })
+	private String separator;
+
+	private boolean wbemKeyType;
+	private boolean caseInsensitive;
+	private JoinOptions options;
+	private String leftCsv;
+	private String rightCsv;
+	private String leftLine;
+	private List<List<String>> leftTable;
+	private List<List<String>> rightTable;
+	private JoinIndex rightTableIndex;
+	private JoinIndex offHeapIndex;
+	private JoinIndex bloomFilterIndex;
+	private List<List<String>> result;
+
+	@Setup(Level.Trial)
+	public void generateTables() {
+		wbemKeyType = keyType == KeyType.WBEM;
+		caseInsensitive = keyType == KeyType.CASE_INSENSITIVE;
+		options = JoinOptions.builder().numericKeys(keyType == KeyType.NUMERIC).build();
+
+		final Random random = new Random(42);
+		final StringBuilder left = new StringBuilder();
+		final StringBuilder right = new StringBuilder();
+		for (int row = 0; row < rows; row++) {
+			// Left rows that miss have a key that is not in the right table
+			final int leftKey = random.nextDouble() < hitRatio ? random.nextInt(rows) : rows + row;
+			appendRow(left, leftKey, row, true);
+			appendRow(right, row, row, false);
+		}
+		leftCsv = left.toString();
+		rightCsv = right.toString();
+		leftLine = leftCsv.substring(0, leftCsv.indexOf('\n'));
+
+		leftTable = TableJoin.stringToTable(leftCsv, separator);
+		rightTable = TableJoin.stringToTable(rightCsv, separator);
+		rightTableIndex = JoinIndex.build(rightTable, new int[] { 1 }, wbemKeyType, caseInsensitive, options);
+		offHeapIndex = rightTableIndex.offHeap();
+		bloomFilterIndex = rightTableIndex.withBloomFilter(0.01);
+		result = TableJoin.join(leftTable, rightTableIndex, 1, null);
+	}
+
+	@TearDown(Level.Trial)
+	public void closeIndex() {
+		offHeapIndex.close();
+	}
+
+	/**
+	 * Append a generated row: the key, then columns - 1 values
+	 */
+	private void appendRow(final StringBuilder csv, final int key, final int row, final boolean left) {
+		switch (keyType) {
+			case WBEM:
+				// The key properties are not in the same order in the left and right tables
+				csv.append(
+					left ? "CIM_Disk.DeviceID=\"" + key + "\",Name=\"disk\"" : "CIM_Disk.Name=\"disk\",DeviceID=\"" + key + "\""
+				);
+				break;
+			case CASE_INSENSITIVE:
+				csv.append(left ? "key" : "KEY").append(key);
+				break;
+			case NUMERIC:
+				csv.append(key);
+				break;
+			default:
+				csv.append("key").append(key);
+				break;
+		}
+		csv.append(separator);
+		for (int column = 1; column < columns; column++) {
+			csv.append(left ? "left" : "right").append(column).append('-').append(row).append(separator);
+		}
+		csv.append('\n');
+	}
+
+	@Benchmark
+	public List<List<String>> stringToTable() {
+		return TableJoin.stringToTable(leftCsv, separator);
+	}
+
+	@Benchmark
+	public List<String> lineToList() {
+		return TableJoin.lineToList(leftLine, separator);
+	}
+
+	@Benchmark
+	public JoinIndex buildIndex() {
+		return JoinIndex.build(rightTable, new int[] { 1 }, wbemKeyType, caseInsensitive, options);
+	}
+
+	@Benchmark
+	public void joinLine(final Blackhole blackhole) {
+		final List<String> noDefault = new ArrayList<>();
+		for (final List<String> line : leftTable) {
+			blackhole.consume(TableJoin.joinLine(line, 1, noDefault, false, rightTableIndex));
+		}
+	}
+
+	@Benchmark
+	public List<List<String>> probe() {
+		return TableJoin.join(leftTable, rightTableIndex, 1, null);
+	}
+
+	/**
+	 * The probe of the index stored off-heap, whose matching right rows are decoded
+	 */
+	@Benchmark
+	public List<List<String>> offHeapProbe() {
+		return TableJoin.join(leftTable, offHeapIndex, 1, null);
+	}
+
+	/**
+	 * The probe of the index with a Bloom filter, to compare with {@link #probe()}: the left rows that miss are rejected
+	 * by the Bloom filter instead of probing the index
+	 */
+	@Benchmark
+	public List<List<String>> bloomFilterProbe() {
+		return TableJoin.join(leftTable, bloomFilterIndex, 1, null);
+	}
+
+	@Benchmark
+	public String tableToString() {
+		return TableJoin.tableToString(result, separator);
+	}
+
+	@Benchmark
+	public StringBuilder appendTable() {
+		final StringBuilder csv = new StringBuilder();
+		TableJoin.appendTable(result, separator, csv);
+		return csv;
+	}
+
+	@Benchmark
+	public String join() {
+		return TableJoin.join(leftCsv, rightCsv, 1, 1, separator, null, wbemKeyType, caseInsensitive, options);
+	}
+
+	/**
+	 * The JOIN of the key and the second column of each table only
+	 */
+	@Benchmark
+	public String projectedJoin() {
+		return TableJoin.join(
+			leftCsv,
+			rightCsv,
+			KEY_COLUMN,
+			KEY_COLUMN,
+			separator,
+			null,
+			wbemKeyType,
+			caseInsensitive,
+			PROJECTED_COLUMNS,
+			PROJECTED_COLUMNS,
+			options
+		);
+	}
+}
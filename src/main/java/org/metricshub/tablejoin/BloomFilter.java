@@ -0,0 +1,124 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+/**
+ * Bloom filter of the hashes of the keys of a {@link JoinIndex}, to reject most of the keys that are not in the index
+ * without probing it.
+ * <p>
+ * The bits are spread with double hashing: the <code>i</code>-th bit of a hash is <code>h1 + i * h2</code>, where
+ * <code>h1</code> and <code>h2</code> are two different mixes of the hash of the key, both independent of
+ * {@link Keys#mix(int)}, which selects the slot of the key in the index: the keys that collide in the index are not
+ * more likely to collide in the Bloom filter.
+ *
+ */
+final class BloomFilter {
+
+	/**
+	 * Maximum number of bits (the bits are stored in an array of longs)
+	 */
+	private static final long MAX_BIT_COUNT = 1L << 32;
+
+	private final long[] bits;
+	private final long mask;
+	private final int hashCount;
+	private final double falsePositiveProbability;
+
+	/**
+	 * Create an empty Bloom filter, sized for the given number of keys and false positive probability
+	 *
+	 * @param expectedKeyCount
+	 *             The number of keys that will be added
+	 * @param falsePositiveProbability
+	 *             The probability that a key that was not added is reported as present
+	 */
+	BloomFilter(final int expectedKeyCount, final double falsePositiveProbability) {
+		final int keyCount = Math.max(1, expectedKeyCount);
+		final double ln2 = Math.log(2);
+		final double optimalBitCount = -keyCount * Math.log(falsePositiveProbability) / (ln2 * ln2);
+
+		// A power of 2, so that a bit is selected with a mask
+		long bitCount = 64;
+		while (bitCount < optimalBitCount && bitCount < MAX_BIT_COUNT) {
+			bitCount <<= 1;
+		}
+		this.bits = new long[(int) (bitCount >>> 6)];
+		this.mask = bitCount - 1;
+		this.hashCount = (int) Math.max(1, Math.min(16, Math.round(optimalBitCount / keyCount * ln2)));
+		this.falsePositiveProbability = falsePositiveProbability;
+	}
+
+	/**
+	 * @return the false positive probability this Bloom filter was sized for
+	 */
+	double getFalsePositiveProbability() {
+		return falsePositiveProbability;
+	}
+
+	/**
+	 * Add the hash of a key
+	 */
+	void add(final int hash) {
+		final long h1 = firstHash(hash);
+		final long h2 = secondHash(hash);
+		for (int i = 0; i < hashCount; i++) {
+			final long bit = (h1 + i * h2) & mask;
+			bits[(int) (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * @return <code>false</code> if the key of the given hash was definitely not added, <code>true</code> if it may have
+	 * been added
+	 */
+	boolean mightContain(final int hash) {
+		final long h1 = firstHash(hash);
+		final long h2 = secondHash(hash);
+		for (int i = 0; i < hashCount; i++) {
+			final long bit = (h1 + i * h2) & mask;
+			if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return a mix of the hash that is independent of {@link Keys#mix(int)} (the finalizer of MurmurHash3)
+	 */
+	private static long firstHash(final int hash) {
+		int h = hash;
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		return (h ^ (h >>> 16)) & 0xffffffffL;
+	}
+
+	/**
+	 * @return a mix of the hash that is independent of {@link Keys#mix(int)} and {@link #firstHash(int)} (and odd, so
+	 * that it never repeats bits)
+	 */
+	private static long secondHash(final int hash) {
+		final int h = Integer.rotateLeft(hash * 0xcc9e2d51, 15) * 0x1b873593;
+		return ((h ^ (h >>> 15)) & 0xffffffffL) | 1;
+	}
+}
@@ -0,0 +1,162 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dictionary of the cell values created by the CSV parser, so that identical cells share the same {@link String}
+ * instance, across rows and across the calls that use the same dictionary (see
+ * {@link JoinOptions.Builder#cellDictionary(CellDictionary)} and
+ * {@link TableJoin#stringToTable(String, String, CellDictionary)}).
+ * <p>
+ * Tables polled again and again repeat the same values (status values, class names, hostnames...): with a dictionary
+ * kept from one polling cycle to the next, a long-running process keeps one instance of each value instead of one per
+ * cell, and the hash codes of these instances (used as keys of a {@link JoinIndex}) are computed only once, as
+ * {@link String} caches its hash code. A dictionary is scoped by its owner: it can be shared by all the JOIN operations
+ * of a process, or kept per source, and dropped with it.
+ * <p>
+ * The dictionary is bounded: each value has a single slot, determined by its hash code. A new value only takes a slot
+ * that is empty or whose value has been garbage collected, so that the values in use are never evicted by values seen
+ * once: the values are weakly referenced, and a slot is freed as soon as no table uses its value anymore.
+ * <p>
+ * This class is thread-safe.
+ *
+ */
+public final class CellDictionary {
+
+	/**
+	 * Maximum number of slots
+	 */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private final AtomicReferenceArray<WeakReference<String>> values;
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * Create an empty dictionary
+	 *
+	 * @param capacity
+	 *             The number of values kept in the dictionary (rounded up to a power of 2)
+	 * @throws IllegalArgumentException
+	 *             When capacity is lower than 1
+	 */
+	public CellDictionary(final int capacity) throws IllegalArgumentException {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Invalid dictionary capacity (capacity=" + capacity + ")");
+		}
+		int size = 1;
+		while (size < capacity && size < MAX_CAPACITY) {
+			size <<= 1;
+		}
+		this.values = new AtomicReferenceArray<>(size);
+	}
+
+	/**
+	 * @return the number of slots of the dictionary
+	 */
+	public int getCapacity() {
+		return values.length();
+	}
+
+	/**
+	 * @return the number of cells whose value was found in the dictionary
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * @return the number of cells whose value had to be created
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Get the value of the given region of a text, from the dictionary if it is there
+	 *
+	 * @param text
+	 *             The source text
+	 * @param start
+	 *             Index of the first character of the value
+	 * @param end
+	 *             Index after the last character of the value
+	 * @return the {@link String} value of the region
+	 */
+	String get(final CharSequence text, final int start, final int end) {
+		if (start == end) {
+			return "";
+		}
+
+		// Same hash code as String#hashCode()
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+		final int slot = Keys.mix(hash) & (values.length() - 1);
+		final WeakReference<String> reference = values.get(slot);
+		final String cached = reference != null ? reference.get() : null;
+		if (cached != null && regionEquals(cached, text, start, end)) {
+			hitCount.increment();
+			return cached;
+		}
+
+		final String value = text.subSequence(start, end).toString();
+		missCount.increment();
+
+		// Admission: only an empty slot, or a slot whose value is no longer used, takes the new value
+		// (a thread that loses the race only keeps its own instance)
+		if (cached == null) {
+			values.compareAndSet(slot, reference, new WeakReference<>(value));
+		}
+		return value;
+	}
+
+	/**
+	 * Get the value of the given region of a text, from the given dictionary
+	 *
+	 * @param dictionary
+	 *             The dictionary, or <code>null</code> to create a new {@link String}
+	 * @see #get(CharSequence, int, int)
+	 */
+	static String get(final CellDictionary dictionary, final CharSequence text, final int start, final int end) {
+		return dictionary != null ? dictionary.get(text, start, end) : text.subSequence(start, end).toString();
+	}
+
+	/**
+	 * @return whether the given value has the same characters as the region of the text
+	 */
+	private static boolean regionEquals(final String value, final CharSequence text, final int start, final int end) {
+		if (value.length() != end - start) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (value.charAt(i - start) != text.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,161 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Chained JOIN of a left table with several right tables, in a single pass.
+ * <p>
+ * The indexes of all the right tables are built up front. Each left row is then extended in place with the matching
+ * line of each right table, one probe per index: the result is the same as joining the left table with each right
+ * table in turn, but without any intermediate table.
+ *
+ */
+final class ChainedJoin {
+
+	private final JoinIndex[] rightTableIndexes;
+	private final int[][] leftKeyColumnNumbers;
+	private final List<List<String>> defaultRightLines;
+	private final JoinStats stats;
+	private final boolean rowViews;
+
+	private ChainedJoin(final List<JoinSpec> joinSpecs, final JoinOptions options) {
+		final int stepCount = joinSpecs.size();
+		this.rightTableIndexes = new JoinIndex[stepCount];
+		this.leftKeyColumnNumbers = new int[stepCount][];
+		this.defaultRightLines = new ArrayList<>(stepCount);
+		for (int step = 0; step < stepCount; step++) {
+			final JoinSpec joinSpec = joinSpecs.get(step);
+			rightTableIndexes[step] = joinSpec.buildIndex(options);
+			leftKeyColumnNumbers[step] = joinSpec.getLeftKeyColumnNumbers();
+			defaultRightLines.add(joinSpec.getDefaultRightLine());
+		}
+		this.stats = options.getStats();
+		this.rowViews = options.isRowViews();
+	}
+
+	/**
+	 * Joins the left table with each right table in turn
+	 *
+	 * @param leftTable
+	 *             The left table
+	 * @param joinSpecs
+	 *             The right tables and how they are matched, in the order of the JOIN operations
+	 * @param options
+	 *             How the JOIN operations are performed
+	 * @return the result of the last JOIN operation
+	 */
+	static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final List<JoinSpec> joinSpecs,
+		final JoinOptions options
+	) {
+		final JoinStats stats = options.getStats();
+		final ChainedJoin chainedJoin = new ChainedJoin(joinSpecs, options);
+
+		final long start = stats != null ? System.nanoTime() : 0;
+		final List<List<String>> result = TableJoin.joinInChunks(leftTable, options, chainedJoin::probe);
+		if (stats != null) {
+			for (int step = 0; step < joinSpecs.size(); step++) {
+				stats.addJoin();
+			}
+			stats.addProbeNanos(System.nanoTime() - start);
+		}
+		return result;
+	}
+
+	/**
+	 * Probe the indexes of the right tables with each row of the left table, sequentially
+	 *
+	 * @return the result of the last JOIN operation on the given left rows
+	 */
+	private List<List<String>> probe(final List<List<String>> leftTable) {
+		final List<List<String>> result = new ArrayList<>();
+		// The size of the previous resulting row is a good guess for the next one
+		int capacity = 0;
+		for (final List<String> leftLine : leftTable) {
+			final List<String> line = join(leftLine, capacity);
+			if (line != null) {
+				result.add(line);
+				capacity = line.size();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Join the given left line with each right table in turn
+	 *
+	 * @return the resulting line, or <code>null</code> if the left line is discarded by one of the JOIN operations
+	 */
+	private List<String> join(final List<String> leftLine, final int capacity) {
+		List<String> line = leftLine;
+		List<String> joinedLine = null;
+		for (int step = 0; step < rightTableIndexes.length; step++) {
+			if (stats != null) {
+				stats.addLeftRows(1);
+			}
+			if (!TableJoin.isValidLeftLine(leftKeyColumnNumbers[step], line)) {
+				if (stats != null) {
+					stats.addInvalidLeftRow();
+				}
+				return null;
+			}
+
+			List<String> rightLine = rightTableIndexes[step].lookup(line, leftKeyColumnNumbers[step], stats);
+			if (rightLine != null) {
+				if (stats != null) {
+					stats.addMatchedLeftRow();
+				}
+			} else if (!defaultRightLines.get(step).isEmpty()) {
+				if (stats != null) {
+					stats.addDefaultedLeftRow();
+				}
+				rightLine = defaultRightLines.get(step);
+			} else {
+				if (stats != null) {
+					stats.addUnmatchedLeftRow();
+				}
+				return null;
+			}
+
+			if (rowViews) {
+				line = new JoinedLine(line, rightLine);
+				continue;
+			}
+
+			// The left line is copied once, then extended in place
+			if (joinedLine == null) {
+				joinedLine = new ArrayList<>(Math.max(capacity, leftLine.size() + rightLine.size()));
+				joinedLine.addAll(leftLine);
+				line = joinedLine;
+			}
+			joinedLine.addAll(rightLine);
+		}
+		if (rowViews) {
+			return line != leftLine ? line : new JoinedLine(leftLine, Collections.emptyList());
+		}
+		return joinedLine != null ? joinedLine : new ArrayList<>(leftLine);
+	}
+}
@@ -0,0 +1,266 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.List;
+
+/**
+ * JOIN of two {@link Table} instances, working directly on their buffers.
+ * <p>
+ * The right table is indexed by row number in an open-addressing hash table, and the keys are hashed and compared
+ * as {@link CharSequence} views of the cells: no {@link String} is created, except for WBEM keys, which need to
+ * be normalized. The resulting rows are copied cell by cell into the buffer of a new {@link Table}.
+ *
+ */
+final class ColumnarJoin {
+
+	private final Table rightTable;
+	private final int[] rightKeyColumnNumbers;
+	private final boolean wbemKeyType;
+	private final boolean caseInsensitive;
+	private final boolean foldCase;
+
+	/**
+	 * Right row number + 1 of each slot (0 for an empty slot)
+	 */
+	private int[] slots;
+	private int[] hashes;
+
+	/**
+	 * Normalized keys of the right rows (WBEM keys only), <code>keyColumnCount</code> values per row
+	 */
+	private String[] normalizedRightKeys;
+
+	private ColumnarJoin(
+		final Table rightTable,
+		final int[] rightKeyColumnNumbers,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) {
+		this.rightTable = rightTable;
+		this.rightKeyColumnNumbers = rightKeyColumnNumbers;
+		this.wbemKeyType = wbemKeyType;
+		this.caseInsensitive = caseInsensitive;
+		// Normalized WBEM paths are already folded
+		this.foldCase = caseInsensitive && !wbemKeyType;
+	}
+
+	/**
+	 * Joins two tables
+	 *
+	 * @param leftTable
+	 *             The left table
+	 * @param rightTable
+	 *             The right table. May be <code>null</code>.
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table
+	 * @param defaultRightLine
+	 *             The default entry to be put if a matching entry is not found in the right table (LEFT JOIN), whose
+	 *             <code>null</code> cells are written as empty cells
+	 * @param handleDefaultRightLine
+	 *             Whether the default right line is used (LEFT JOIN) or not (INNER JOIN)
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @return the result of the JOIN operation
+	 */
+	static Table join(
+		final Table leftTable,
+		final Table rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean handleDefaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) {
+		final ColumnarJoin columnarJoin = new ColumnarJoin(rightTable, rightKeyColumnNumbers, wbemKeyType, caseInsensitive);
+		columnarJoin.index();
+
+		final Table.Builder result = Table.builder();
+		final String[] leftKey = new String[leftKeyColumnNumbers.length];
+		final int rowCount = leftTable.getRowCount();
+		for (int leftRow = 0; leftRow < rowCount; leftRow++) {
+			if (!isValidLeftRow(leftTable, leftRow, leftKeyColumnNumbers)) {
+				continue;
+			}
+			final int rightRow = columnarJoin.find(leftTable, leftRow, leftKeyColumnNumbers, leftKey);
+			if (rightRow < 0 && !handleDefaultRightLine) {
+				continue;
+			}
+			addCells(result, leftTable, leftRow);
+			if (rightRow >= 0) {
+				addCells(result, rightTable, rightRow);
+			} else {
+				// A table has no null cells: they are empty, as in Table.fromList()
+				for (final String cell : defaultRightLine) {
+					result.addCell(cell != null ? cell : "");
+				}
+			}
+			result.endRow();
+		}
+		return result.build();
+	}
+
+	/**
+	 * Index the rows of the right table that have all the key columns (the first row wins for duplicate keys)
+	 */
+	private void index() {
+		final int rowCount = rightTable != null ? rightTable.getRowCount() : 0;
+		int capacity = 16;
+		while (capacity < rowCount * 2) {
+			capacity <<= 1;
+		}
+		slots = new int[capacity];
+		hashes = new int[capacity];
+		final int keyColumnCount = rightKeyColumnNumbers.length;
+		if (wbemKeyType) {
+			normalizedRightKeys = new String[rowCount * keyColumnCount];
+		}
+		int maxKeyColumnNumber = 0;
+		for (final int rightKeyColumnNumber : rightKeyColumnNumbers) {
+			maxKeyColumnNumber = Math.max(maxKeyColumnNumber, rightKeyColumnNumber);
+		}
+
+		final int mask = capacity - 1;
+		for (int row = 0; row < rowCount; row++) {
+			if (rightTable.getCellCount(row) < maxKeyColumnNumber) {
+				continue;
+			}
+			int hash = 0;
+			for (int i = 0; i < keyColumnCount; i++) {
+				final CharSequence value;
+				if (wbemKeyType) {
+					value = normalize(rightTable.getCell(row, rightKeyColumnNumbers[i] - 1));
+					normalizedRightKeys[row * keyColumnCount + i] = (String) value;
+				} else {
+					value = rightTable.getCell(row, rightKeyColumnNumbers[i] - 1);
+				}
+				hash = 31 * hash + Keys.hash(value, foldCase);
+			}
+			int slot = Keys.mix(hash) & mask;
+			boolean duplicate = false;
+			while (slots[slot] != 0) {
+				if (hashes[slot] == hash && keyEquals(slots[slot] - 1, rightTable, row, rightKeyColumnNumbers, null)) {
+					duplicate = true;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+			if (!duplicate) {
+				slots[slot] = row + 1;
+				hashes[slot] = hash;
+			}
+		}
+	}
+
+	/**
+	 * Find the right row matching with the key of the given left row
+	 *
+	 * @param leftKey
+	 *             Array where the normalized WBEM keys of the left row are stored (unused for other keys)
+	 * @return the right row number, or -1 if there is no match
+	 */
+	private int find(final Table leftTable, final int leftRow, final int[] leftKeyColumnNumbers, final String[] leftKey) {
+		int hash = 0;
+		for (int i = 0; i < leftKeyColumnNumbers.length; i++) {
+			final CharSequence value;
+			if (wbemKeyType) {
+				leftKey[i] = normalize(leftTable.getCell(leftRow, leftKeyColumnNumbers[i] - 1));
+				value = leftKey[i];
+			} else {
+				value = leftTable.getCell(leftRow, leftKeyColumnNumbers[i] - 1);
+			}
+			hash = 31 * hash + Keys.hash(value, foldCase);
+		}
+		final int mask = slots.length - 1;
+		int slot = Keys.mix(hash) & mask;
+		while (slots[slot] != 0) {
+			if (hashes[slot] == hash && keyEquals(slots[slot] - 1, leftTable, leftRow, leftKeyColumnNumbers, leftKey)) {
+				return slots[slot] - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Compare the key of an indexed right row with the key of a row of the given table
+	 *
+	 * @param normalizedKey
+	 *             The normalized WBEM key of the other row, or <code>null</code> to read (and normalize) it from
+	 *             the table
+	 */
+	private boolean keyEquals(
+		final int indexedRow,
+		final Table table,
+		final int row,
+		final int[] keyColumnNumbers,
+		final String[] normalizedKey
+	) {
+		final int keyColumnCount = rightKeyColumnNumbers.length;
+		for (int i = 0; i < keyColumnCount; i++) {
+			final CharSequence indexedValue;
+			final CharSequence value;
+			if (wbemKeyType) {
+				indexedValue = normalizedRightKeys[indexedRow * keyColumnCount + i];
+				value = normalizedKey != null ? normalizedKey[i] : normalizedRightKeys[row * keyColumnCount + i];
+			} else {
+				indexedValue = rightTable.getCell(indexedRow, rightKeyColumnNumbers[i] - 1);
+				value = table.getCell(row, keyColumnNumbers[i] - 1);
+			}
+			if (!Keys.equals(indexedValue, value, foldCase)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String normalize(final CharSequence value) {
+		return WbemKeyNormalizer.normalize(value.toString(), caseInsensitive);
+	}
+
+	/**
+	 * A left row can be joined if it has all the key columns, and none of them is empty
+	 */
+	private static boolean isValidLeftRow(final Table leftTable, final int leftRow, final int[] leftKeyColumnNumbers) {
+		final int cellCount = leftTable.getCellCount(leftRow);
+		for (final int leftKeyColumnNumber : leftKeyColumnNumbers) {
+			if (
+				leftKeyColumnNumber > cellCount ||
+				leftTable.cellStart(leftRow, leftKeyColumnNumber - 1) == leftTable.cellEnd(leftRow, leftKeyColumnNumber - 1)
+			) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void addCells(final Table.Builder builder, final Table table, final int row) {
+		final int cellCount = table.getCellCount(row);
+		for (int cell = 0; cell < cellCount; cell++) {
+			builder.addCell(table, row, cell);
+		}
+	}
+}
@@ -0,0 +1,439 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Single-pass scanner that splits CSV text into rows and cells.
+ * <p>
+ * The separator is matched as a literal string (not as a regular expression) and cells are
+ * extracted directly from the source text, without intermediate arrays or line copies.
+ * A line that does not end with the separator is handled as if the separator was appended to it,
+ * which is what {@link TableJoin#lineToList(String, String)} has always done.
+ *
+ */
+final class CsvTokenizer {
+
+	private final String separator;
+	private final int separatorLength;
+	private final boolean separatorHasNewline;
+	private final CellDictionary cellDictionary;
+
+	/**
+	 * Create a tokenizer for the given separator
+	 *
+	 * @param separator
+	 *             The cells separator (a literal string)
+	 */
+	CsvTokenizer(final String separator) {
+		this(separator, null);
+	}
+
+	/**
+	 * Create a tokenizer for the given separator, whose cells are shared through the given dictionary
+	 *
+	 * @param separator
+	 *             The cells separator (a literal string)
+	 * @param cellDictionary
+	 *             The dictionary of the cell values, or <code>null</code> to create a new {@link String} per cell
+	 */
+	CsvTokenizer(final String separator, final CellDictionary cellDictionary) {
+		this.separator = separator;
+		this.separatorLength = separator.length();
+		this.separatorHasNewline = separator.indexOf('\n') >= 0;
+		this.cellDictionary = cellDictionary;
+	}
+
+	/**
+	 * Parse a CSV table: rows are separated by end-of-lines \n, empty lines are discarded
+	 *
+	 * @param csvTable
+	 *             The CSV text to parse
+	 * @return {@link List} of rows, each row being a {@link List} of cells
+	 */
+	List<List<String>> parseTable(final CharSequence csvTable) {
+		final List<List<String>> table = new ArrayList<>();
+		final int length = csvTable.length();
+		int lineStart = 0;
+		while (lineStart <= length) {
+			final List<String> row = new ArrayList<>();
+			lineStart = scanTableLine(csvTable, lineStart, length, cellsOf(row)) + 1;
+			if (!row.isEmpty()) {
+				table.add(row);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Parse some columns and some rows of a CSV table: rows are separated by end-of-lines \n, empty lines are
+	 * discarded. The cells of the other columns are skipped without creating any {@link String}: they are
+	 * <code>null</code>, and the rows stop after the last parsed column.
+	 *
+	 * @param csvTable
+	 *             The CSV text to parse
+	 * @param parsedColumns
+	 *             Which columns are parsed, indexed by column number - 1, or <code>null</code> to parse all of them
+	 * @param rowFilter
+	 *             The rows kept in the table, tested as soon as they are parsed, or <code>null</code> to keep all of
+	 *             them
+	 * @return {@link List} of rows, each row being a {@link List} of cells
+	 */
+	List<List<String>> parseTable(
+		final CharSequence csvTable,
+		final boolean[] parsedColumns,
+		final Predicate<List<String>> rowFilter
+	) {
+		final List<List<String>> table = new ArrayList<>();
+		final int length = csvTable.length();
+		int lineStart = 0;
+		while (lineStart <= length) {
+			final List<String> row = parsedColumns != null ? new ArrayList<>(parsedColumns.length) : new ArrayList<>();
+			final CellSink cells = parsedColumns != null ? cellsOf(row, parsedColumns) : cellsOf(row);
+			lineStart = scanTableLine(csvTable, lineStart, length, cells) + 1;
+			if (!row.isEmpty() && (rowFilter == null || rowFilter.test(row))) {
+				table.add(row);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Parse a CSV table into the given {@link Table.Builder}: rows are separated by end-of-lines \n, empty lines are
+	 * discarded. The cells are copied from the CSV text to the buffer of the table, no {@link String} is created.
+	 *
+	 * @param csvTable
+	 *             The CSV text to parse
+	 * @param builder
+	 *             Where the rows are added
+	 */
+	void parseTable(final CharSequence csvTable, final Table.Builder builder) {
+		final int length = csvTable.length();
+		int lineStart = 0;
+		while (lineStart <= length) {
+			lineStart = scanTableLine(csvTable, lineStart, length, builder::addCell) + 1;
+			if (builder.isRowStarted()) {
+				builder.endRow();
+			}
+		}
+	}
+
+	/**
+	 * Scan the line of a table starting at <code>lineStart</code>
+	 *
+	 * @return The index at which the line ends (exclusive)
+	 */
+	private int scanTableLine(final CharSequence csvTable, final int lineStart, final int length, final CellSink cells) {
+		if (separatorHasNewline) {
+			// The separator can never match across lines, so locate the end of line first
+			final int lineEnd = indexOfNewline(csvTable, lineStart, length);
+			scanLine(csvTable, lineStart, lineEnd, false, cells);
+			return lineEnd;
+		}
+		return scanLine(csvTable, lineStart, length, true, cells);
+	}
+
+	/**
+	 * Parse a single CSV line. End-of-lines are not interpreted.
+	 *
+	 * @param line
+	 *             The line to parse
+	 * @return {@link List} of cells (empty if the line is empty)
+	 */
+	List<String> parseLine(final CharSequence line) {
+		final List<String> cells = new ArrayList<>();
+		scanLine(line, 0, line.length(), false, cellsOf(cells));
+		return cells;
+	}
+
+	/**
+	 * Parse a single CSV line into the given sink. End-of-lines are not interpreted.
+	 *
+	 * @param line
+	 *             The line to parse
+	 * @param cells
+	 *             Where the cells are passed (nothing is passed if the line is empty)
+	 */
+	void parseLine(final CharSequence line, final CellSink cells) {
+		scanLine(line, 0, line.length(), false, cells);
+	}
+
+	/**
+	 * Create a {@link RowReader} that parses the CSV text read from the given {@link Reader}, one row at a time
+	 *
+	 * @param reader
+	 *             The source of the CSV text (rows are separated by end-of-lines \n)
+	 * @return a new {@link RowReader}
+	 */
+	RowReader rowReader(final Reader reader) {
+		return new RowReader(reader);
+	}
+
+	/**
+	 * Scan one line starting at <code>start</code> and pass its cells to the given sink
+	 *
+	 * @param text
+	 *             The source text
+	 * @param start
+	 *             Index of the first character of the line
+	 * @param limit
+	 *             Index after the last character that may belong to the line
+	 * @param stopAtNewline
+	 *             Whether the line ends at the first \n found before <code>limit</code>
+	 * @param cells
+	 *             Where the cells are passed
+	 * @return The index at which the line ends (exclusive)
+	 */
+	private int scanLine(
+		final CharSequence text,
+		final int start,
+		final int limit,
+		final boolean stopAtNewline,
+		final CellSink cells
+	) {
+		if (separatorLength == 0) {
+			return scanCharacters(text, start, limit, stopAtNewline, cells);
+		}
+
+		final char firstSeparatorChar = separator.charAt(0);
+		int cellStart = start;
+		int i = start;
+		while (i < limit) {
+			final char c = text.charAt(i);
+			if (stopAtNewline && c == '\n') {
+				break;
+			}
+			if (c == firstSeparatorChar && matchesAt(text, i, limit)) {
+				cells.addCell(text, cellStart, i);
+				i += separatorLength;
+				cellStart = i;
+			} else {
+				i++;
+			}
+		}
+		final int lineEnd = i;
+
+		// Empty lines have no cells at all
+		if (lineEnd == start) {
+			return lineEnd;
+		}
+
+		// When the line is not terminated by the separator, the separator is virtually appended to it,
+		// so the remaining characters make one last cell (up to the first virtual match)
+		if (!endsWithSeparator(text, start, lineEnd)) {
+			int p = Math.max(cellStart, lineEnd - separatorLength + 1);
+			while (!matchesVirtuallyAt(text, p, lineEnd)) {
+				p++;
+			}
+			cells.addCell(text, cellStart, p);
+		}
+
+		return lineEnd;
+	}
+
+	/**
+	 * Degenerated case of the empty separator: each character is a cell
+	 */
+	private static int scanCharacters(
+		final CharSequence text,
+		final int start,
+		final int limit,
+		final boolean stopAtNewline,
+		final CellSink cells
+	) {
+		int i = start;
+		while (i < limit && !(stopAtNewline && text.charAt(i) == '\n')) {
+			cells.addCell(text, i, i + 1);
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @return whether the separator is found at index <code>i</code>, entirely before <code>limit</code>
+	 */
+	private boolean matchesAt(final CharSequence text, final int i, final int limit) {
+		if (i + separatorLength > limit) {
+			return false;
+		}
+		for (int j = 1; j < separatorLength; j++) {
+			if (text.charAt(i + j) != separator.charAt(j)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the separator is found at index <code>i</code> of the line ending at
+	 * <code>lineEnd</code>, followed by a virtual copy of the separator
+	 */
+	private boolean matchesVirtuallyAt(final CharSequence text, final int i, final int lineEnd) {
+		for (int j = 0; j < separatorLength; j++) {
+			final int index = i + j;
+			final char c = index < lineEnd ? text.charAt(index) : separator.charAt(index - lineEnd);
+			if (c != separator.charAt(j)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the line <code>[start, end)</code> ends with the separator
+	 */
+	private boolean endsWithSeparator(final CharSequence text, final int start, final int end) {
+		if (end - start < separatorLength) {
+			return false;
+		}
+		final int offset = end - separatorLength;
+		for (int j = 0; j < separatorLength; j++) {
+			if (text.charAt(offset + j) != separator.charAt(j)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the index of the next \n at or after <code>from</code>, or <code>limit</code> if there is none
+	 */
+	private static int indexOfNewline(final CharSequence text, final int from, final int limit) {
+		int i = from;
+		while (i < limit && text.charAt(i) != '\n') {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @return a {@link CellSink} that adds the cells to the given list, as {@link String} values (shared through the
+	 * {@link CellDictionary} of this tokenizer, if any)
+	 */
+	private CellSink cellsOf(final List<String> cells) {
+		return (text, start, end) -> cells.add(CellDictionary.get(cellDictionary, text, start, end));
+	}
+
+	/**
+	 * @return a {@link CellSink} that adds the cells of the parsed columns to the given list, and <code>null</code>
+	 * for the other columns
+	 */
+	private CellSink cellsOf(final List<String> cells, final boolean[] parsedColumns) {
+		return (text, start, end) -> {
+			final int column = cells.size();
+			if (column < parsedColumns.length) {
+				cells.add(parsedColumns[column] ? CellDictionary.get(cellDictionary, text, start, end) : null);
+			}
+		};
+	}
+
+	/**
+	 * Receives the cells of a line, as regions of the source text
+	 */
+	@FunctionalInterface
+	interface CellSink {
+		/**
+		 * @param text
+		 *             The source text
+		 * @param start
+		 *             Index of the first character of the cell
+		 * @param end
+		 *             Index after the last character of the cell
+		 */
+		void addCell(CharSequence text, int start, int end);
+	}
+
+	/**
+	 * Reads the rows of a CSV text one by one, so that the whole table never needs to be held in memory.
+	 * Empty lines are discarded, like in {@link CsvTokenizer#parseTable(CharSequence)}.
+	 */
+	final class RowReader {
+
+		private final Reader reader;
+		private final char[] buffer = new char[8192];
+		private final StringBuilder line = new StringBuilder();
+		private int position;
+		private int limit;
+		private boolean endOfInput;
+
+		private RowReader(final Reader reader) {
+			this.reader = reader;
+		}
+
+		/**
+		 * Read and parse the next non-empty row
+		 *
+		 * @return {@link List} of cells, or <code>null</code> when the end of the input has been reached
+		 * @throws IOException
+		 *             When reading from the underlying {@link Reader} fails
+		 */
+		List<String> nextRow() throws IOException {
+			while (readLine()) {
+				final List<String> row = new ArrayList<>();
+				scanLine(line, 0, line.length(), false, cellsOf(row));
+				if (!row.isEmpty()) {
+					return row;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Read the next line (without its end-of-line) into the line buffer
+		 *
+		 * @return <code>false</code> if there is no more line to read
+		 * @throws IOException
+		 *             When reading from the underlying {@link Reader} fails
+		 */
+		private boolean readLine() throws IOException {
+			line.setLength(0);
+			if (endOfInput) {
+				return false;
+			}
+			while (true) {
+				if (position == limit) {
+					limit = reader.read(buffer, 0, buffer.length);
+					position = 0;
+					if (limit < 0) {
+						limit = 0;
+						endOfInput = true;
+						return true;
+					}
+				}
+				int i = position;
+				while (i < limit && buffer[i] != '\n') {
+					i++;
+				}
+				line.append(buffer, position, i - position);
+				if (i < limit) {
+					position = i + 1;
+					return true;
+				}
+				position = limit;
+			}
+		}
+	}
+}
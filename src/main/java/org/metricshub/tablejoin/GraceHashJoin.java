@@ -0,0 +1,622 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * JOIN of two tables read row by row, within a memory budget.
+ * <p>
+ * The right table is indexed in memory as long as the (estimated) size of its index stays within the budget.
+ * Beyond that, both tables are hash-partitioned on their key into temporary files: each partition of the right table
+ * is then indexed and joined with the same partition of the left table, and partitions that are still too large are
+ * partitioned again with other bits of the hash. The left rows are numbered before being partitioned, so that the
+ * results of all the partitions can be merged back in the order of the left table: the output is the same as with
+ * an in-memory index, row for row. The temporary files are deleted once the JOIN is done, or has failed.
+ *
+ */
+final class GraceHashJoin {
+
+	/**
+	 * Number of partitions a table is split into, at each level
+	 */
+	private static final int PARTITION_BITS = 4;
+	private static final int PARTITION_COUNT = 1 << PARTITION_BITS;
+
+	/**
+	 * Maximum number of partitioning levels (each level uses other bits of the hash of the keys)
+	 */
+	private static final int MAX_LEVEL = 4;
+
+	/**
+	 * Estimated size in bytes of an indexed row (the row and its slot in the index), and of each of its cells,
+	 * in addition to its characters
+	 */
+	private static final long ROW_OVERHEAD = 96;
+	private static final long CELL_OVERHEAD = 48;
+
+	private final int[] leftKeyColumnNumbers;
+	private final int[] rightKeyColumnNumbers;
+	private final List<String> defaultRightLine;
+	private final boolean handleDefaultRightLine;
+	private final boolean wbemKeyType;
+	private final boolean caseInsensitive;
+	private final long memoryBudget;
+	private final double bloomFilterFalsePositiveProbability;
+	private final boolean numericKeys;
+	private final WbemKeyMemo wbemKeyMemo;
+	private final String separator;
+	private final Appendable output;
+	private final JoinStats stats;
+	private boolean firstLine = true;
+
+	private GraceHashJoin(
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final long memoryBudget,
+		final double bloomFilterFalsePositiveProbability,
+		final boolean numericKeys,
+		final WbemKeyMemo wbemKeyMemo,
+		final String separator,
+		final Appendable output,
+		final JoinStats stats
+	) {
+		this.leftKeyColumnNumbers = leftKeyColumnNumbers;
+		this.rightKeyColumnNumbers = rightKeyColumnNumbers;
+		this.defaultRightLine = defaultRightLine;
+		this.handleDefaultRightLine = !defaultRightLine.isEmpty();
+		this.wbemKeyType = wbemKeyType;
+		this.caseInsensitive = caseInsensitive;
+		this.memoryBudget = memoryBudget;
+		this.bloomFilterFalsePositiveProbability = bloomFilterFalsePositiveProbability;
+		this.numericKeys = numericKeys;
+		this.wbemKeyMemo = wbemKeyMemo;
+		this.separator = separator;
+		this.output = output;
+		this.stats = stats;
+	}
+
+	/**
+	 * Joins two tables read row by row, and writes the result as CSV
+	 *
+	 * @param leftReader
+	 *             The rows of the left table
+	 * @param rightReader
+	 *             The rows of the right table, or <code>null</code> if there is no right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table
+	 * @param defaultRightLine
+	 *             The default entry to be put if a matching entry is not found in the right table (LEFT JOIN),
+	 *             empty for an INNER JOIN
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param options
+	 *             The memory budget (0 for unlimited), the directory of the temporary files and the statistics
+	 * @param separator
+	 *             The columns separator of the output
+	 * @param output
+	 *             Where the result of the JOIN operation is written
+	 * @throws IOException
+	 *             When reading one of the tables, writing the result or using the temporary files fails
+	 */
+	static void join(
+		final CsvTokenizer.RowReader leftReader,
+		final CsvTokenizer.RowReader rightReader,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final JoinOptions options,
+		final String separator,
+		final Appendable output
+	) throws IOException {
+		final GraceHashJoin graceHashJoin = new GraceHashJoin(
+			leftKeyColumnNumbers,
+			rightKeyColumnNumbers,
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			options.getMemoryBudget(),
+			options.getBloomFilterFalsePositiveProbability(),
+			options.isNumericKeys(),
+			options.getWbemKeyMemo(),
+			separator,
+			output,
+			options.getStats()
+		);
+		final JoinStats stats = options.getStats();
+		if (stats != null) {
+			stats.addJoin();
+		}
+
+		// Initialize the lookup table, reading the right table row by row, until the memory budget is exceeded
+		long start = stats != null ? System.nanoTime() : 0;
+		final JoinIndex.Builder rightTableIndexBuilder = new JoinIndex.Builder(
+			rightKeyColumnNumbers,
+			wbemKeyType,
+			caseInsensitive,
+			stats,
+			options.isNumericKeys(),
+			options.getWbemKeyMemo()
+		);
+		final List<List<String>> indexedRightLines = new ArrayList<>();
+		long estimatedSize = 0;
+		List<String> rightLine;
+		while (rightReader != null && (rightLine = rightReader.nextRow()) != null) {
+			if (rightTableIndexBuilder.add(rightLine) && graceHashJoin.memoryBudget > 0) {
+				indexedRightLines.add(rightLine);
+				estimatedSize += estimateSize(rightLine);
+				if (estimatedSize > graceHashJoin.memoryBudget) {
+					if (stats != null) {
+						stats.addIndexBuildNanos(System.nanoTime() - start);
+						start = System.nanoTime();
+					}
+					graceHashJoin.spill(leftReader, rightReader, indexedRightLines, options);
+					if (stats != null) {
+						stats.addProbeNanos(System.nanoTime() - start);
+					}
+					return;
+				}
+			}
+		}
+		final JoinIndex rightTableIndex = graceHashJoin.buildIndex(rightTableIndexBuilder);
+		if (stats != null) {
+			stats.addIndexBuildNanos(System.nanoTime() - start);
+			start = System.nanoTime();
+		}
+
+		// Stream the left table, line by line, straight to the output
+		List<String> leftLine;
+		while ((leftLine = leftReader.nextRow()) != null) {
+			if (stats != null) {
+				stats.addLeftRows(1);
+			}
+			final List<String> joinedLine = graceHashJoin.joinLine(leftLine, rightTableIndex);
+			if (!joinedLine.isEmpty()) {
+				graceHashJoin.write(joinedLine);
+			}
+		}
+		if (stats != null) {
+			stats.addProbeNanos(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Partition both tables into temporary files, join the partitions and merge their results into the output
+	 */
+	private void spill(
+		final CsvTokenizer.RowReader leftReader,
+		final CsvTokenizer.RowReader rightReader,
+		final List<List<String>> indexedRightLines,
+		final JoinOptions options
+	) throws IOException {
+		final Path tempDirectory = options.getTempDirectory();
+		final Path directory = tempDirectory != null
+			? Files.createTempDirectory(tempDirectory, "tablejoin")
+			: Files.createTempDirectory("tablejoin");
+		Throwable failure = null;
+		try {
+			// The right lines that have already been indexed come first, then the rest of the right table
+			final Path[] rightPartitions;
+			try (Partitioner partitioner = new Partitioner(directory, "right", 0, rightKeyColumnNumbers)) {
+				for (final List<String> rightLine : indexedRightLines) {
+					partitioner.write(0, rightLine);
+				}
+				indexedRightLines.clear();
+				List<String> rightLine;
+				while ((rightLine = rightReader.nextRow()) != null) {
+					if (stats != null) {
+						stats.addRightRow();
+					}
+					if (hasKeyColumns(rightLine, rightKeyColumnNumbers)) {
+						partitioner.write(0, rightLine);
+					} else if (stats != null) {
+						stats.addIgnoredRightRow();
+					}
+				}
+				rightPartitions = partitioner.paths;
+			}
+
+			// Number the left lines, to merge the results back in the same order
+			final Path[] leftPartitions;
+			try (Partitioner partitioner = new Partitioner(directory, "left", 0, leftKeyColumnNumbers)) {
+				long sequence = 0;
+				List<String> leftLine;
+				while ((leftLine = leftReader.nextRow()) != null) {
+					if (stats != null) {
+						stats.addLeftRows(1);
+					}
+					if (TableJoin.isValidLeftLine(leftKeyColumnNumbers, leftLine)) {
+						partitioner.write(sequence++, leftLine);
+					} else if (stats != null) {
+						stats.addInvalidLeftRow();
+					}
+				}
+				leftPartitions = partitioner.paths;
+			}
+
+			final List<Path> results = new ArrayList<>(PARTITION_COUNT);
+			for (int i = 0; i < PARTITION_COUNT; i++) {
+				results.add(joinPartition(directory, rightPartitions[i], leftPartitions[i], 1));
+			}
+			merge(results, null);
+		} catch (Throwable e) {
+			failure = e;
+			throw e;
+		} finally {
+			deleteRecursively(directory, failure);
+		}
+	}
+
+	/**
+	 * Join a partition of the right table with the same partition of the left table
+	 *
+	 * @return the file of the joined lines, numbered like the left lines and in the same order
+	 */
+	private Path joinPartition(final Path directory, final Path rightPartition, final Path leftPartition, final int level)
+		throws IOException {
+		// The right lines have already been counted while they were partitioned
+		final JoinIndex.Builder rightTableIndexBuilder = newIndexBuilder();
+		long estimatedSize = 0;
+		boolean tooLarge = false;
+		try (SpillReader rightReader = new SpillReader(rightPartition)) {
+			while (!tooLarge && rightReader.next()) {
+				if (rightTableIndexBuilder.add(rightReader.line)) {
+					estimatedSize += estimateSize(rightReader.line);
+					tooLarge = estimatedSize > memoryBudget && level < MAX_LEVEL;
+				}
+			}
+		}
+
+		if (tooLarge) {
+			// Partition again, with other bits of the hash of the keys
+			final Path subDirectory = Files.createTempDirectory(directory, "level" + level);
+			Throwable failure = null;
+			try {
+				final Path[] rightPartitions = partition(rightPartition, subDirectory, "right", level, rightKeyColumnNumbers);
+				final Path[] leftPartitions = partition(leftPartition, subDirectory, "left", level, leftKeyColumnNumbers);
+				final List<Path> results = new ArrayList<>(PARTITION_COUNT);
+				for (int i = 0; i < PARTITION_COUNT; i++) {
+					results.add(joinPartition(subDirectory, rightPartitions[i], leftPartitions[i], level + 1));
+				}
+				final Path result = Files.createTempFile(directory, "result", ".bin");
+				merge(results, result);
+				return result;
+			} catch (Throwable e) {
+				failure = e;
+				throw e;
+			} finally {
+				deleteRecursively(subDirectory, failure);
+			}
+		}
+
+		final JoinIndex rightTableIndex = buildIndex(rightTableIndexBuilder);
+		final Path result = Files.createTempFile(directory, "result", ".bin");
+		try (SpillReader leftReader = new SpillReader(leftPartition); SpillWriter writer = new SpillWriter(result)) {
+			while (leftReader.next()) {
+				final List<String> joinedLine = joinLine(leftReader.line, rightTableIndex);
+				if (!joinedLine.isEmpty()) {
+					writer.write(leftReader.sequence, joinedLine);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Partition the lines of a temporary file (keeping their numbers)
+	 */
+	private Path[] partition(
+		final Path source,
+		final Path directory,
+		final String prefix,
+		final int level,
+		final int[] keyColumnNumbers
+	) throws IOException {
+		try (
+			SpillReader reader = new SpillReader(source);
+			Partitioner partitioner = new Partitioner(directory, prefix, level, keyColumnNumbers)
+		) {
+			while (reader.next()) {
+				partitioner.write(reader.sequence, reader.line);
+			}
+			return partitioner.paths;
+		}
+	}
+
+	/**
+	 * Merge the joined lines of several files, in the order of their numbers
+	 *
+	 * @param target
+	 *             The file where the merged lines are written, or <code>null</code> to write them to the output
+	 */
+	private void merge(final List<Path> sources, final Path target) throws IOException {
+		final PriorityQueue<SpillReader> queue = new PriorityQueue<>(
+			Math.max(1, sources.size()),
+			(reader1, reader2) -> Long.compare(reader1.sequence, reader2.sequence)
+		);
+		final SpillWriter writer = target != null ? new SpillWriter(target) : null;
+		try {
+			for (final Path source : sources) {
+				final SpillReader reader = new SpillReader(source);
+				if (reader.next()) {
+					queue.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+			SpillReader reader;
+			while ((reader = queue.poll()) != null) {
+				if (writer != null) {
+					writer.write(reader.sequence, reader.line);
+				} else {
+					write(reader.line);
+				}
+				if (reader.next()) {
+					queue.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+		} finally {
+			for (final SpillReader reader : queue) {
+				reader.close();
+			}
+			if (writer != null) {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * @return the joined line, or an empty line if the left line must be discarded
+	 */
+	private List<String> joinLine(final List<String> leftLine, final JoinIndex rightTableIndex) {
+		if (!TableJoin.isValidLeftLine(leftKeyColumnNumbers, leftLine)) {
+			if (stats != null) {
+				stats.addInvalidLeftRow();
+			}
+			return new ArrayList<>();
+		}
+		final List<String> rightLine = rightTableIndex.lookup(leftLine, leftKeyColumnNumbers, stats);
+		// The joined line is written right away, so it doesn't need to be copied
+		return TableJoin.concatLines(leftLine, rightLine, defaultRightLine, handleDefaultRightLine, true, null, stats);
+	}
+
+	private void write(final List<String> joinedLine) throws IOException {
+		if (!firstLine) {
+			output.append('\n');
+		}
+		TableJoin.appendCells(joinedLine, separator, output);
+		firstLine = false;
+	}
+
+	private JoinIndex.Builder newIndexBuilder() {
+		return new JoinIndex.Builder(rightKeyColumnNumbers, wbemKeyType, caseInsensitive, null, numericKeys, wbemKeyMemo);
+	}
+
+	/**
+	 * @return the index of the added right rows, with a Bloom filter if the options ask for one
+	 */
+	private JoinIndex buildIndex(final JoinIndex.Builder rightTableIndexBuilder) {
+		final JoinIndex rightTableIndex = rightTableIndexBuilder.build();
+		if (bloomFilterFalsePositiveProbability > 0) {
+			return rightTableIndex.withBloomFilter(bloomFilterFalsePositiveProbability);
+		}
+		return rightTableIndex;
+	}
+
+	/**
+	 * @return the estimated size in bytes of an indexed line
+	 */
+	private static long estimateSize(final List<String> line) {
+		long size = ROW_OVERHEAD;
+		for (final String cell : line) {
+			size += CELL_OVERHEAD + 2L * cell.length();
+		}
+		return size;
+	}
+
+	private static boolean hasKeyColumns(final List<String> line, final int[] keyColumnNumbers) {
+		for (final int keyColumnNumber : keyColumnNumbers) {
+			if (keyColumnNumber > line.size()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Delete a temporary directory once the work done in it is over, without hiding the failure of that work: the
+	 * failure to delete the directory is then added to it as a suppressed exception
+	 *
+	 * @param directory
+	 *             The directory to delete
+	 * @param failure
+	 *             The failure of the work done in the directory, or <code>null</code> if it succeeded
+	 * @throws IOException
+	 *             When the directory cannot be deleted after a successful work
+	 */
+	private static void deleteRecursively(final Path directory, final Throwable failure) throws IOException {
+		try {
+			deleteRecursively(directory);
+		} catch (IOException e) {
+			if (failure == null) {
+				throw e;
+			}
+			failure.addSuppressed(e);
+		}
+	}
+
+	private static void deleteRecursively(final Path path) throws IOException {
+		if (Files.isDirectory(path)) {
+			try (DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+				for (final Path child : children) {
+					deleteRecursively(child);
+				}
+			}
+		}
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Writes numbered lines into {@link #PARTITION_COUNT} temporary files, according to the hash of their key
+	 */
+	private final class Partitioner implements Closeable {
+
+		private final Path[] paths = new Path[PARTITION_COUNT];
+		private final SpillWriter[] writers = new SpillWriter[PARTITION_COUNT];
+		private final int shift;
+		private final int[] keyColumnNumbers;
+
+		private Partitioner(final Path directory, final String prefix, final int level, final int[] keyColumnNumbers)
+			throws IOException {
+			// The partitions use the high bits of the hash (the index uses the low bits), a different slice at each level
+			this.shift = Integer.SIZE - PARTITION_BITS * (level + 1);
+			this.keyColumnNumbers = keyColumnNumbers;
+			for (int i = 0; i < PARTITION_COUNT; i++) {
+				paths[i] = Files.createTempFile(directory, prefix, ".bin");
+				writers[i] = new SpillWriter(paths[i]);
+			}
+		}
+
+		void write(final long sequence, final List<String> line) throws IOException {
+			final int hash = Keys.mix(JoinIndex.hashKey(line, keyColumnNumbers, wbemKeyType, caseInsensitive, wbemKeyMemo));
+			writers[(hash >>> shift) & (PARTITION_COUNT - 1)].write(sequence, line);
+		}
+
+		@Override
+		public void close() throws IOException {
+			IOException exception = null;
+			for (final SpillWriter writer : writers) {
+				try {
+					if (writer != null) {
+						writer.close();
+					}
+				} catch (IOException e) {
+					exception = e;
+				}
+			}
+			if (exception != null) {
+				throw exception;
+			}
+		}
+	}
+
+	/**
+	 * Writes numbered lines to a temporary file: each line is written as its number of cells (-1 marks the end of
+	 * the file), its number, then each cell as its length and UTF-16 characters, so that any string (even with
+	 * unpaired surrogates) is read back as it was
+	 */
+	private static final class SpillWriter implements Closeable {
+
+		private final DataOutputStream stream;
+
+		private SpillWriter(final Path path) throws IOException {
+			this.stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+		}
+
+		void write(final long sequence, final List<String> line) throws IOException {
+			stream.writeInt(line.size());
+			stream.writeLong(sequence);
+			for (final String cell : line) {
+				stream.writeInt(cell.length());
+				for (int i = 0; i < cell.length(); i++) {
+					stream.writeChar(cell.charAt(i));
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				stream.writeInt(-1);
+			} finally {
+				stream.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads the numbered lines of a temporary file
+	 */
+	private static final class SpillReader implements Closeable {
+
+		private final DataInputStream stream;
+		private long sequence;
+		private List<String> line;
+		private char[] chars = new char[64];
+
+		private SpillReader(final Path path) throws IOException {
+			this.stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+		}
+
+		/**
+		 * Read the next line
+		 *
+		 * @return <code>false</code> when the end of the file has been reached
+		 */
+		boolean next() throws IOException {
+			final int cellCount = stream.readInt();
+			if (cellCount < 0) {
+				line = null;
+				return false;
+			}
+			sequence = stream.readLong();
+			line = new ArrayList<>(cellCount);
+			for (int i = 0; i < cellCount; i++) {
+				final int length = stream.readInt();
+				if (chars.length < length) {
+					chars = new char[Math.max(length, 2 * chars.length)];
+				}
+				for (int j = 0; j < length; j++) {
+					chars[j] = stream.readChar();
+				}
+				line.add(new String(chars, 0, length));
+			}
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			stream.close();
+		}
+	}
+}
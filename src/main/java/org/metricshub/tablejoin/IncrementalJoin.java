@@ -0,0 +1,507 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Stateful JOIN of two tables that change over time, as an SQL JOIN statement would (INNER or LEFT JOIN).
+ * <p>
+ * The rows of both tables are identified by an ID, and are inserted, updated and deleted one by one. Each change
+ * returns the resulting changes of the output rows: only the rows that share a key with the changed row are joined
+ * again, so the cost of a polling cycle depends on the number of changes, not on the size of the tables. A left row
+ * switches from the default right line to a right row (LEFT JOIN) when a right row with its key appears, and back
+ * when it disappears.
+ * <p>
+ * {@link #getResult()} is always the same as the result of {@link TableJoin#join(List, List, int[], int[], List,
+ * boolean, boolean, JoinOptions)} with the left rows and the right rows in the order of their insertion: an updated
+ * row keeps its position, and when several right rows have the same key, the first one wins.
+ * <p>
+ * This class is not thread-safe.
+ * <pre>
+ * IncrementalJoin join = new IncrementalJoin(1, 1, Arrays.asList("unknown"), false, false);
+ * join.putRight("disk1", Arrays.asList("disk1", "ssd"));
+ * List&lt;IncrementalJoin.Change&gt; changes = join.putLeft("row1", Arrays.asList("disk1", "OK"));
+ * </pre>
+ *
+ */
+public final class IncrementalJoin {
+
+	private final int[] leftKeyColumnNumbers;
+	private final int[] rightKeyColumnNumbers;
+	private final int maxRightKeyColumnNumber;
+	private final List<String> defaultRightLine;
+	private final boolean handleDefaultRightLine;
+	private final boolean wbemKeyType;
+	private final boolean caseInsensitive;
+
+	/**
+	 * The left rows, in the order of their insertion
+	 */
+	private final Map<String, LeftRow> leftRows = new LinkedHashMap<>();
+
+	/**
+	 * The IDs of the left rows of each key
+	 */
+	private final Map<List<String>, Set<String>> leftRowIdsByKey = new HashMap<>();
+	private long nextLeftRowOrder;
+
+	private final Map<String, RightRow> rightRows = new HashMap<>();
+
+	/**
+	 * The right rows of each key, in the order of their insertion (the first one wins)
+	 */
+	private final Map<List<String>, TreeMap<Long, RightRow>> rightRowsByKey = new HashMap<>();
+	private long nextRightRowOrder;
+
+	/**
+	 * Create an empty JOIN
+	 *
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param defaultRightLine
+	 *             The default entry to be put if a matching entry is not found in the right table (LEFT JOIN).
+	 *             Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @throws IllegalArgumentException
+	 *             When one of the key column numbers is lower than 1
+	 */
+	public IncrementalJoin(
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) throws IllegalArgumentException {
+		this(
+			new int[] { leftKeyColumnNumber },
+			new int[] { rightKeyColumnNumber },
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive
+		);
+	}
+
+	/**
+	 * Create an empty JOIN on a composite key
+	 *
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param defaultRightLine
+	 *             The default entry to be put if a matching entry is not found in the right table (LEFT JOIN).
+	 *             Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key columns are in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @throws IllegalArgumentException
+	 *             When the key column numbers are missing, lower than 1, or not as many on both sides
+	 */
+	public IncrementalJoin(
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) throws IllegalArgumentException {
+		TableJoin.checkKeyColumnNumbers(leftKeyColumnNumbers, rightKeyColumnNumbers);
+		this.leftKeyColumnNumbers = leftKeyColumnNumbers.clone();
+		this.rightKeyColumnNumbers = rightKeyColumnNumbers.clone();
+		int max = 0;
+		for (final int rightKeyColumnNumber : rightKeyColumnNumbers) {
+			max = Math.max(max, rightKeyColumnNumber);
+		}
+		this.maxRightKeyColumnNumber = max;
+		this.defaultRightLine = defaultRightLine != null ? new ArrayList<>(defaultRightLine) : new ArrayList<>();
+		this.handleDefaultRightLine = !this.defaultRightLine.isEmpty();
+		this.wbemKeyType = wbemKeyType;
+		this.caseInsensitive = caseInsensitive;
+	}
+
+	/**
+	 * Insert or update a row of the left table
+	 *
+	 * @param id
+	 *             The ID of the left row
+	 * @param row
+	 *             The new content of the left row
+	 * @return the resulting change of the output (empty if the output doesn't change)
+	 * @throws IllegalArgumentException
+	 *             When id or row is <code>null</code>
+	 */
+	public List<Change> putLeft(final String id, final List<String> row) throws IllegalArgumentException {
+		if (id == null || row == null) {
+			throw new IllegalArgumentException("Left row ID and left row cannot be null");
+		}
+		final LeftRow previous = leftRows.get(id);
+		if (previous != null) {
+			unindexLeftRow(id, previous);
+		}
+
+		// An updated left row keeps its position in the left table
+		final LeftRow leftRow = new LeftRow(
+			new ArrayList<>(row),
+			leftKey(row),
+			previous != null ? previous.order : nextLeftRowOrder++
+		);
+		if (leftRow.key != null) {
+			leftRowIdsByKey.computeIfAbsent(leftRow.key, key -> new LinkedHashSet<>()).add(id);
+		}
+		leftRow.joinedLine = joinLine(leftRow);
+		leftRows.put(id, leftRow);
+
+		final List<Change> changes = new ArrayList<>(1);
+		addChange(changes, id, previous != null ? previous.joinedLine : null, leftRow.joinedLine);
+		return changes;
+	}
+
+	/**
+	 * Delete a row of the left table
+	 *
+	 * @param id
+	 *             The ID of the left row
+	 * @return the resulting change of the output (empty if the row doesn't exist or wasn't in the output)
+	 */
+	public List<Change> removeLeft(final String id) {
+		final LeftRow previous = leftRows.remove(id);
+		if (previous == null) {
+			return new ArrayList<>();
+		}
+		unindexLeftRow(id, previous);
+
+		final List<Change> changes = new ArrayList<>(1);
+		addChange(changes, id, previous.joinedLine, null);
+		return changes;
+	}
+
+	/**
+	 * Insert or update a row of the right table
+	 *
+	 * @param id
+	 *             The ID of the right row
+	 * @param row
+	 *             The new content of the right row (ignored if it doesn't have all the key columns)
+	 * @return the resulting changes of the output, in the order of the left rows
+	 * @throws IllegalArgumentException
+	 *             When id or row is <code>null</code>
+	 */
+	public List<Change> putRight(final String id, final List<String> row) throws IllegalArgumentException {
+		if (id == null || row == null) {
+			throw new IllegalArgumentException("Right row ID and right row cannot be null");
+		}
+		final RightRow previous = rightRows.get(id);
+		final List<String> key = row.size() >= maxRightKeyColumnNumber ? normalizedKey(row, rightKeyColumnNumbers) : null;
+
+		// An updated right row keeps its position in the right table
+		final RightRow rightRow = new RightRow(
+			new ArrayList<>(row),
+			key,
+			previous != null ? previous.order : nextRightRowOrder++
+		);
+		rightRows.put(id, rightRow);
+		return replaceRightRow(previous, rightRow);
+	}
+
+	/**
+	 * Delete a row of the right table
+	 *
+	 * @param id
+	 *             The ID of the right row
+	 * @return the resulting changes of the output, in the order of the left rows
+	 */
+	public List<Change> removeRight(final String id) {
+		final RightRow previous = rightRows.remove(id);
+		if (previous == null) {
+			return new ArrayList<>();
+		}
+		return replaceRightRow(previous, null);
+	}
+
+	/**
+	 * @return the current result of the JOIN operation, in the order of the left rows
+	 */
+	public List<List<String>> getResult() {
+		final List<List<String>> result = new ArrayList<>(leftRows.size());
+		for (final LeftRow leftRow : leftRows.values()) {
+			if (leftRow.joinedLine != null) {
+				result.add(leftRow.joinedLine);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of rows of the left table
+	 */
+	public int getLeftRowCount() {
+		return leftRows.size();
+	}
+
+	/**
+	 * @return the number of rows of the right table
+	 */
+	public int getRightRowCount() {
+		return rightRows.size();
+	}
+
+	/**
+	 * Replace a right row in the index, and join again the left rows whose matching right row changes
+	 *
+	 * @param previous
+	 *             The previous version of the right row, or <code>null</code> if it is inserted
+	 * @param rightRow
+	 *             The new version of the right row, or <code>null</code> if it is deleted
+	 * @return the resulting changes of the output, in the order of the left rows
+	 */
+	private List<Change> replaceRightRow(final RightRow previous, final RightRow rightRow) {
+		final List<String> previousKey = previous != null ? previous.key : null;
+		final List<String> key = rightRow != null ? rightRow.key : null;
+		final RightRow previousWinner = previousKey != null ? winner(previousKey) : null;
+		final RightRow previousKeyWinner = key != null && !key.equals(previousKey) ? winner(key) : null;
+
+		if (previousKey != null) {
+			final TreeMap<Long, RightRow> sameKeyRows = rightRowsByKey.get(previousKey);
+			sameKeyRows.remove(previous.order);
+			if (sameKeyRows.isEmpty()) {
+				rightRowsByKey.remove(previousKey);
+			}
+		}
+		if (key != null) {
+			rightRowsByKey.computeIfAbsent(key, k -> new TreeMap<>()).put(rightRow.order, rightRow);
+		}
+
+		// Only the left rows whose matching right row changes are joined again
+		final Set<String> leftRowIds = new LinkedHashSet<>();
+		if (previousKey != null && winner(previousKey) != previousWinner) {
+			leftRowIds.addAll(leftRowIdsByKey.getOrDefault(previousKey, Collections.emptySet()));
+		}
+		if (key != null && !key.equals(previousKey) && winner(key) != previousKeyWinner) {
+			leftRowIds.addAll(leftRowIdsByKey.getOrDefault(key, Collections.emptySet()));
+		}
+		if (leftRowIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		// Report the changes in the order of the left rows
+		final List<String> sortedLeftRowIds = new ArrayList<>(leftRowIds);
+		sortedLeftRowIds.sort(Comparator.comparingLong(id -> leftRows.get(id).order));
+		final List<Change> changes = new ArrayList<>(sortedLeftRowIds.size());
+		for (final String id : sortedLeftRowIds) {
+			final LeftRow leftRow = leftRows.get(id);
+			final List<String> previousJoinedLine = leftRow.joinedLine;
+			leftRow.joinedLine = joinLine(leftRow);
+			addChange(changes, id, previousJoinedLine, leftRow.joinedLine);
+		}
+		return changes;
+	}
+
+	/**
+	 * @return the joined line of the given left row, or <code>null</code> if it is not part of the output
+	 */
+	private List<String> joinLine(final LeftRow leftRow) {
+		if (leftRow.key == null) {
+			return null;
+		}
+		// The rows are private copies that are never modified, so the joined line can be a view of them
+		final RightRow rightRow = winner(leftRow.key);
+		final List<String> joinedLine = TableJoin.concatLines(
+			leftRow.row,
+			rightRow != null ? rightRow.row : null,
+			defaultRightLine,
+			handleDefaultRightLine,
+			true,
+			null,
+			null
+		);
+		return joinedLine.isEmpty() ? null : joinedLine;
+	}
+
+	/**
+	 * @return the right row that matches with the given key, i.e. the first inserted one, or <code>null</code>
+	 */
+	private RightRow winner(final List<String> key) {
+		final TreeMap<Long, RightRow> sameKeyRows = rightRowsByKey.get(key);
+		return sameKeyRows != null ? sameKeyRows.firstEntry().getValue() : null;
+	}
+
+	private void unindexLeftRow(final String id, final LeftRow leftRow) {
+		if (leftRow.key == null) {
+			return;
+		}
+		final Set<String> sameKeyIds = leftRowIdsByKey.get(leftRow.key);
+		sameKeyIds.remove(id);
+		if (sameKeyIds.isEmpty()) {
+			leftRowIdsByKey.remove(leftRow.key);
+		}
+	}
+
+	/**
+	 * @return the normalized key of the given left row, or <code>null</code> if a key column is missing or empty
+	 */
+	private List<String> leftKey(final List<String> row) {
+		return TableJoin.isValidLeftLine(leftKeyColumnNumbers, row) ? normalizedKey(row, leftKeyColumnNumbers) : null;
+	}
+
+	/**
+	 * @return the values of the key columns, normalized so that matching keys are equal
+	 */
+	private List<String> normalizedKey(final List<String> row, final int[] keyColumnNumbers) {
+		final String[] key = JoinIndex.extractKey(row, keyColumnNumbers, wbemKeyType, caseInsensitive, null);
+		if (caseInsensitive && !wbemKeyType) {
+			for (int i = 0; i < key.length; i++) {
+				key[i] = Keys.foldCase(key[i]);
+			}
+		}
+		return Arrays.asList(key);
+	}
+
+	private static void addChange(
+		final List<Change> changes,
+		final String id,
+		final List<String> previousLine,
+		final List<String> line
+	) {
+		if (!Objects.equals(previousLine, line)) {
+			changes.add(new Change(id, previousLine, line));
+		}
+	}
+
+	/**
+	 * A row of the left table, with its position in the left table and its joined line
+	 */
+	private static final class LeftRow {
+
+		private final List<String> row;
+		private final List<String> key;
+		private final long order;
+		private List<String> joinedLine;
+
+		private LeftRow(final List<String> row, final List<String> key, final long order) {
+			this.row = row;
+			this.key = key;
+			this.order = order;
+		}
+	}
+
+	/**
+	 * A row of the right table, with its position in the right table
+	 */
+	private static final class RightRow {
+
+		private final List<String> row;
+		private final List<String> key;
+		private final long order;
+
+		private RightRow(final List<String> row, final List<String> key, final long order) {
+			this.row = row;
+			this.key = key;
+			this.order = order;
+		}
+	}
+
+	/**
+	 * Change of a row of the output, identified by the ID of its left row
+	 */
+	public static final class Change {
+
+		/**
+		 * Type of change
+		 */
+		public enum Type {
+			/**
+			 * The row is added to the output
+			 */
+			ADDED,
+			/**
+			 * The row of the output is modified
+			 */
+			UPDATED,
+			/**
+			 * The row is removed from the output
+			 */
+			REMOVED
+		}
+
+		private final String leftRowId;
+		private final List<String> previousLine;
+		private final List<String> line;
+
+		private Change(final String leftRowId, final List<String> previousLine, final List<String> line) {
+			this.leftRowId = leftRowId;
+			this.previousLine = previousLine;
+			this.line = line;
+		}
+
+		/**
+		 * @return the type of the change
+		 */
+		public Type getType() {
+			if (previousLine == null) {
+				return Type.ADDED;
+			}
+			return line == null ? Type.REMOVED : Type.UPDATED;
+		}
+
+		/**
+		 * @return the ID of the left row of the output row
+		 */
+		public String getLeftRowId() {
+			return leftRowId;
+		}
+
+		/**
+		 * @return the previous output row, or <code>null</code> if it is added
+		 */
+		public List<String> getPreviousLine() {
+			return previousLine;
+		}
+
+		/**
+		 * @return the new output row, or <code>null</code> if it is removed
+		 */
+		public List<String> getLine() {
+			return line;
+		}
+
+		@Override
+		public String toString() {
+			return getType() + " " + leftRowId + ": " + previousLine + " -> " + line;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+/**
+ * How the rows of the left table are matched with the rows of the right table.
+ * <p>
+ * All the algorithms give the same result: the left rows are returned in their original order, and when several
+ * right rows have the same key, the first one wins.
+ *
+ */
+public enum JoinAlgorithm {
+	/**
+	 * The right table is indexed in a hash table, then each left row is looked up in that index.
+	 * The tables can be in any order.
+	 */
+	HASH,
+
+	/**
+	 * Both tables are walked in a single pass, in the order of their keys, without any index.
+	 * Both tables must already be sorted by their key (case insensitive order for case insensitive matching,
+	 * order of the normalized paths for WBEM keys), otherwise the JOIN fails with an {@link IllegalArgumentException}.
+	 */
+	MERGE,
+
+	/**
+	 * The MERGE algorithm is used if both tables are sorted by their key, the HASH algorithm otherwise. The order is
+	 * checked before anything is joined, and the check stops at the first row found out of order.
+	 */
+	AUTO
+}
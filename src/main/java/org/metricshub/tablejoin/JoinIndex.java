@@ -0,0 +1,973 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lookup table of a right table, where each row is indexed by its key.
+ * <p>
+ * A {@link JoinIndex} is immutable and thread-safe: it can be built once and used for as many joins as needed,
+ * from as many threads as needed, as long as the rows of the right table are not modified.
+ * When several rows have the same key, the first one wins (like in an SQL JOIN on a table without duplicates).
+ * <p>
+ * The index is an open-addressing hash table. Case insensitive keys are hashed and compared with their case folded
+ * on the fly, so looking up a key doesn't allocate anything (except for WBEM keys, which need to be normalized).
+ * A key can be made of several columns: the columns values are then hashed and compared one by one, without being
+ * concatenated.
+ * <p>
+ * With numeric keys, the single-column keys written as canonical integers are parsed into <code>long</code> values
+ * and stored in a separate open-addressing table of primitive keys, so they are neither boxed nor hashed as strings.
+ * The other keys are stored as strings, as usual.
+ * <p>
+ * A copy of the index can be stored off-heap (see {@link #offHeap()}), for very large right tables that would
+ * otherwise stay in the old generation of the heap. Such an index must be closed when it is no longer used.
+ *
+ */
+public final class JoinIndex implements Closeable {
+
+	/**
+	 * A {@link String} for single-column keys, a {@link String} array for composite keys
+	 */
+	private final Object[] keys;
+	private final int[] hashes;
+	private final Object[] rows;
+	/**
+	 * The keys written as canonical integers, and their rows (<code>null</code> without numeric keys)
+	 */
+	private final long[] longKeys;
+	private final Object[] longRows;
+	private final int size;
+	private final int[] keyColumnNumbers;
+	private final boolean wbemKeyType;
+	private final boolean caseInsensitive;
+	private final boolean foldCase;
+	/**
+	 * The memo of the normalized WBEM paths looked up (<code>null</code> to normalize them every time)
+	 */
+	private final WbemKeyMemo wbemKeyMemo;
+	private final BloomFilter bloomFilter;
+	/**
+	 * The keys and the rows stored off-heap, instead of the tables above (<code>null</code> for a heap index)
+	 */
+	private final OffHeapStorage offHeapStorage;
+
+	private JoinIndex(final Builder builder) {
+		this.keys = builder.keys;
+		this.hashes = builder.hashes;
+		this.rows = builder.rows;
+		this.longKeys = builder.longKeys;
+		this.longRows = builder.longRows;
+		this.size = builder.size + builder.longSize;
+		this.keyColumnNumbers = builder.keyColumnNumbers;
+		this.wbemKeyType = builder.wbemKeyType;
+		this.caseInsensitive = builder.caseInsensitive;
+		this.foldCase = builder.foldCase;
+		this.wbemKeyMemo = builder.wbemKeyMemo;
+		this.bloomFilter = null;
+		this.offHeapStorage = null;
+	}
+
+	private JoinIndex(final JoinIndex index, final BloomFilter bloomFilter) {
+		this.keys = index.keys;
+		this.hashes = index.hashes;
+		this.rows = index.rows;
+		this.longKeys = index.longKeys;
+		this.longRows = index.longRows;
+		this.size = index.size;
+		this.keyColumnNumbers = index.keyColumnNumbers;
+		this.wbemKeyType = index.wbemKeyType;
+		this.caseInsensitive = index.caseInsensitive;
+		this.foldCase = index.foldCase;
+		this.wbemKeyMemo = index.wbemKeyMemo;
+		this.bloomFilter = bloomFilter;
+		this.offHeapStorage = index.offHeapStorage;
+	}
+
+	private JoinIndex(final JoinIndex index, final OffHeapStorage offHeapStorage) {
+		this.keys = null;
+		this.hashes = null;
+		this.rows = null;
+		this.longKeys = null;
+		this.longRows = null;
+		this.size = index.size;
+		this.keyColumnNumbers = index.keyColumnNumbers;
+		this.wbemKeyType = index.wbemKeyType;
+		this.caseInsensitive = index.caseInsensitive;
+		this.foldCase = index.foldCase;
+		this.wbemKeyMemo = index.wbemKeyMemo;
+		this.bloomFilter = null;
+		this.offHeapStorage = offHeapStorage;
+	}
+
+	/**
+	 * Build the index of the given right table
+	 *
+	 * @param rightTable
+	 *             The right table (rows whose size is lower than keyColumnNumber are ignored). May be <code>null</code>.
+	 * @param keyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @return a new {@link JoinIndex}
+	 * @throws IllegalArgumentException
+	 *             When keyColumnNumber is lower than 1
+	 */
+	public static JoinIndex build(
+		final List<List<String>> rightTable,
+		final int keyColumnNumber,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) throws IllegalArgumentException {
+		return build(rightTable, new int[] { keyColumnNumber }, wbemKeyType, caseInsensitive);
+	}
+
+	/**
+	 * Build the index of the given right table, on a composite key
+	 *
+	 * @param rightTable
+	 *             The right table (rows that don't have all the key columns are ignored). May be <code>null</code>.
+	 * @param keyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table
+	 * @param wbemKeyType
+	 *             Whether the key columns are in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @return a new {@link JoinIndex}
+	 * @throws IllegalArgumentException
+	 *             When keyColumnNumbers is null or empty, or one of the key column numbers is lower than 1
+	 */
+	public static JoinIndex build(
+		final List<List<String>> rightTable,
+		final int[] keyColumnNumbers,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) throws IllegalArgumentException {
+		return build(rightTable, keyColumnNumbers, wbemKeyType, caseInsensitive, null);
+	}
+
+	/**
+	 * Build the index of the given right table, on a composite key, as a JOIN operation with the given options would
+	 *
+	 * @param rightTable
+	 *             The right table (rows that don't have all the key columns are ignored). May be <code>null</code>.
+	 * @param keyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table
+	 * @param wbemKeyType
+	 *             Whether the key columns are in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param options
+	 *             Where the build time and the right rows are counted, the false positive probability of the Bloom
+	 *             filter and whether the keys are numeric (see {@link JoinOptions.Builder#numericKeys(boolean)}), or
+	 *             <code>null</code> for the default options
+	 * @return a new {@link JoinIndex}
+	 * @throws IllegalArgumentException
+	 *             When keyColumnNumbers is null or empty, or one of the key column numbers is lower than 1
+	 */
+	public static JoinIndex build(
+		final List<List<String>> rightTable,
+		final int[] keyColumnNumbers,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		return build(rightTable, keyColumnNumbers, wbemKeyType, caseInsensitive, options, false);
+	}
+
+	/**
+	 * Build the index of the given right table, on a composite key, as a JOIN operation with the given options would
+	 *
+	 * @param keysOnly
+	 *             Whether only the keys are indexed: the rows are not retained, and a lookup only tells whether there
+	 *             is a match (it returns an empty line for a match)
+	 * @see #build(List, int[], boolean, boolean, JoinOptions)
+	 */
+	static JoinIndex build(
+		final List<List<String>> rightTable,
+		final int[] keyColumnNumbers,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final JoinOptions options,
+		final boolean keysOnly
+	) throws IllegalArgumentException {
+		final JoinOptions joinOptions = options != null ? options : JoinOptions.DEFAULT;
+		final JoinStats stats = joinOptions.getStats();
+		final long start = stats != null ? System.nanoTime() : 0;
+		final Builder builder = new Builder(
+			keyColumnNumbers,
+			wbemKeyType,
+			caseInsensitive,
+			stats,
+			joinOptions.isNumericKeys(),
+			joinOptions.getWbemKeyMemo()
+		);
+		if (keysOnly) {
+			builder.keysOnly();
+		}
+		if (rightTable != null) {
+			rightTable.forEach(builder::add);
+		}
+		JoinIndex index = builder.build();
+		if (joinOptions.getBloomFilterFalsePositiveProbability() > 0) {
+			index = index.withBloomFilter(joinOptions.getBloomFilterFalsePositiveProbability());
+		}
+		if (stats != null) {
+			stats.addIndexBuildNanos(System.nanoTime() - start);
+		}
+		return index;
+	}
+
+	/**
+	 * Create a copy of this index (sharing the same entries) with a Bloom filter of its keys: a lookup first checks the
+	 * hash of the key in the Bloom filter, and only probes the index if the key may be there. This is worth it when
+	 * most of the keys looked up are not in the index, and the index is too large to stay in the CPU caches (the
+	 * Bloom filter is much smaller), or is stored off-heap.
+	 * <p>
+	 * The Bloom filter is checked as soon as the key is hashed: before the key is parsed as a number (see
+	 * {@link JoinOptions.Builder#numericKeys(boolean)}) and before any probe of the index. A WBEM path is still
+	 * normalized first, as the different forms of a path only have the same hash once normalized.
+	 *
+	 * @param falsePositiveProbability
+	 *             The probability that a key that is not in the index is not rejected by the Bloom filter
+	 *             (e.g. <code>0.01</code>). The lower the probability, the larger the Bloom filter.
+	 * @return a new {@link JoinIndex} with a Bloom filter
+	 * @throws IllegalArgumentException
+	 *             When falsePositiveProbability is not strictly between 0 and 1
+	 */
+	public JoinIndex withBloomFilter(final double falsePositiveProbability) throws IllegalArgumentException {
+		checkFalsePositiveProbability(falsePositiveProbability);
+		final BloomFilter filter = new BloomFilter(size, falsePositiveProbability);
+		if (offHeapStorage != null) {
+			offHeapStorage.addHashes(filter);
+			return new JoinIndex(this, filter);
+		}
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != null) {
+				filter.add(hashes[slot]);
+			}
+		}
+		if (longRows != null) {
+			for (int slot = 0; slot < longKeys.length; slot++) {
+				if (longRows[slot] != null) {
+					// The hash of the key as it is looked up, before it is parsed
+					filter.add(Keys.hash(Long.toString(longKeys[slot]), foldCase));
+				}
+			}
+		}
+		return new JoinIndex(this, filter);
+	}
+
+	/**
+	 * Create a copy of this index whose keys and rows are stored off-heap, in direct {@link java.nio.ByteBuffer}s, with
+	 * an open-addressing hash table on top: the garbage collector never has to scan them, and the right table can be
+	 * released once the copy is created. The lookups return the same lines as this index, decoded into new lists at
+	 * each lookup (so they are equal, but not the same instances).
+	 * <p>
+	 * The keys written as canonical integers are stored as strings, and the Bloom filter of this index (if any) is
+	 * rebuilt with the same false positive probability. The off-heap index must be closed when it is no longer used
+	 * (see {@link #close()}).
+	 *
+	 * @return a new {@link JoinIndex} stored off-heap, or this index if it is already stored off-heap
+	 * @throws IllegalStateException
+	 *             When this index has too many keys to be stored off-heap (more than 2<sup>26</sup>)
+	 */
+	@SuppressWarnings("unchecked")
+	public JoinIndex offHeap() throws IllegalStateException {
+		if (offHeapStorage != null) {
+			return this;
+		}
+		final OffHeapStorage.Builder builder = new OffHeapStorage.Builder(size, foldCase);
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != null) {
+				builder.add(hashes[slot], keys[slot], (List<String>) rows[slot]);
+			}
+		}
+		if (longRows != null) {
+			for (int slot = 0; slot < longKeys.length; slot++) {
+				if (longRows[slot] != null) {
+					final String key = Long.toString(longKeys[slot]);
+					builder.add(Keys.hash(key, foldCase), key, (List<String>) longRows[slot]);
+				}
+			}
+		}
+		final JoinIndex index = new JoinIndex(this, builder.build());
+		return bloomFilter != null ? index.withBloomFilter(bloomFilter.getFalsePositiveProbability()) : index;
+	}
+
+	/**
+	 * @return whether the keys and rows of this index are stored off-heap (see {@link #offHeap()})
+	 */
+	public boolean isOffHeap() {
+		return offHeapStorage != null;
+	}
+
+	/**
+	 * Free the off-heap memory of this index, and of the copies made with {@link #withBloomFilter(double)}, which
+	 * share it, as soon as the lookups in progress are done. The index must not be used anymore: its lookups then
+	 * throw an {@link IllegalStateException}. Closing a heap index has no effect.
+	 */
+	@Override
+	public void close() {
+		if (offHeapStorage != null) {
+			offHeapStorage.close();
+		}
+	}
+
+	/**
+	 * @return whether lookups are filtered by a Bloom filter (see {@link #withBloomFilter(double)})
+	 */
+	public boolean hasBloomFilter() {
+		return bloomFilter != null;
+	}
+
+	/**
+	 * @return whether the keys written as canonical integers are stored as primitive <code>long</code> values
+	 * (see {@link JoinOptions.Builder#numericKeys(boolean)})
+	 */
+	public boolean isNumericKeys() {
+		return longRows != null;
+	}
+
+	/**
+	 * Check the false positive probability of a Bloom filter
+	 *
+	 * @throws IllegalArgumentException
+	 *             When falsePositiveProbability is not strictly between 0 and 1
+	 */
+	static void checkFalsePositiveProbability(final double falsePositiveProbability) throws IllegalArgumentException {
+		if (!(falsePositiveProbability > 0 && falsePositiveProbability < 1)) {
+			throw new IllegalArgumentException(
+				"Invalid false positive probability (falsePositiveProbability=" + falsePositiveProbability + ")"
+			);
+		}
+	}
+
+	/**
+	 * Retrieve the right line whose key matches with the key of the given left line
+	 *
+	 * @param leftLine
+	 *             The left line
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left line
+	 * @return the matching right line, or <code>null</code> if there is none
+	 * @throws IllegalArgumentException
+	 *             When this index has a composite key
+	 * @throws IllegalStateException
+	 *             When this index is stored off-heap and has been closed
+	 */
+	public List<String> lookup(final List<String> leftLine, final int leftKeyColumnNumber)
+		throws IllegalArgumentException, IllegalStateException {
+		return get(leftLine.get(leftKeyColumnNumber - 1));
+	}
+
+	/**
+	 * Retrieve the right line whose (composite) key matches with the key of the given left line
+	 *
+	 * @param leftLine
+	 *             The left line
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left line, in the same order as the key
+	 *             columns of the right table
+	 * @return the matching right line, or <code>null</code> if there is none
+	 * @throws IllegalArgumentException
+	 *             When the number of key columns doesn't match with the key of this index
+	 * @throws IllegalStateException
+	 *             When this index is stored off-heap and has been closed
+	 */
+	public List<String> lookup(final List<String> leftLine, final int[] leftKeyColumnNumbers)
+		throws IllegalArgumentException, IllegalStateException {
+		return lookup(leftLine, leftKeyColumnNumbers, null);
+	}
+
+	/**
+	 * Retrieve the right line whose (composite) key matches with the key of the given left line
+	 *
+	 * @param stats
+	 *             Where the normalization time of WBEM keys and the probes skipped thanks to the Bloom filter are
+	 *             counted, or <code>null</code>
+	 * @see #lookup(List, int[])
+	 */
+	List<String> lookup(final List<String> leftLine, final int[] leftKeyColumnNumbers, final JoinStats stats)
+		throws IllegalArgumentException, IllegalStateException {
+		if (leftKeyColumnNumbers.length != keyColumnNumbers.length) {
+			throw new IllegalArgumentException(
+				"Invalid number of key columns (" +
+				leftKeyColumnNumbers.length +
+				" instead of " +
+				keyColumnNumbers.length +
+				")"
+			);
+		}
+		checkOpen();
+		final boolean timed = stats != null && wbemKeyType;
+		final long start = timed ? System.nanoTime() : 0;
+		if (keyColumnNumbers.length == 1) {
+			final String normalizedKey = normalizeKey(
+				leftLine.get(leftKeyColumnNumbers[0] - 1),
+				wbemKeyType,
+				caseInsensitive,
+				wbemKeyMemo
+			);
+			if (timed) {
+				stats.addWbemNormalizationNanos(System.nanoTime() - start);
+			}
+			return find(normalizedKey, stats);
+		}
+
+		// WBEM paths must be normalized first, the other values are hashed and compared as they are
+		final String[] normalizedKey = wbemKeyType
+			? extractKey(leftLine, leftKeyColumnNumbers, true, caseInsensitive, wbemKeyMemo)
+			: null;
+		if (timed) {
+			stats.addWbemNormalizationNanos(System.nanoTime() - start);
+		}
+		int hash = 0;
+		for (int i = 0; i < leftKeyColumnNumbers.length; i++) {
+			final String value = normalizedKey != null ? normalizedKey[i] : leftLine.get(leftKeyColumnNumbers[i] - 1);
+			hash = 31 * hash + Keys.hash(value, foldCase);
+		}
+		if (isFilteredOut(hash, stats)) {
+			return null;
+		}
+		return findComposite(hash, normalizedKey, leftLine, leftKeyColumnNumbers);
+	}
+
+	/**
+	 * Retrieve the right line whose key matches with the given key
+	 *
+	 * @param key
+	 *             The raw key value, as found in the key column
+	 * @return the matching right line, or <code>null</code> if there is none
+	 * @throws IllegalArgumentException
+	 *             When this index has a composite key
+	 * @throws IllegalStateException
+	 *             When this index is stored off-heap and has been closed
+	 */
+	public List<String> get(final String key) throws IllegalArgumentException, IllegalStateException {
+		if (keyColumnNumbers.length != 1) {
+			throw new IllegalArgumentException("This index has a composite key of " + keyColumnNumbers.length + " columns");
+		}
+		checkOpen();
+		return find(normalizeKey(key, wbemKeyType, caseInsensitive, wbemKeyMemo), null);
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             When this index is stored off-heap and has been closed
+	 */
+	private void checkOpen() throws IllegalStateException {
+		if (offHeapStorage != null && offHeapStorage.isClosed()) {
+			throw new IllegalStateException("The off-heap index has been closed");
+		}
+	}
+
+	/**
+	 * Find the right line of a single-column key
+	 *
+	 * @param normalizedKey
+	 *             The normalized key
+	 * @param stats
+	 *             Where the probes skipped thanks to the Bloom filter are counted, or <code>null</code>
+	 * @return the matching right line, or <code>null</code> if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	private List<String> find(final String normalizedKey, final JoinStats stats) {
+		final int hash = Keys.hash(normalizedKey, foldCase);
+		if (isFilteredOut(hash, stats)) {
+			return null;
+		}
+		if (longRows != null) {
+			final long longKey = Keys.parseLong(normalizedKey);
+			if (longKey != Keys.NOT_A_NUMBER) {
+				return findLong(longKey);
+			}
+		}
+		if (offHeapStorage != null) {
+			return offHeapStorage.find(hash, normalizedKey);
+		}
+		final int mask = keys.length - 1;
+		int slot = Keys.mix(hash) & mask;
+		Object candidate;
+		while ((candidate = keys[slot]) != null) {
+			if (hashes[slot] == hash && Keys.equals((String) candidate, normalizedKey, foldCase)) {
+				return (List<String>) rows[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Find the right line of a key written as a canonical integer
+	 *
+	 * @param longKey
+	 *             The value of the key
+	 * @return the matching right line, or <code>null</code> if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	private List<String> findLong(final long longKey) {
+		final int hash = Long.hashCode(longKey);
+		final int mask = longKeys.length - 1;
+		int slot = Keys.mix(hash) & mask;
+		Object row;
+		while ((row = longRows[slot]) != null) {
+			if (longKeys[slot] == longKey) {
+				return (List<String>) row;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * @return whether the Bloom filter (if any) rejects the key of the given hash
+	 */
+	private boolean isFilteredOut(final int hash, final JoinStats stats) {
+		if (bloomFilter == null || bloomFilter.mightContain(hash)) {
+			return false;
+		}
+		if (stats != null) {
+			stats.addBloomFilterSkippedProbe();
+		}
+		return true;
+	}
+
+	/**
+	 * Find the right line of a composite key
+	 *
+	 * @param hash
+	 *             The hash of the composite key
+	 * @param normalizedKey
+	 *             The normalized values of the key, or <code>null</code> to use the values of the left line directly
+	 * @param leftLine
+	 *             The left line
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the key columns in the left line
+	 * @return the matching right line, or <code>null</code> if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	private List<String> findComposite(
+		final int hash,
+		final String[] normalizedKey,
+		final List<String> leftLine,
+		final int[] leftKeyColumnNumbers
+	) {
+		if (offHeapStorage != null) {
+			return offHeapStorage.findComposite(hash, normalizedKey, leftLine, leftKeyColumnNumbers);
+		}
+		final int mask = keys.length - 1;
+		int slot = Keys.mix(hash) & mask;
+		Object candidate;
+		while ((candidate = keys[slot]) != null) {
+			if (hashes[slot] == hash) {
+				final String[] candidateKey = (String[]) candidate;
+				boolean equal = true;
+				for (int i = 0; equal && i < candidateKey.length; i++) {
+					final String value = normalizedKey != null ? normalizedKey[i] : leftLine.get(leftKeyColumnNumbers[i] - 1);
+					equal = Keys.equals(candidateKey[i], value, foldCase);
+				}
+				if (equal) {
+					return (List<String>) rows[slot];
+				}
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * @return the number of distinct keys in this index
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of the (first) key column in the indexed right table
+	 */
+	public int getKeyColumnNumber() {
+		return keyColumnNumbers[0];
+	}
+
+	/**
+	 * @return the numbers of the key columns in the indexed right table
+	 */
+	public int[] getKeyColumnNumbers() {
+		return keyColumnNumbers.clone();
+	}
+
+	/**
+	 * @return whether the keys are WBEM paths
+	 */
+	public boolean isWbemKeyType() {
+		return wbemKeyType;
+	}
+
+	/**
+	 * @return whether the matching is done case insensitive
+	 */
+	public boolean isCaseInsensitive() {
+		return caseInsensitive;
+	}
+
+	/**
+	 * Normalize a raw key value. WBEM paths are normalized (with their case folded for case insensitive matching),
+	 * while the other keys are left untouched, as their case is folded on the fly.
+	 */
+	private static String normalizeKey(
+		final String key,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final WbemKeyMemo wbemKeyMemo
+	) {
+		return wbemKeyType ? WbemKeyMemo.normalize(wbemKeyMemo, key, caseInsensitive) : key;
+	}
+
+	/**
+	 * Extract the (normalized) values of a composite key
+	 *
+	 * @param wbemKeyMemo
+	 *             The memo of the normalized WBEM paths, or <code>null</code>
+	 */
+	static String[] extractKey(
+		final List<String> line,
+		final int[] keyColumnNumbers,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final WbemKeyMemo wbemKeyMemo
+	) {
+		final String[] key = new String[keyColumnNumbers.length];
+		for (int i = 0; i < keyColumnNumbers.length; i++) {
+			key[i] = normalizeKey(line.get(keyColumnNumbers[i] - 1), wbemKeyType, caseInsensitive, wbemKeyMemo);
+		}
+		return key;
+	}
+
+	/**
+	 * Compute the hash of the (normalized) key of a line, as it is hashed in an index
+	 *
+	 * @param line
+	 *             The line, which must have all the key columns
+	 * @param keyColumnNumbers
+	 *             The numbers of the key columns
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param wbemKeyMemo
+	 *             The memo of the normalized WBEM paths, or <code>null</code>
+	 * @return the hash of the key (equal keys have the same hash)
+	 */
+	static int hashKey(
+		final List<String> line,
+		final int[] keyColumnNumbers,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final WbemKeyMemo wbemKeyMemo
+	) {
+		final boolean foldCase = caseInsensitive && !wbemKeyType;
+		int hash = 0;
+		for (final int keyColumnNumber : keyColumnNumbers) {
+			final String value = normalizeKey(line.get(keyColumnNumber - 1), wbemKeyType, caseInsensitive, wbemKeyMemo);
+			hash = 31 * hash + Keys.hash(value, foldCase);
+		}
+		return hash;
+	}
+
+	/**
+	 * Check the given key column numbers
+	 *
+	 * @param keyColumnNumbers
+	 *             The numbers of the key columns
+	 * @throws IllegalArgumentException
+	 *             When keyColumnNumbers is null or empty, or one of the key column numbers is lower than 1
+	 */
+	static void checkKeyColumnNumbers(final int[] keyColumnNumbers) throws IllegalArgumentException {
+		if (keyColumnNumbers == null || keyColumnNumbers.length == 0) {
+			throw new IllegalArgumentException("Key column numbers cannot be null or empty");
+		}
+		for (final int keyColumnNumber : keyColumnNumbers) {
+			if (keyColumnNumber < 1) {
+				throw new IllegalArgumentException("Invalid key column number (keyColumnNumber=" + keyColumnNumber + ")");
+			}
+		}
+	}
+
+	/**
+	 * Builds a {@link JoinIndex} row by row, so that the right table doesn't need to be materialized first
+	 */
+	static final class Builder {
+
+		private Object[] keys = new Object[16];
+		private int[] hashes = new int[16];
+		private Object[] rows = new Object[16];
+		private int size;
+		private long[] longKeys;
+		private Object[] longRows;
+		private int longSize;
+		private boolean keysOnly;
+		private final int[] keyColumnNumbers;
+		private final int maxKeyColumnNumber;
+		private final boolean wbemKeyType;
+		private final boolean caseInsensitive;
+		private final boolean foldCase;
+		private final JoinStats stats;
+		private final WbemKeyMemo wbemKeyMemo;
+
+		Builder(final int[] keyColumnNumbers, final boolean wbemKeyType, final boolean caseInsensitive) {
+			this(keyColumnNumbers, wbemKeyType, caseInsensitive, null, false, null);
+		}
+
+		/**
+		 * @param stats
+		 *             Where the right rows are counted, or <code>null</code>
+		 * @param numericKeys
+		 *             Whether the keys written as canonical integers are stored as primitive <code>long</code> values
+		 *             (ignored for composite keys and WBEM keys)
+		 * @param wbemKeyMemo
+		 *             The memo of the normalized WBEM paths, for the right rows and the lookups of the index, or
+		 *             <code>null</code>
+		 */
+		Builder(
+			final int[] keyColumnNumbers,
+			final boolean wbemKeyType,
+			final boolean caseInsensitive,
+			final JoinStats stats,
+			final boolean numericKeys,
+			final WbemKeyMemo wbemKeyMemo
+		) {
+			checkKeyColumnNumbers(keyColumnNumbers);
+			this.keyColumnNumbers = keyColumnNumbers.clone();
+			int max = 0;
+			for (final int keyColumnNumber : keyColumnNumbers) {
+				max = Math.max(max, keyColumnNumber);
+			}
+			this.maxKeyColumnNumber = max;
+			this.wbemKeyType = wbemKeyType;
+			this.caseInsensitive = caseInsensitive;
+			this.foldCase = caseInsensitive && !wbemKeyType;
+			this.stats = stats;
+			this.wbemKeyMemo = wbemKeyMemo;
+			if (numericKeys && keyColumnNumbers.length == 1 && !wbemKeyType) {
+				longKeys = new long[16];
+				longRows = new Object[16];
+			}
+		}
+
+		/**
+		 * Index only the keys of the right lines, without retaining the lines themselves
+		 */
+		void keysOnly() {
+			keysOnly = true;
+		}
+
+		/**
+		 * @return the line stored for the given right line
+		 */
+		private List<String> storedLine(final List<String> rightLine) {
+			return keysOnly ? Collections.emptyList() : rightLine;
+		}
+
+		/**
+		 * Index the given right line, unless it is too short or its key has already been indexed
+		 *
+		 * @param rightLine
+		 *             The right line to index
+		 * @return whether the line has been indexed
+		 */
+		boolean add(final List<String> rightLine) {
+			if (stats != null) {
+				stats.addRightRow();
+			}
+			if (maxKeyColumnNumber > rightLine.size()) {
+				if (stats != null) {
+					stats.addIgnoredRightRow();
+				}
+				return false;
+			}
+
+			if (longRows != null) {
+				final long longKey = Keys.parseLong(rightLine.get(keyColumnNumbers[0] - 1));
+				if (longKey != Keys.NOT_A_NUMBER) {
+					return addLong(longKey, rightLine);
+				}
+			}
+
+			final boolean timed = stats != null && wbemKeyType;
+			final long start = timed ? System.nanoTime() : 0;
+			final Object key;
+			final int hash;
+			if (keyColumnNumbers.length == 1) {
+				final String singleKey = normalizeKey(
+					rightLine.get(keyColumnNumbers[0] - 1),
+					wbemKeyType,
+					caseInsensitive,
+					wbemKeyMemo
+				);
+				key = singleKey;
+				hash = Keys.hash(singleKey, foldCase);
+			} else {
+				final String[] compositeKey = extractKey(
+					rightLine,
+					keyColumnNumbers,
+					wbemKeyType,
+					caseInsensitive,
+					wbemKeyMemo
+				);
+				int compositeHash = 0;
+				for (final String value : compositeKey) {
+					compositeHash = 31 * compositeHash + Keys.hash(value, foldCase);
+				}
+				key = compositeKey;
+				hash = compositeHash;
+			}
+			if (timed) {
+				stats.addWbemNormalizationNanos(System.nanoTime() - start);
+			}
+
+			final int mask = keys.length - 1;
+			int slot = Keys.mix(hash) & mask;
+			Object candidate;
+			while ((candidate = keys[slot]) != null) {
+				if (hashes[slot] == hash && keyEquals(candidate, key)) {
+					// First match wins
+					if (stats != null) {
+						stats.addDuplicateRightRow();
+					}
+					return false;
+				}
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			hashes[slot] = hash;
+			rows[slot] = storedLine(rightLine);
+			size++;
+
+			// Keep the load factor under 50%
+			if (size * 2 > keys.length) {
+				resize();
+			}
+			return true;
+		}
+
+		/**
+		 * Index the given right line by the value of its key, written as a canonical integer
+		 *
+		 * @return whether the line has been indexed
+		 */
+		private boolean addLong(final long longKey, final List<String> rightLine) {
+			final int mask = longKeys.length - 1;
+			int slot = Keys.mix(Long.hashCode(longKey)) & mask;
+			while (longRows[slot] != null) {
+				if (longKeys[slot] == longKey) {
+					// First match wins
+					if (stats != null) {
+						stats.addDuplicateRightRow();
+					}
+					return false;
+				}
+				slot = (slot + 1) & mask;
+			}
+			longKeys[slot] = longKey;
+			longRows[slot] = storedLine(rightLine);
+			longSize++;
+
+			// Keep the load factor under 50%
+			if (longSize * 2 > longKeys.length) {
+				resizeLong();
+			}
+			return true;
+		}
+
+		/**
+		 * Compare two keys of this index (both {@link String} or both {@link String} arrays)
+		 */
+		private boolean keyEquals(final Object key1, final Object key2) {
+			if (key1 instanceof String) {
+				return Keys.equals((String) key1, (String) key2, foldCase);
+			}
+			final String[] compositeKey1 = (String[]) key1;
+			final String[] compositeKey2 = (String[]) key2;
+			for (int i = 0; i < compositeKey1.length; i++) {
+				if (!Keys.equals(compositeKey1[i], compositeKey2[i], foldCase)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Double the capacity of the table
+		 */
+		private void resize() {
+			final Object[] oldKeys = keys;
+			final int[] oldHashes = hashes;
+			final Object[] oldRows = rows;
+			final int capacity = oldKeys.length * 2;
+			final int mask = capacity - 1;
+			keys = new Object[capacity];
+			hashes = new int[capacity];
+			rows = new Object[capacity];
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != null) {
+					int slot = Keys.mix(oldHashes[i]) & mask;
+					while (keys[slot] != null) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					hashes[slot] = oldHashes[i];
+					rows[slot] = oldRows[i];
+				}
+			}
+		}
+
+		/**
+		 * Double the capacity of the table of numeric keys
+		 */
+		private void resizeLong() {
+			final long[] oldKeys = longKeys;
+			final Object[] oldRows = longRows;
+			final int capacity = oldKeys.length * 2;
+			final int mask = capacity - 1;
+			longKeys = new long[capacity];
+			longRows = new Object[capacity];
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldRows[i] != null) {
+					int slot = Keys.mix(Long.hashCode(oldKeys[i])) & mask;
+					while (longRows[slot] != null) {
+						slot = (slot + 1) & mask;
+					}
+					longKeys[slot] = oldKeys[i];
+					longRows[slot] = oldRows[i];
+				}
+			}
+		}
+
+		JoinIndex build() {
+			return new JoinIndex(this);
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size-bounded cache of {@link JoinIndex} instances, keyed on the content fingerprint of the right table.
+ * <p>
+ * When the same right table (same content, same key column and same options) is joined again, the
+ * {@link JoinIndex} built previously is returned instead of indexing the table again. The least recently used
+ * entries are evicted when the cache is full.
+ * <p>
+ * This class is thread-safe.
+ *
+ */
+public final class JoinIndexCache {
+
+	private final int maxSize;
+	private final Map<Fingerprint, JoinIndex> cache;
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * Create a new cache
+	 *
+	 * @param maxSize
+	 *             The maximum number of {@link JoinIndex} instances kept in the cache
+	 * @throws IllegalArgumentException
+	 *             When maxSize is lower than 1
+	 */
+	public JoinIndexCache(final int maxSize) throws IllegalArgumentException {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Invalid cache size (maxSize=" + maxSize + ")");
+		}
+		this.maxSize = maxSize;
+		this.cache =
+			new LinkedHashMap<Fingerprint, JoinIndex>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<Fingerprint, JoinIndex> eldest) {
+					return size() > JoinIndexCache.this.maxSize;
+				}
+			};
+	}
+
+	/**
+	 * Get the {@link JoinIndex} of the given right table, building it only if the same table hasn't been indexed
+	 * (with the same options) before
+	 *
+	 * @param rightTable
+	 *             The right table
+	 * @param keyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @return the {@link JoinIndex} of the right table
+	 * @throws IllegalArgumentException
+	 *             When keyColumnNumber is lower than 1
+	 */
+	public JoinIndex get(
+		final List<List<String>> rightTable,
+		final int keyColumnNumber,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) throws IllegalArgumentException {
+		final Fingerprint fingerprint = new Fingerprint(rightTable, keyColumnNumber, wbemKeyType, caseInsensitive);
+
+		synchronized (cache) {
+			final JoinIndex index = cache.get(fingerprint);
+			if (index != null) {
+				hitCount++;
+				return index;
+			}
+			missCount++;
+		}
+
+		// Build outside of the lock, so that other tables can be looked up in the meantime
+		final JoinIndex index = JoinIndex.build(rightTable, keyColumnNumber, wbemKeyType, caseInsensitive);
+		synchronized (cache) {
+			cache.put(fingerprint, index);
+		}
+		return index;
+	}
+
+	/**
+	 * @return the number of {@link JoinIndex} instances currently in the cache
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * Remove all the entries of the cache
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @return the number of calls to {@link #get(List, int, boolean, boolean)} that returned a cached index
+	 */
+	public long getHitCount() {
+		synchronized (cache) {
+			return hitCount;
+		}
+	}
+
+	/**
+	 * @return the number of calls to {@link #get(List, int, boolean, boolean)} that had to build a new index
+	 */
+	public long getMissCount() {
+		synchronized (cache) {
+			return missCount;
+		}
+	}
+
+	/**
+	 * Content fingerprint of a right table, along with the options used to index it.
+	 * The fingerprint combines two independent 64-bit hashes of every cell, with the row and cell boundaries,
+	 * so that two different tables practically never share the same fingerprint.
+	 */
+	private static final class Fingerprint {
+
+		private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+		private static final long FNV_PRIME = 0x100000001b3L;
+
+		private final long fnvHash;
+		private final long polynomialHash;
+		private final int rowCount;
+		private final int keyColumnNumber;
+		private final boolean wbemKeyType;
+		private final boolean caseInsensitive;
+
+		private Fingerprint(
+			final List<List<String>> table,
+			final int keyColumnNumber,
+			final boolean wbemKeyType,
+			final boolean caseInsensitive
+		) {
+			long fnv = FNV_OFFSET_BASIS;
+			long polynomial = 0;
+			int rows = -1;
+			if (table != null) {
+				rows = table.size();
+				for (final List<String> row : table) {
+					for (final String cell : row) {
+						final int length = cell.length();
+						for (int i = 0; i < length; i++) {
+							final char c = cell.charAt(i);
+							fnv = (fnv ^ c) * FNV_PRIME;
+							polynomial = polynomial * 1_000_003L + c;
+						}
+						// Cell boundary (these values cannot be produced by a char)
+						fnv = (fnv ^ 0x10000) * FNV_PRIME;
+						polynomial = polynomial * 1_000_003L + 0x10000;
+					}
+					// Row boundary
+					fnv = (fnv ^ 0x10001) * FNV_PRIME;
+					polynomial = polynomial * 1_000_003L + 0x10001;
+				}
+			}
+			this.fnvHash = fnv;
+			this.polynomialHash = polynomial;
+			this.rowCount = rows;
+			this.keyColumnNumber = keyColumnNumber;
+			this.wbemKeyType = wbemKeyType;
+			this.caseInsensitive = caseInsensitive;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(fnvHash) * 31 + Long.hashCode(polynomialHash);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Fingerprint)) {
+				return false;
+			}
+			final Fingerprint other = (Fingerprint) obj;
+			return (
+				fnvHash == other.fnvHash &&
+				polynomialHash == other.polynomialHash &&
+				rowCount == other.rowCount &&
+				keyColumnNumber == other.keyColumnNumber &&
+				wbemKeyType == other.wbemKeyType &&
+				caseInsensitive == other.caseInsensitive
+			);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+/**
+ * What a JOIN operation returns for each row of the left table.
+ * <p>
+ * The left rows whose key is missing or empty are never returned, whatever the mode.
+ *
+ */
+public enum JoinMode {
+	/**
+	 * The left row followed by the first matching right row (INNER JOIN): the left rows without a match are not
+	 * returned
+	 */
+	JOIN,
+
+	/**
+	 * The left row as it is, if it has a match in the right table (like <code>WHERE EXISTS</code>).
+	 * The right table is only indexed as a set of keys, without its rows, and the left rows are not copied.
+	 */
+	SEMI,
+
+	/**
+	 * The left row as it is, if it has no match in the right table (like <code>WHERE NOT EXISTS</code>).
+	 * The right table is only indexed as a set of keys, without its rows, and the left rows are not copied.
+	 */
+	ANTI
+}
@@ -0,0 +1,389 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options of a JOIN operation, that don't change its result but the way it is performed.
+ * <p>
+ * Instances are immutable and created with {@link #builder()}:
+ * <pre>
+ * JoinOptions options = JoinOptions.builder().parallel(true).parallelThreshold(50_000).build();
+ * </pre>
+ *
+ */
+public final class JoinOptions {
+
+	/**
+	 * Default number of left rows below which the left table is always joined sequentially
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 10_000;
+
+	/**
+	 * The default options: everything is done sequentially, in the caller's thread
+	 */
+	public static final JoinOptions DEFAULT = builder().build();
+
+	private final boolean parallel;
+	private final int parallelThreshold;
+	private final Executor executor;
+	private final JoinAlgorithm algorithm;
+	private final long memoryBudget;
+	private final Path tempDirectory;
+	private final JoinStats stats;
+	private final boolean rowViews;
+	private final double bloomFilterFalsePositiveProbability;
+	private final boolean numericKeys;
+	private final CellDictionary cellDictionary;
+	private final WbemKeyMemo wbemKeyMemo;
+
+	private JoinOptions(final Builder builder) {
+		this.parallel = builder.parallel;
+		this.parallelThreshold = builder.parallelThreshold;
+		this.executor = builder.executor;
+		this.algorithm = builder.algorithm;
+		this.memoryBudget = builder.memoryBudget;
+		this.tempDirectory = builder.tempDirectory;
+		this.stats = builder.stats;
+		this.rowViews = builder.rowViews;
+		this.bloomFilterFalsePositiveProbability = builder.bloomFilterFalsePositiveProbability;
+		this.numericKeys = builder.numericKeys;
+		this.cellDictionary = builder.cellDictionary;
+		this.wbemKeyMemo = builder.wbemKeyMemo;
+	}
+
+	/**
+	 * @return a new {@link Builder} initialized with the default options
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return whether the left table is split in chunks that are joined in parallel
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * @return the number of left rows below which the left table is joined sequentially, even in parallel mode
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * @return the {@link Executor} running the chunks of the left table in parallel mode
+	 * ({@link ForkJoinPool#commonPool()} unless specified otherwise)
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @return how the rows of the left table are matched with the rows of the right table
+	 * ({@link JoinAlgorithm#HASH} unless specified otherwise)
+	 */
+	public JoinAlgorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * @return the approximate number of bytes the index of the right table may take in the heap when joining
+	 * {@link java.io.Reader}s, beyond which both tables are spilled to temporary files (0 means unlimited)
+	 */
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	/**
+	 * @return the directory of the temporary files, or <code>null</code> for the default temporary-file directory
+	 */
+	public Path getTempDirectory() {
+		return tempDirectory;
+	}
+
+	/**
+	 * @return where the timings and row counters of the JOIN operations are collected, or <code>null</code> if they
+	 * are not collected
+	 */
+	public JoinStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * @return whether the resulting rows are immutable views of the left and right rows, instead of copies
+	 */
+	public boolean isRowViews() {
+		return rowViews;
+	}
+
+	/**
+	 * @return the false positive probability of the Bloom filter of the right table index, or 0 if the index has no
+	 * Bloom filter
+	 */
+	public double getBloomFilterFalsePositiveProbability() {
+		return bloomFilterFalsePositiveProbability;
+	}
+
+	/**
+	 * @return whether the integer keys of the right table index are stored as primitive <code>long</code> values
+	 */
+	public boolean isNumericKeys() {
+		return numericKeys;
+	}
+
+	/**
+	 * @return the dictionary through which the cells of the parsed tables are shared, or <code>null</code> if each cell
+	 * is a new {@link String}
+	 */
+	public CellDictionary getCellDictionary() {
+		return cellDictionary;
+	}
+
+	/**
+	 * @return the memo of the normalized WBEM paths, or <code>null</code> if each WBEM path is normalized every time
+	 */
+	public WbemKeyMemo getWbemKeyMemo() {
+		return wbemKeyMemo;
+	}
+
+	/**
+	 * @return these options, with the resulting rows as views of the left and right rows
+	 */
+	JoinOptions withRowViews() {
+		if (rowViews) {
+			return this;
+		}
+		return builder()
+			.parallel(parallel)
+			.parallelThreshold(parallelThreshold)
+			.executor(executor)
+			.algorithm(algorithm)
+			.memoryBudget(memoryBudget)
+			.tempDirectory(tempDirectory)
+			.stats(stats)
+			.rowViews(true)
+			.bloomFilter(bloomFilterFalsePositiveProbability)
+			.numericKeys(numericKeys)
+			.cellDictionary(cellDictionary)
+			.wbemKeyMemo(wbemKeyMemo)
+			.build();
+	}
+
+	/**
+	 * Builder of {@link JoinOptions}
+	 */
+	public static final class Builder {
+
+		private boolean parallel;
+		private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+		private Executor executor = ForkJoinPool.commonPool();
+		private JoinAlgorithm algorithm = JoinAlgorithm.HASH;
+		private long memoryBudget;
+		private Path tempDirectory;
+		private JoinStats stats;
+		private boolean rowViews;
+		private double bloomFilterFalsePositiveProbability;
+		private boolean numericKeys;
+		private CellDictionary cellDictionary;
+		private WbemKeyMemo wbemKeyMemo;
+
+		private Builder() {}
+
+		/**
+		 * @param parallel
+		 *             Whether the left table is split in chunks that are joined in parallel (the order of the
+		 *             resulting rows is the same as in sequential mode)
+		 * @return this builder
+		 */
+		public Builder parallel(final boolean parallel) {
+			this.parallel = parallel;
+			return this;
+		}
+
+		/**
+		 * @param parallelThreshold
+		 *             The number of left rows below which the left table is joined sequentially, even in parallel mode,
+		 *             so that small tables don't pay for the overhead of the parallelism
+		 * @return this builder
+		 * @throws IllegalArgumentException
+		 *             When parallelThreshold is lower than 1
+		 */
+		public Builder parallelThreshold(final int parallelThreshold) throws IllegalArgumentException {
+			if (parallelThreshold < 1) {
+				throw new IllegalArgumentException("Invalid parallel threshold (parallelThreshold=" + parallelThreshold + ")");
+			}
+			this.parallelThreshold = parallelThreshold;
+			return this;
+		}
+
+		/**
+		 * @param executor
+		 *             The {@link Executor} running the chunks of the left table in parallel mode
+		 * @return this builder
+		 * @throws IllegalArgumentException
+		 *             When executor is <code>null</code>
+		 */
+		public Builder executor(final Executor executor) throws IllegalArgumentException {
+			if (executor == null) {
+				throw new IllegalArgumentException("Executor cannot be null");
+			}
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * @param algorithm
+		 *             How the rows of the left table are matched with the rows of the right table.
+		 *             The MERGE algorithm is always sequential, regardless of the parallel option.
+		 * @return this builder
+		 * @throws IllegalArgumentException
+		 *             When algorithm is <code>null</code>
+		 */
+		public Builder algorithm(final JoinAlgorithm algorithm) throws IllegalArgumentException {
+			if (algorithm == null) {
+				throw new IllegalArgumentException("Algorithm cannot be null");
+			}
+			this.algorithm = algorithm;
+			return this;
+		}
+
+		/**
+		 * @param memoryBudget
+		 *             The approximate number of bytes the index of the right table may take in the heap when joining
+		 *             {@link java.io.Reader}s. Beyond that, both tables are hash-partitioned into temporary files and
+		 *             joined partition by partition (with the same result). Use 0 for an unlimited budget.
+		 * @return this builder
+		 * @throws IllegalArgumentException
+		 *             When memoryBudget is negative
+		 */
+		public Builder memoryBudget(final long memoryBudget) throws IllegalArgumentException {
+			if (memoryBudget < 0) {
+				throw new IllegalArgumentException("Invalid memory budget (memoryBudget=" + memoryBudget + ")");
+			}
+			this.memoryBudget = memoryBudget;
+			return this;
+		}
+
+		/**
+		 * @param tempDirectory
+		 *             The directory where the temporary files are created when the memory budget is exceeded,
+		 *             or <code>null</code> for the default temporary-file directory
+		 * @return this builder
+		 */
+		public Builder tempDirectory(final Path tempDirectory) {
+			this.tempDirectory = tempDirectory;
+			return this;
+		}
+
+		/**
+		 * @param stats
+		 *             Where the timings and row counters of the JOIN operations are collected (they are added to the
+		 *             ones already collected), or <code>null</code> to not collect them
+		 * @return this builder
+		 */
+		public Builder stats(final JoinStats stats) {
+			this.stats = stats;
+			return this;
+		}
+
+		/**
+		 * @param rowViews
+		 *             Whether the resulting rows of the JOIN operations on {@link java.util.List}s are immutable views of
+		 *             the left row followed by the right row (or the default right line), which saves a copy of both
+		 *             rows per resulting row. The left and right tables must then not be modified while the result
+		 *             is in use. By default, each resulting row is a new mutable list.
+		 * @return this builder
+		 */
+		public Builder rowViews(final boolean rowViews) {
+			this.rowViews = rowViews;
+			return this;
+		}
+
+		/**
+		 * @param falsePositiveProbability
+		 *             The false positive probability of a Bloom filter built with the index of the right table, which
+		 *             rejects most of the left keys that have no match without probing the index (see
+		 *             {@link JoinIndex#withBloomFilter(double)}), e.g. <code>0.01</code>. This is worth it when only a
+		 *             small share of the left keys have a match. Use 0 for no Bloom filter (the default).
+		 *             The indexes passed to a JOIN operation already built are used as they are.
+		 * @return this builder
+		 * @throws IllegalArgumentException
+		 *             When falsePositiveProbability is negative, or not lower than 1
+		 */
+		public Builder bloomFilter(final double falsePositiveProbability) throws IllegalArgumentException {
+			if (falsePositiveProbability != 0) {
+				JoinIndex.checkFalsePositiveProbability(falsePositiveProbability);
+			}
+			this.bloomFilterFalsePositiveProbability = falsePositiveProbability;
+			return this;
+		}
+
+		/**
+		 * @param numericKeys
+		 *             Whether the right table index stores the integer keys (e.g. SNMP indexes, device IDs, PIDs) as
+		 *             primitive <code>long</code> values, parsed from their characters, instead of hashing them as
+		 *             strings. Only the keys written as canonical integers (an optional minus sign and up to 18 digits,
+		 *             without leading zeros) are stored that way: the other keys are indexed as strings, so the result
+		 *             is the same. Ignored for composite keys and WBEM keys (see {@link JoinIndex#isNumericKeys()}).
+		 * @return this builder
+		 */
+		public Builder numericKeys(final boolean numericKeys) {
+			this.numericKeys = numericKeys;
+			return this;
+		}
+
+		/**
+		 * @param cellDictionary
+		 *             The dictionary through which identical cells of the CSV tables parsed by the JOIN operations
+		 *             share the same {@link String} instance (see {@link CellDictionary}), or <code>null</code> to
+		 *             create a new {@link String} per cell (the default)
+		 * @return this builder
+		 */
+		public Builder cellDictionary(final CellDictionary cellDictionary) {
+			this.cellDictionary = cellDictionary;
+			return this;
+		}
+
+		/**
+		 * @param wbemKeyMemo
+		 *             The memo of the WBEM paths normalized by the JOIN operations with WBEM keys (see
+		 *             {@link WbemKeyMemo}), or <code>null</code> to normalize each WBEM path every time (the default)
+		 * @return this builder
+		 */
+		public Builder wbemKeyMemo(final WbemKeyMemo wbemKeyMemo) {
+			this.wbemKeyMemo = wbemKeyMemo;
+			return this;
+		}
+
+		/**
+		 * @return the new {@link JoinOptions}
+		 */
+		public JoinOptions build() {
+			return new JoinOptions(this);
+		}
+	}
+}
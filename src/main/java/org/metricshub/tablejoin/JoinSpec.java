@@ -0,0 +1,260 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One step of a chained JOIN (see {@link TableJoin#join(List, List, JoinOptions)}): the right table joined with
+ * the result of the previous steps, and how its rows are matched.
+ * <p>
+ * The left key columns of a step are numbered in the row built by the previous steps, i.e. the columns of the left
+ * table followed by the columns of each right table joined so far. Instances are immutable and created with
+ * {@link #builder()}:
+ * <pre>
+ * JoinSpec spec = JoinSpec.builder().rightTable(devices).keyColumns(2, 1).defaultRightLine("unknown;unknown").build();
+ * </pre>
+ *
+ */
+public final class JoinSpec {
+
+	private final List<List<String>> rightTable;
+	private final JoinIndex rightTableIndex;
+	private final int[] leftKeyColumnNumbers;
+	private final int[] rightKeyColumnNumbers;
+	private final List<String> defaultRightLine;
+	private final boolean wbemKeyType;
+	private final boolean caseInsensitive;
+
+	private JoinSpec(final Builder builder) {
+		this.rightTable = builder.rightTable;
+		this.rightTableIndex = builder.rightTableIndex;
+		this.leftKeyColumnNumbers = builder.leftKeyColumnNumbers;
+		this.defaultRightLine = builder.defaultRightLine;
+		if (rightTableIndex != null) {
+			this.rightKeyColumnNumbers = rightTableIndex.getKeyColumnNumbers();
+			this.wbemKeyType = rightTableIndex.isWbemKeyType();
+			this.caseInsensitive = rightTableIndex.isCaseInsensitive();
+		} else {
+			this.rightKeyColumnNumbers = builder.rightKeyColumnNumbers;
+			this.wbemKeyType = builder.wbemKeyType;
+			this.caseInsensitive = builder.caseInsensitive;
+		}
+	}
+
+	/**
+	 * @return a new {@link Builder}
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return the numbers of the columns used as key in the row built by the previous steps
+	 */
+	public int[] getLeftKeyColumnNumbers() {
+		return leftKeyColumnNumbers.clone();
+	}
+
+	/**
+	 * @return the numbers of the columns used as key in the right table
+	 */
+	public int[] getRightKeyColumnNumbers() {
+		return rightKeyColumnNumbers.clone();
+	}
+
+	/**
+	 * @return the default right line (LEFT JOIN), empty for an INNER JOIN
+	 */
+	public List<String> getDefaultRightLine() {
+		return defaultRightLine;
+	}
+
+	/**
+	 * @return whether the key is in the form of a WBEM path
+	 */
+	public boolean isWbemKeyType() {
+		return wbemKeyType;
+	}
+
+	/**
+	 * @return whether the matching is done case insensitive
+	 */
+	public boolean isCaseInsensitive() {
+		return caseInsensitive;
+	}
+
+	/**
+	 * Build the index of the right table, unless it was specified already built
+	 *
+	 * @param options
+	 *             Where the index build is measured, the false positive probability of its Bloom filter and whether
+	 *             its keys are numeric
+	 * @return the {@link JoinIndex} of the right table
+	 */
+	JoinIndex buildIndex(final JoinOptions options) {
+		if (rightTableIndex != null) {
+			return rightTableIndex;
+		}
+		return JoinIndex.build(rightTable, rightKeyColumnNumbers, wbemKeyType, caseInsensitive, options);
+	}
+
+	/**
+	 * Builder of {@link JoinSpec}
+	 */
+	public static final class Builder {
+
+		private List<List<String>> rightTable;
+		private JoinIndex rightTableIndex;
+		private int[] leftKeyColumnNumbers;
+		private int[] rightKeyColumnNumbers;
+		private List<String> defaultRightLine = new ArrayList<>();
+		private boolean wbemKeyType;
+		private boolean caseInsensitive;
+
+		private Builder() {}
+
+		/**
+		 * @param rightTable
+		 *             The right table. May be <code>null</code>, in which case no row matches.
+		 * @return this builder
+		 */
+		public Builder rightTable(final List<List<String>> rightTable) {
+			this.rightTable = rightTable;
+			this.rightTableIndex = null;
+			return this;
+		}
+
+		/**
+		 * @param rightTable
+		 *             The right table, as CSV. May be <code>null</code>, in which case no row matches.
+		 * @param separator
+		 *             The columns separator of the right table
+		 * @return this builder
+		 * @throws IllegalArgumentException
+		 *             When separator is <code>null</code> or empty
+		 */
+		public Builder rightTable(final String rightTable, final String separator) throws IllegalArgumentException {
+			if (separator == null || separator.isEmpty()) {
+				throw new IllegalArgumentException("Separator cannot be null or empty");
+			}
+			return rightTable(TableJoin.stringToTable(rightTable, separator));
+		}
+
+		/**
+		 * Use an index of the right table that is already built (and shared with other JOIN operations). The right key
+		 * columns, WBEM key type and case sensitivity are then the ones of the index.
+		 *
+		 * @param rightTableIndex
+		 *             The index of the right table
+		 * @return this builder
+		 * @throws IllegalArgumentException
+		 *             When rightTableIndex is <code>null</code>
+		 */
+		public Builder rightTableIndex(final JoinIndex rightTableIndex) throws IllegalArgumentException {
+			if (rightTableIndex == null) {
+				throw new IllegalArgumentException("Right table index cannot be null");
+			}
+			this.rightTableIndex = rightTableIndex;
+			this.rightTable = null;
+			return this;
+		}
+
+		/**
+		 * @param leftKeyColumnNumber
+		 *             The number of the key column in the row built by the previous steps
+		 * @param rightKeyColumnNumber
+		 *             The number of the key column in the right table (ignored with a right table index)
+		 * @return this builder
+		 */
+		public Builder keyColumns(final int leftKeyColumnNumber, final int rightKeyColumnNumber) {
+			return keyColumns(new int[] { leftKeyColumnNumber }, new int[] { rightKeyColumnNumber });
+		}
+
+		/**
+		 * @param leftKeyColumnNumbers
+		 *             The numbers of the key columns in the row built by the previous steps
+		 * @param rightKeyColumnNumbers
+		 *             The numbers of the key columns in the right table (ignored with a right table index)
+		 * @return this builder
+		 */
+		public Builder keyColumns(final int[] leftKeyColumnNumbers, final int[] rightKeyColumnNumbers) {
+			this.leftKeyColumnNumbers = leftKeyColumnNumbers != null ? leftKeyColumnNumbers.clone() : null;
+			this.rightKeyColumnNumbers = rightKeyColumnNumbers != null ? rightKeyColumnNumbers.clone() : null;
+			return this;
+		}
+
+		/**
+		 * @param defaultRightLine
+		 *             The default entry to be put if a matching entry is not found in the right table (LEFT JOIN),
+		 *             <code>null</code> or empty for an INNER JOIN
+		 * @return this builder
+		 */
+		public Builder defaultRightLine(final List<String> defaultRightLine) {
+			this.defaultRightLine = defaultRightLine != null ? new ArrayList<>(defaultRightLine) : new ArrayList<>();
+			return this;
+		}
+
+		/**
+		 * @param defaultRightLine
+		 *             The default entry to be put if a matching entry is not found in the right table (LEFT JOIN),
+		 *             with its columns separated with semicolons, <code>null</code> or empty for an INNER JOIN
+		 * @return this builder
+		 */
+		public Builder defaultRightLine(final String defaultRightLine) {
+			return defaultRightLine(TableJoin.lineToList(defaultRightLine, ";"));
+		}
+
+		/**
+		 * @param wbemKeyType
+		 *             Whether the key is in the form of a WBEM path (ignored with a right table index)
+		 * @return this builder
+		 */
+		public Builder wbemKeyType(final boolean wbemKeyType) {
+			this.wbemKeyType = wbemKeyType;
+			return this;
+		}
+
+		/**
+		 * @param caseInsensitive
+		 *             Whether the matching is done case insensitive (ignored with a right table index)
+		 * @return this builder
+		 */
+		public Builder caseInsensitive(final boolean caseInsensitive) {
+			this.caseInsensitive = caseInsensitive;
+			return this;
+		}
+
+		/**
+		 * @return the new {@link JoinSpec}
+		 * @throws IllegalArgumentException
+		 *             When the key columns are missing, lower than 1, or not as many on both sides
+		 */
+		public JoinSpec build() throws IllegalArgumentException {
+			TableJoin.checkKeyColumnNumbers(
+				leftKeyColumnNumbers,
+				rightTableIndex != null ? rightTableIndex.getKeyColumnNumbers() : rightKeyColumnNumbers
+			);
+			return new JoinSpec(this);
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and row counters of JOIN operations, aggregated over all the JOIN operations it is passed to
+ * (see {@link JoinOptions.Builder#stats(JoinStats)}).
+ * <p>
+ * A {@link JoinStats} is thread-safe, and its counters are {@link LongAdder}s, so that the threads of a parallel
+ * JOIN don't contend on them. When no {@link JoinStats} is specified, nothing is measured (the JOIN only checks
+ * for <code>null</code>). A {@link JoinStats} can be registered as an MXBean, see {@link JoinStatsMXBean}.
+ * <pre>
+ * JoinStats stats = new JoinStats();
+ * TableJoin.join(left, right, 1, 1, ";", null, false, false, JoinOptions.builder().stats(stats).build());
+ * long matched = stats.getMatchedLeftRowCount();
+ * </pre>
+ *
+ */
+public final class JoinStats implements JoinStatsMXBean {
+
+	private final LongAdder joinCount = new LongAdder();
+	private final LongAdder parseNanos = new LongAdder();
+	private final LongAdder indexBuildNanos = new LongAdder();
+	private final LongAdder probeNanos = new LongAdder();
+	private final LongAdder wbemNormalizationNanos = new LongAdder();
+	private final LongAdder outputNanos = new LongAdder();
+	private final LongAdder leftRowCount = new LongAdder();
+	private final LongAdder invalidLeftRowCount = new LongAdder();
+	private final LongAdder matchedLeftRowCount = new LongAdder();
+	private final LongAdder defaultedLeftRowCount = new LongAdder();
+	private final LongAdder unmatchedLeftRowCount = new LongAdder();
+	private final LongAdder rightRowCount = new LongAdder();
+	private final LongAdder ignoredRightRowCount = new LongAdder();
+	private final LongAdder duplicateRightRowCount = new LongAdder();
+	private final LongAdder bloomFilterSkippedProbeCount = new LongAdder();
+
+	@Override
+	public long getJoinCount() {
+		return joinCount.sum();
+	}
+
+	@Override
+	public long getParseNanos() {
+		return parseNanos.sum();
+	}
+
+	@Override
+	public long getIndexBuildNanos() {
+		return indexBuildNanos.sum();
+	}
+
+	@Override
+	public long getProbeNanos() {
+		return probeNanos.sum();
+	}
+
+	@Override
+	public long getWbemNormalizationNanos() {
+		return wbemNormalizationNanos.sum();
+	}
+
+	@Override
+	public long getOutputNanos() {
+		return outputNanos.sum();
+	}
+
+	@Override
+	public long getLeftRowCount() {
+		return leftRowCount.sum();
+	}
+
+	@Override
+	public long getInvalidLeftRowCount() {
+		return invalidLeftRowCount.sum();
+	}
+
+	@Override
+	public long getMatchedLeftRowCount() {
+		return matchedLeftRowCount.sum();
+	}
+
+	@Override
+	public long getDefaultedLeftRowCount() {
+		return defaultedLeftRowCount.sum();
+	}
+
+	@Override
+	public long getUnmatchedLeftRowCount() {
+		return unmatchedLeftRowCount.sum();
+	}
+
+	@Override
+	public long getRightRowCount() {
+		return rightRowCount.sum();
+	}
+
+	@Override
+	public long getIgnoredRightRowCount() {
+		return ignoredRightRowCount.sum();
+	}
+
+	@Override
+	public long getDuplicateRightRowCount() {
+		return duplicateRightRowCount.sum();
+	}
+
+	@Override
+	public long getBloomFilterSkippedProbeCount() {
+		return bloomFilterSkippedProbeCount.sum();
+	}
+
+	@Override
+	public void reset() {
+		joinCount.reset();
+		parseNanos.reset();
+		indexBuildNanos.reset();
+		probeNanos.reset();
+		wbemNormalizationNanos.reset();
+		outputNanos.reset();
+		leftRowCount.reset();
+		invalidLeftRowCount.reset();
+		matchedLeftRowCount.reset();
+		defaultedLeftRowCount.reset();
+		unmatchedLeftRowCount.reset();
+		rightRowCount.reset();
+		ignoredRightRowCount.reset();
+		duplicateRightRowCount.reset();
+		bloomFilterSkippedProbeCount.reset();
+	}
+
+	@Override
+	public String toString() {
+		return (
+			"JoinStats [joinCount=" +
+			getJoinCount() +
+			", parseNanos=" +
+			getParseNanos() +
+			", indexBuildNanos=" +
+			getIndexBuildNanos() +
+			", probeNanos=" +
+			getProbeNanos() +
+			", wbemNormalizationNanos=" +
+			getWbemNormalizationNanos() +
+			", outputNanos=" +
+			getOutputNanos() +
+			", leftRowCount=" +
+			getLeftRowCount() +
+			", invalidLeftRowCount=" +
+			getInvalidLeftRowCount() +
+			", matchedLeftRowCount=" +
+			getMatchedLeftRowCount() +
+			", defaultedLeftRowCount=" +
+			getDefaultedLeftRowCount() +
+			", unmatchedLeftRowCount=" +
+			getUnmatchedLeftRowCount() +
+			", rightRowCount=" +
+			getRightRowCount() +
+			", ignoredRightRowCount=" +
+			getIgnoredRightRowCount() +
+			", duplicateRightRowCount=" +
+			getDuplicateRightRowCount() +
+			", bloomFilterSkippedProbeCount=" +
+			getBloomFilterSkippedProbeCount() +
+			"]"
+		);
+	}
+
+	/**
+	 * Add the timings and counters of another {@link JoinStats} to this one
+	 *
+	 * @param other
+	 *             The {@link JoinStats} to add
+	 */
+	void add(final JoinStats other) {
+		joinCount.add(other.getJoinCount());
+		parseNanos.add(other.getParseNanos());
+		indexBuildNanos.add(other.getIndexBuildNanos());
+		probeNanos.add(other.getProbeNanos());
+		wbemNormalizationNanos.add(other.getWbemNormalizationNanos());
+		outputNanos.add(other.getOutputNanos());
+		leftRowCount.add(other.getLeftRowCount());
+		invalidLeftRowCount.add(other.getInvalidLeftRowCount());
+		matchedLeftRowCount.add(other.getMatchedLeftRowCount());
+		defaultedLeftRowCount.add(other.getDefaultedLeftRowCount());
+		unmatchedLeftRowCount.add(other.getUnmatchedLeftRowCount());
+		rightRowCount.add(other.getRightRowCount());
+		ignoredRightRowCount.add(other.getIgnoredRightRowCount());
+		duplicateRightRowCount.add(other.getDuplicateRightRowCount());
+		bloomFilterSkippedProbeCount.add(other.getBloomFilterSkippedProbeCount());
+	}
+
+	void addJoin() {
+		joinCount.increment();
+	}
+
+	void addParseNanos(final long nanos) {
+		parseNanos.add(nanos);
+	}
+
+	void addIndexBuildNanos(final long nanos) {
+		indexBuildNanos.add(nanos);
+	}
+
+	void addProbeNanos(final long nanos) {
+		probeNanos.add(nanos);
+	}
+
+	void addWbemNormalizationNanos(final long nanos) {
+		wbemNormalizationNanos.add(nanos);
+	}
+
+	void addOutputNanos(final long nanos) {
+		outputNanos.add(nanos);
+	}
+
+	void addLeftRows(final long count) {
+		leftRowCount.add(count);
+	}
+
+	void addInvalidLeftRow() {
+		invalidLeftRowCount.increment();
+	}
+
+	void addMatchedLeftRow() {
+		matchedLeftRowCount.increment();
+	}
+
+	void addDefaultedLeftRow() {
+		defaultedLeftRowCount.increment();
+	}
+
+	void addUnmatchedLeftRow() {
+		unmatchedLeftRowCount.increment();
+	}
+
+	void addRightRow() {
+		rightRowCount.increment();
+	}
+
+	void addIgnoredRightRow() {
+		ignoredRightRowCount.increment();
+	}
+
+	void addDuplicateRightRow() {
+		duplicateRightRowCount.increment();
+	}
+
+	void addBloomFilterSkippedProbe() {
+		bloomFilterSkippedProbeCount.increment();
+	}
+}
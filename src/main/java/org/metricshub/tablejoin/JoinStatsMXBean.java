@@ -0,0 +1,113 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+/**
+ * JMX view of a {@link JoinStats}: its aggregates are exposed as read-only attributes. Register a {@link JoinStats}
+ * as an MXBean to monitor the JOIN operations that use it:
+ * <pre>
+ * ManagementFactory.getPlatformMBeanServer().registerMBean(stats, new ObjectName("org.metricshub.tablejoin:type=JoinStats"));
+ * </pre>
+ *
+ */
+public interface JoinStatsMXBean {
+	/**
+	 * @return the number of JOIN operations
+	 */
+	long getJoinCount();
+
+	/**
+	 * @return the time spent parsing CSV tables, in nanoseconds (the tables read from a {@link java.io.Reader} are
+	 * parsed while they are joined, so that time is part of the index build and probe times)
+	 */
+	long getParseNanos();
+
+	/**
+	 * @return the time spent building the index of the right tables, in nanoseconds
+	 */
+	long getIndexBuildNanos();
+
+	/**
+	 * @return the time spent matching the left rows with the right rows, in nanoseconds
+	 */
+	long getProbeNanos();
+
+	/**
+	 * @return the time spent normalizing WBEM keys (part of the index build and probe times), in nanoseconds
+	 */
+	long getWbemNormalizationNanos();
+
+	/**
+	 * @return the time spent formatting the results as CSV, in nanoseconds
+	 */
+	long getOutputNanos();
+
+	/**
+	 * @return the number of left rows
+	 */
+	long getLeftRowCount();
+
+	/**
+	 * @return the number of left rows discarded because a key column is missing or empty
+	 */
+	long getInvalidLeftRowCount();
+
+	/**
+	 * @return the number of left rows that matched with a right row
+	 */
+	long getMatchedLeftRowCount();
+
+	/**
+	 * @return the number of left rows joined with the default right line (LEFT JOIN)
+	 */
+	long getDefaultedLeftRowCount();
+
+	/**
+	 * @return the number of left rows discarded because they didn't match with any right row (INNER JOIN)
+	 */
+	long getUnmatchedLeftRowCount();
+
+	/**
+	 * @return the number of right rows
+	 */
+	long getRightRowCount();
+
+	/**
+	 * @return the number of right rows ignored because a key column is missing
+	 */
+	long getIgnoredRightRowCount();
+
+	/**
+	 * @return the number of right rows shadowed by a previous right row with the same key (not counted when the
+	 * memory budget of a JOIN is exceeded)
+	 */
+	long getDuplicateRightRowCount();
+
+	/**
+	 * @return the number of lookups of the right table index skipped because the Bloom filter rejected the key
+	 */
+	long getBloomFilterSkippedProbeCount();
+
+	/**
+	 * Reset all the timings and counters to 0
+	 */
+	void reset();
+}
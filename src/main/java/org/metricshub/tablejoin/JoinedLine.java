@@ -0,0 +1,64 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable view of a joined line: the cells of the left line followed by the cells of the right line, without
+ * copying them. The view reflects the underlying lines, which must therefore not be modified while it is in use.
+ *
+ */
+final class JoinedLine extends AbstractList<String> implements RandomAccess {
+
+	private final List<String> leftLine;
+	private final List<String> rightLine;
+	private final int leftSize;
+	private final int size;
+
+	/**
+	 * @param leftLine
+	 *             The left part of the line
+	 * @param rightLine
+	 *             The right part of the line
+	 */
+	JoinedLine(final List<String> leftLine, final List<String> rightLine) {
+		this.leftLine = leftLine;
+		this.rightLine = rightLine;
+		this.leftSize = leftLine.size();
+		this.size = leftSize + rightLine.size();
+	}
+
+	@Override
+	public String get(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return index < leftSize ? leftLine.get(index) : rightLine.get(index - leftSize);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,201 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+/**
+ * Hashing and comparison of join keys.
+ * <p>
+ * Case-insensitive keys are never copied: their characters are folded on the fly, with the same locale-independent
+ * folding as {@link String#equalsIgnoreCase(String)} (upper case, then lower case), so that the result doesn't depend
+ * on the default locale of the JVM.
+ *
+ */
+final class Keys {
+
+	/**
+	 * Returned by {@link #parseLong(CharSequence)} when the key is not a canonical integer
+	 */
+	static final long NOT_A_NUMBER = Long.MIN_VALUE;
+
+	/**
+	 * Maximum number of digits of a numeric key, so that it always fits in a <code>long</code>
+	 */
+	private static final int MAX_DIGITS = 18;
+
+	private Keys() {}
+
+	/**
+	 * Fold the case of a character
+	 *
+	 * @param c
+	 *             The character to fold
+	 * @return the lower case of the upper case of the character
+	 */
+	static char fold(final char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	/**
+	 * Compute the hash code of a key
+	 *
+	 * @param key
+	 *             The key
+	 * @param caseInsensitive
+	 *             Whether the case of the characters is folded
+	 * @return the hash code, consistent with {@link #equals(CharSequence, CharSequence, boolean)} (and with
+	 * {@link String#hashCode()} for case sensitive keys, whatever the type of {@link CharSequence})
+	 */
+	static int hash(final CharSequence key, final boolean caseInsensitive) {
+		if (!caseInsensitive && key instanceof String) {
+			// Cached by the String
+			return key.hashCode();
+		}
+		int hash = 0;
+		final int length = key.length();
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + (caseInsensitive ? fold(key.charAt(i)) : key.charAt(i));
+		}
+		return hash;
+	}
+
+	/**
+	 * Compare two keys
+	 *
+	 * @param key1
+	 *             The first key
+	 * @param key2
+	 *             The second key
+	 * @param caseInsensitive
+	 *             Whether the case of the characters is folded
+	 * @return <code>true</code> if the keys are equal
+	 */
+	static boolean equals(final CharSequence key1, final CharSequence key2, final boolean caseInsensitive) {
+		if (!caseInsensitive && key1 instanceof String && key2 instanceof String) {
+			return key1.equals(key2);
+		}
+		final int length = key1.length();
+		if (length != key2.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			final char c1 = key1.charAt(i);
+			final char c2 = key2.charAt(i);
+			if (c1 != c2 && (!caseInsensitive || fold(c1) != fold(c2))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compare two keys lexicographically, like {@link String#compareTo(String)}
+	 *
+	 * @param key1
+	 *             The first key
+	 * @param key2
+	 *             The second key
+	 * @param caseInsensitive
+	 *             Whether the case of the characters is folded
+	 * @return a negative integer, zero, or a positive integer as the first key is less than, equal to, or greater
+	 * than the second key (consistent with {@link #equals(CharSequence, CharSequence, boolean)})
+	 */
+	static int compare(final String key1, final String key2, final boolean caseInsensitive) {
+		if (!caseInsensitive) {
+			return key1.compareTo(key2);
+		}
+		final int length1 = key1.length();
+		final int length2 = key2.length();
+		final int min = Math.min(length1, length2);
+		for (int i = 0; i < min; i++) {
+			final char c1 = key1.charAt(i);
+			final char c2 = key2.charAt(i);
+			if (c1 != c2) {
+				final char folded1 = fold(c1);
+				final char folded2 = fold(c2);
+				if (folded1 != folded2) {
+					return folded1 - folded2;
+				}
+			}
+		}
+		return length1 - length2;
+	}
+
+	/**
+	 * Fold the case of all the characters of a key
+	 *
+	 * @param key
+	 *             The key
+	 * @return the folded key (the same instance if nothing had to be folded)
+	 */
+	static String foldCase(final String key) {
+		final int length = key.length();
+		for (int i = 0; i < length; i++) {
+			final char c = key.charAt(i);
+			if (fold(c) != c) {
+				final char[] folded = key.toCharArray();
+				for (int j = i; j < length; j++) {
+					folded[j] = fold(folded[j]);
+				}
+				return new String(folded);
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Parse a key written as a canonical integer: an optional minus sign followed by 1 to 18 digits, without leading
+	 * zeros (and not <code>-0</code>). Two canonical integers are equal if and only if their strings are equal, so
+	 * numeric keys match exactly the same keys as string keys.
+	 *
+	 * @param key
+	 *             The key
+	 * @return the value of the key, or {@link #NOT_A_NUMBER} if the key is not a canonical integer
+	 */
+	static long parseLong(final CharSequence key) {
+		final int length = key.length();
+		final int start = length > 0 && key.charAt(0) == '-' ? 1 : 0;
+		final int digits = length - start;
+		if (digits == 0 || digits > MAX_DIGITS || (key.charAt(start) == '0' && (digits > 1 || start > 0))) {
+			return NOT_A_NUMBER;
+		}
+		long value = 0;
+		for (int i = start; i < length; i++) {
+			final char c = key.charAt(i);
+			if (c < '0' || c > '9') {
+				return NOT_A_NUMBER;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return start > 0 ? -value : value;
+	}
+
+	/**
+	 * Spread the bits of a hash code, so that it can be used to index an open-addressing table
+	 *
+	 * @param hash
+	 *             The hash code
+	 * @return the mixed hash code
+	 */
+	static int mix(final int hash) {
+		final int h = hash * 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,531 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JOIN of two CSV files, memory-mapped with {@link FileChannel#map(FileChannel.MapMode, long, long)}.
+ * <p>
+ * The files are never decoded as a whole: the rows are tokenized directly from the mapped bytes (UTF-8 being
+ * self-synchronizing, matching the UTF-8 bytes of the separator gives the same cells as matching its characters),
+ * and the cells of the resulting rows are copied from the mapped segments to the output file, through a buffered
+ * channel.
+ * Only the keys of the right table are decoded, to be indexed along with the position of their row in the
+ * mapped file. The files can therefore be larger than the heap.
+ *
+ */
+final class MappedFileJoin {
+
+	/**
+	 * Files are mapped in segments of 1 GiB, as a single mapping cannot exceed 2 GiB
+	 */
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+	private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+	private final CsvTokenizer tokenizer;
+	private final int leftKeyColumnNumber;
+	private final int rightKeyColumnNumber;
+	private final boolean wbemKeyType;
+	private final boolean caseInsensitive;
+	private final boolean foldCase;
+	private final byte[] separator;
+
+	// Index of the right table: the normalized key of each row, and the position of the row in the right file
+	private String[] keys = new String[16];
+	private int[] hashes = new int[16];
+	private long[] lineStarts = new long[16];
+	private int[] lineLengths = new int[16];
+	private int size;
+
+	private MappedFileJoin(
+		final String separator,
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) {
+		this.separator = separator.getBytes(StandardCharsets.UTF_8);
+		// Each byte of the mapped files is handled as a char, and so is each byte of the separator
+		this.tokenizer = new CsvTokenizer(new String(this.separator, StandardCharsets.ISO_8859_1));
+		this.leftKeyColumnNumber = leftKeyColumnNumber;
+		this.rightKeyColumnNumber = rightKeyColumnNumber;
+		this.wbemKeyType = wbemKeyType;
+		this.caseInsensitive = caseInsensitive;
+		// Normalized WBEM paths are already folded
+		this.foldCase = caseInsensitive && !wbemKeyType;
+	}
+
+	/**
+	 * Joins two CSV files (UTF-8 encoded) and writes the result to the output file (UTF-8 encoded), which is
+	 * created or truncated
+	 *
+	 * @param leftFile
+	 *             The left table
+	 * @param rightFile
+	 *             The right table
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param separator
+	 *             The columns separator (cannot be empty)
+	 * @param defaultRightLine
+	 *             The default entry to be put if a matching entry is not found in the right table (LEFT JOIN)
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param outputFile
+	 *             Where the result of the JOIN operation is written
+	 * @throws IOException
+	 *             When mapping the tables or writing the result fails
+	 */
+	static void join(
+		final Path leftFile,
+		final Path rightFile,
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final String separator,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final Path outputFile
+	) throws IOException {
+		final MappedFileJoin mappedFileJoin = new MappedFileJoin(
+			separator,
+			leftKeyColumnNumber,
+			rightKeyColumnNumber,
+			wbemKeyType,
+			caseInsensitive
+		);
+		final MappedFile right = MappedFile.map(rightFile);
+		mappedFileJoin.index(right);
+		final MappedFile left = MappedFile.map(leftFile);
+		try (
+			FileChannel outputChannel = FileChannel.open(
+				outputFile,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE
+			)
+		) {
+			mappedFileJoin.probe(left, right, defaultRightLine, new Output(outputChannel));
+		}
+	}
+
+	/**
+	 * Index the rows of the right file that have the key column (the first row wins for duplicate keys)
+	 */
+	private void index(final MappedFile right) throws IOException {
+		final Row row = new Row(right);
+		while (row.next()) {
+			if (row.cellCount < rightKeyColumnNumber) {
+				continue;
+			}
+			final String key = row.key(rightKeyColumnNumber);
+			final int hash = Keys.hash(key, foldCase);
+			if (find(key, hash) < 0) {
+				if ((size + 1) * 2 > keys.length) {
+					resize();
+				}
+				insert(key, hash, row.lineStart, row.line.length);
+				size++;
+			}
+		}
+	}
+
+	/**
+	 * Join each row of the left file with its matching row in the right file, and write the result
+	 */
+	private void probe(
+		final MappedFile left,
+		final MappedFile right,
+		final List<String> defaultRightLine,
+		final Output output
+	) throws IOException {
+		final boolean handleDefaultRightLine = defaultRightLine != null && !defaultRightLine.isEmpty();
+		final byte[][] defaultRightCells = handleDefaultRightLine ? new byte[defaultRightLine.size()][] : null;
+		for (int i = 0; handleDefaultRightLine && i < defaultRightCells.length; i++) {
+			defaultRightCells[i] = defaultRightLine.get(i).getBytes(StandardCharsets.UTF_8);
+		}
+
+		final Row leftRow = new Row(left);
+		final Row rightRow = new Row(right);
+		boolean firstLine = true;
+		while (leftRow.next()) {
+			// Same conditions as TableJoin.isValidLeftLine()
+			if (leftRow.cellCount < leftKeyColumnNumber || leftRow.cellLength(leftKeyColumnNumber - 1) == 0) {
+				continue;
+			}
+			final String key = leftRow.key(leftKeyColumnNumber);
+			final int slot = find(key, Keys.hash(key, foldCase));
+			if (slot < 0 && !handleDefaultRightLine) {
+				continue;
+			}
+
+			if (!firstLine) {
+				output.write((byte) '\n');
+			}
+			firstLine = false;
+			writeCells(leftRow, output);
+			if (slot >= 0) {
+				rightRow.parse(lineStarts[slot], lineLengths[slot]);
+				writeCells(rightRow, output);
+			} else {
+				for (final byte[] cell : defaultRightCells) {
+					output.write(cell);
+					output.write(separator);
+				}
+			}
+		}
+		output.flush();
+	}
+
+	private void writeCells(final Row row, final Output output) throws IOException {
+		for (int i = 0; i < row.cellCount; i++) {
+			output.write(row.file, row.lineStart + row.cellStarts[i], row.lineStart + row.cellEnds[i]);
+			output.write(separator);
+		}
+	}
+
+	/**
+	 * @return the slot of the given key in the index, or -1 if the key is not indexed
+	 */
+	private int find(final String key, final int hash) {
+		final int mask = keys.length - 1;
+		int slot = Keys.mix(hash) & mask;
+		String candidate;
+		while ((candidate = keys[slot]) != null) {
+			if (hashes[slot] == hash && Keys.equals(candidate, key, foldCase)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void insert(final String key, final int hash, final long lineStart, final int lineLength) {
+		final int mask = keys.length - 1;
+		int slot = Keys.mix(hash) & mask;
+		while (keys[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		hashes[slot] = hash;
+		lineStarts[slot] = lineStart;
+		lineLengths[slot] = lineLength;
+	}
+
+	private void resize() {
+		final String[] oldKeys = keys;
+		final int[] oldHashes = hashes;
+		final long[] oldLineStarts = lineStarts;
+		final int[] oldLineLengths = lineLengths;
+		final int capacity = oldKeys.length * 2;
+		keys = new String[capacity];
+		hashes = new int[capacity];
+		lineStarts = new long[capacity];
+		lineLengths = new int[capacity];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				insert(oldKeys[i], oldHashes[i], oldLineStarts[i], oldLineLengths[i]);
+			}
+		}
+	}
+
+	/**
+	 * A file mapped in memory, in as many segments as needed
+	 */
+	private static final class MappedFile {
+
+		private final MappedByteBuffer[] segments;
+		private final ByteBuffer[] views;
+		private final long size;
+
+		private MappedFile(final MappedByteBuffer[] segments, final long size) {
+			this.segments = segments;
+			this.size = size;
+			// Bulk reads move the position and the limit of a view, not those of the segment read by get()
+			views = new ByteBuffer[segments.length];
+			for (int i = 0; i < segments.length; i++) {
+				views[i] = segments[i].duplicate();
+			}
+		}
+
+		static MappedFile map(final Path file) throws IOException {
+			// The mappings remain valid after the channel is closed
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				final long size = channel.size();
+				final MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+				for (int i = 0; i < segments.length; i++) {
+					final long position = (long) i << SEGMENT_BITS;
+					final long segmentSize = Math.min(SEGMENT_MASK + 1, size - position);
+					segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, segmentSize);
+				}
+				return new MappedFile(segments, size);
+			}
+		}
+
+		byte get(final long position) {
+			return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+		}
+
+		/**
+		 * Copy the bytes <code>[from, from + length)</code> to the start of the given array
+		 */
+		void get(final long from, final byte[] target, final int length) {
+			int copied = 0;
+			while (copied < length) {
+				final ByteBuffer segment = select(from + copied, length - copied);
+				final int count = segment.remaining();
+				segment.get(target, copied, count);
+				copied += count;
+			}
+		}
+
+		/**
+		 * Set the position and the limit of the view on the segment that holds the given position, so that it covers at
+		 * most <code>length</code> bytes from there (less at the end of the segment)
+		 *
+		 * @return the view, ready for a relative bulk read
+		 */
+		ByteBuffer select(final long position, final long length) {
+			final ByteBuffer view = views[(int) (position >>> SEGMENT_BITS)];
+			final int offset = (int) (position & SEGMENT_MASK);
+			view.clear();
+			view.position(offset);
+			view.limit(offset + (int) Math.min(length, view.capacity() - offset));
+			return view;
+		}
+
+		/**
+		 * @return the index of the next \n at or after <code>from</code>, or the size of the file if there is none
+		 */
+		long indexOfNewline(final long from) {
+			long segmentStart = from & ~SEGMENT_MASK;
+			int offset = (int) (from & SEGMENT_MASK);
+			while (segmentStart < size) {
+				final MappedByteBuffer segment = segments[(int) (segmentStart >>> SEGMENT_BITS)];
+				final int capacity = segment.capacity();
+				for (int i = offset; i < capacity; i++) {
+					if (segment.get(i) == '\n') {
+						return segmentStart + i;
+					}
+				}
+				segmentStart += capacity;
+				offset = 0;
+			}
+			return size;
+		}
+	}
+
+	/**
+	 * A line of a mapped file, seen as a {@link CharSequence} of ISO-8859-1 characters (one char per byte)
+	 */
+	private static final class Line implements CharSequence {
+
+		private final MappedFile file;
+		private long start;
+		private int length;
+
+		private Line(final MappedFile file) {
+			this.file = file;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(final int index) {
+			return (char) (file.get(start + index) & 0xff);
+		}
+
+		@Override
+		public CharSequence subSequence(final int from, final int to) {
+			final StringBuilder builder = new StringBuilder(to - from);
+			for (int i = from; i < to; i++) {
+				builder.append(charAt(i));
+			}
+			return builder;
+		}
+
+		@Override
+		public String toString() {
+			return subSequence(0, length).toString();
+		}
+	}
+
+	/**
+	 * Cursor on the rows of a mapped file, that locates the cells of the current row (relatively to its start)
+	 */
+	private final class Row {
+
+		private final MappedFile file;
+		private final Line line;
+		private long lineStart;
+		private long nextLineStart;
+		private int[] cellStarts = new int[16];
+		private int[] cellEnds = new int[16];
+		private int cellCount;
+		private byte[] keyBytes = new byte[64];
+
+		private Row(final MappedFile file) {
+			this.file = file;
+			this.line = new Line(file);
+		}
+
+		/**
+		 * Move to the next non-empty row
+		 *
+		 * @return <code>false</code> when the end of the file has been reached
+		 * @throws IOException when a line is longer than {@link Integer#MAX_VALUE} bytes
+		 */
+		boolean next() throws IOException {
+			while (nextLineStart <= file.size) {
+				final long lineEnd = file.indexOfNewline(nextLineStart);
+				final long start = nextLineStart;
+				nextLineStart = lineEnd + 1;
+				if (lineEnd - start > Integer.MAX_VALUE) {
+					throw new IOException(
+						"Line at offset " +
+						start +
+						" is too long (" +
+						(lineEnd - start) +
+						" bytes, at most " +
+						Integer.MAX_VALUE +
+						")"
+					);
+				}
+				parse(start, (int) (lineEnd - start));
+				if (cellCount > 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Locate the cells of the line at the given position
+		 */
+		void parse(final long start, final int length) {
+			lineStart = start;
+			line.start = start;
+			line.length = length;
+			cellCount = 0;
+			tokenizer.parseLine(line, this::addCell);
+		}
+
+		private void addCell(final CharSequence text, final int start, final int end) {
+			if (cellCount == cellStarts.length) {
+				cellStarts = Arrays.copyOf(cellStarts, cellCount * 2);
+				cellEnds = Arrays.copyOf(cellEnds, cellCount * 2);
+			}
+			cellStarts[cellCount] = start;
+			cellEnds[cellCount] = end;
+			cellCount++;
+		}
+
+		int cellLength(final int cell) {
+			return cellEnds[cell] - cellStarts[cell];
+		}
+
+		/**
+		 * Decode and normalize the key of this row
+		 */
+		String key(final int keyColumnNumber) {
+			final int length = cellLength(keyColumnNumber - 1);
+			if (keyBytes.length < length) {
+				keyBytes = new byte[Math.max(length, keyBytes.length * 2)];
+			}
+			file.get(lineStart + cellStarts[keyColumnNumber - 1], keyBytes, length);
+			final String key = new String(keyBytes, 0, length, StandardCharsets.UTF_8);
+			return wbemKeyType ? WbemKeyNormalizer.normalize(key, caseInsensitive) : key;
+		}
+	}
+
+	/**
+	 * Buffered output to a {@link FileChannel}
+	 */
+	private static final class Output {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+
+		private Output(final FileChannel channel) {
+			this.channel = channel;
+		}
+
+		void write(final byte b) throws IOException {
+			if (!buffer.hasRemaining()) {
+				flush();
+			}
+			buffer.put(b);
+		}
+
+		void write(final byte[] bytes) throws IOException {
+			int written = 0;
+			while (written < bytes.length) {
+				if (!buffer.hasRemaining()) {
+					flush();
+				}
+				final int count = Math.min(bytes.length - written, buffer.remaining());
+				buffer.put(bytes, written, count);
+				written += count;
+			}
+		}
+
+		/**
+		 * Copy the bytes <code>[from, to)</code> of a mapped file, a slice of a segment at a time
+		 */
+		void write(final MappedFile file, final long from, final long to) throws IOException {
+			long position = from;
+			while (position < to) {
+				if (!buffer.hasRemaining()) {
+					flush();
+				}
+				final ByteBuffer segment = file.select(position, Math.min(to - position, buffer.remaining()));
+				position += segment.remaining();
+				buffer.put(segment);
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+}
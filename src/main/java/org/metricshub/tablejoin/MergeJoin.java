@@ -0,0 +1,310 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Sort-merge JOIN of two tables that are already sorted by their key.
+ * <p>
+ * Both tables are walked once, in the order of their keys: no index is built, so the only extra memory is the
+ * result. When several right rows have the same key, the first one wins, exactly like with a {@link JoinIndex}.
+ * <p>
+ * The order of both tables is checked before the merge starts, so that an unsorted table is found out without
+ * joining anything. The keys are compared in place, in the cells of the rows: only WBEM paths are normalized, once
+ * per row, during that check.
+ *
+ */
+final class MergeJoin {
+
+	private MergeJoin() {}
+
+	/**
+	 * Joins two tables sorted by their key
+	 *
+	 * @param leftTable
+	 *             The left table, sorted by its key
+	 * @param rightTable
+	 *             The right table, sorted by its key. May be <code>null</code>.
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table
+	 * @param defaultRightLine
+	 *             The default entry to be put if a matching entry is not found in the right table (LEFT JOIN)
+	 * @param handleDefaultRightLine
+	 *             Whether the default right line is used (LEFT JOIN) or not (INNER JOIN)
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param wbemKeyMemo
+	 *             The memo of the normalized WBEM paths, or <code>null</code>
+	 * @param rowViews
+	 *             Whether the resulting rows are views of the left and right rows, instead of copies
+	 * @param projection
+	 *             The columns kept in the resulting rows, or <code>null</code> to keep all of them
+	 * @param stats
+	 *             Where the timings and row counters are collected, or <code>null</code>. Nothing is collected if one
+	 *             of the tables is not sorted.
+	 * @return the result of the JOIN operation, or <code>null</code> if one of the tables is not sorted (in which
+	 * case nothing has been joined yet)
+	 */
+	static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final List<List<String>> rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean handleDefaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final WbemKeyMemo wbemKeyMemo,
+		final boolean rowViews,
+		final Projection projection,
+		final JoinStats stats
+	) {
+		// Collected apart, so that a JOIN that falls back to the hash algorithm is not counted at all
+		final JoinStats mergeStats = stats != null ? new JoinStats() : null;
+		final long start = stats != null ? System.nanoTime() : 0;
+		final SortedTable left = SortedTable.check(
+			leftTable,
+			leftKeyColumnNumbers,
+			true,
+			wbemKeyType,
+			caseInsensitive,
+			wbemKeyMemo,
+			mergeStats
+		);
+		if (left == null) {
+			return null;
+		}
+		final SortedTable right = SortedTable.check(
+			rightTable != null ? rightTable : Collections.emptyList(),
+			rightKeyColumnNumbers,
+			false,
+			wbemKeyType,
+			caseInsensitive,
+			wbemKeyMemo,
+			mergeStats
+		);
+		if (right == null) {
+			return null;
+		}
+
+		final List<List<String>> result = new ArrayList<>();
+		int rightRow = right.nextValidRow(-1);
+		for (int leftRow = left.nextValidRow(-1); leftRow < left.lines.size(); leftRow = left.nextValidRow(leftRow)) {
+			// Skip the right rows whose key is lower than the left key: the current right row is then the first one
+			// with the left key, if any
+			while (rightRow < right.lines.size() && right.compare(rightRow, left, leftRow) < 0) {
+				rightRow = right.nextValidRow(rightRow);
+			}
+			final boolean match = rightRow < right.lines.size() && right.compare(rightRow, left, leftRow) == 0;
+			final List<String> matchingRightLine = match ? right.lines.get(rightRow) : null;
+
+			final List<String> resultLine = TableJoin.concatLines(
+				left.lines.get(leftRow),
+				matchingRightLine,
+				defaultRightLine,
+				handleDefaultRightLine,
+				rowViews,
+				projection,
+				mergeStats
+			);
+			if (!resultLine.isEmpty()) {
+				result.add(resultLine);
+			}
+		}
+
+		if (stats != null) {
+			mergeStats.addJoin();
+			mergeStats.addLeftRows(leftTable.size());
+			mergeStats.addProbeNanos(System.nanoTime() - start);
+			stats.add(mergeStats);
+		}
+		return result;
+	}
+
+	/**
+	 * A table checked to be sorted by its key, whose rows are accessed by their index
+	 */
+	private static final class SortedTable {
+
+		private final List<List<String>> lines;
+		private final int[] keyColumnNumbers;
+		private final boolean left;
+		private final boolean foldCase;
+		/**
+		 * The normalized WBEM paths of the valid rows, <code>keyColumnNumbers.length</code> per row (<code>null</code>
+		 * for the other types of keys, which are compared as they are)
+		 */
+		private final String[] normalizedKeys;
+
+		private SortedTable(
+			final List<List<String>> lines,
+			final int[] keyColumnNumbers,
+			final boolean left,
+			final boolean wbemKeyType,
+			final boolean caseInsensitive
+		) {
+			this.lines = lines;
+			this.keyColumnNumbers = keyColumnNumbers;
+			this.left = left;
+			// Normalized WBEM paths are already folded
+			this.foldCase = caseInsensitive && !wbemKeyType;
+			this.normalizedKeys = wbemKeyType ? new String[lines.size() * keyColumnNumbers.length] : null;
+		}
+
+		/**
+		 * Check that a table is sorted by its key, and count its rows
+		 *
+		 * @param table
+		 *             The table
+		 * @param keyColumnNumbers
+		 *             The numbers of the key columns
+		 * @param left
+		 *             Whether this is the left table (whose rows are valid under the conditions of
+		 *             {@link TableJoin#isValidLeftLine(int[], List)}) or the right table (whose rows are valid when they
+		 *             have all the key columns)
+		 * @param wbemKeyType
+		 *             Whether the key is in the form of a WBEM path
+		 * @param caseInsensitive
+		 *             Whether the matching is done case insensitive
+		 * @param wbemKeyMemo
+		 *             The memo of the normalized WBEM paths, or <code>null</code>
+		 * @param stats
+		 *             Where the invalid left rows and the right rows (ignored, duplicate) are counted, and the time
+		 *             spent normalizing the WBEM paths is collected, or <code>null</code>
+		 * @return the sorted table, or <code>null</code> as soon as a row is found out of order
+		 */
+		static SortedTable check(
+			final List<List<String>> table,
+			final int[] keyColumnNumbers,
+			final boolean left,
+			final boolean wbemKeyType,
+			final boolean caseInsensitive,
+			final WbemKeyMemo wbemKeyMemo,
+			final JoinStats stats
+		) {
+			final SortedTable sortedTable = new SortedTable(
+				table instanceof RandomAccess ? table : new ArrayList<>(table),
+				keyColumnNumbers,
+				left,
+				wbemKeyType,
+				caseInsensitive
+			);
+			int previousRow = -1;
+			for (int row = 0; row < sortedTable.lines.size(); row++) {
+				if (stats != null && !left) {
+					stats.addRightRow();
+				}
+				if (!sortedTable.isValid(row)) {
+					if (stats != null && left) {
+						stats.addInvalidLeftRow();
+					} else if (stats != null) {
+						stats.addIgnoredRightRow();
+					}
+					continue;
+				}
+				if (wbemKeyType) {
+					final long start = stats != null ? System.nanoTime() : 0;
+					sortedTable.normalize(row, caseInsensitive, wbemKeyMemo);
+					if (stats != null) {
+						stats.addWbemNormalizationNanos(System.nanoTime() - start);
+					}
+				}
+				if (previousRow >= 0) {
+					final int comparison = sortedTable.compare(previousRow, sortedTable, row);
+					if (comparison > 0) {
+						return null;
+					}
+					if (comparison == 0 && stats != null && !left) {
+						stats.addDuplicateRightRow();
+					}
+				}
+				previousRow = row;
+			}
+			return sortedTable;
+		}
+
+		private boolean isValid(final int row) {
+			final List<String> line = lines.get(row);
+			if (left) {
+				return TableJoin.isValidLeftLine(keyColumnNumbers, line);
+			}
+			for (final int keyColumnNumber : keyColumnNumbers) {
+				if (line.size() < keyColumnNumber) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @return the index of the next valid row after the given one, or the number of rows if there is none
+		 */
+		int nextValidRow(final int row) {
+			int next = row + 1;
+			while (next < lines.size() && !isValid(next)) {
+				next++;
+			}
+			return next;
+		}
+
+		private void normalize(final int row, final boolean caseInsensitive, final WbemKeyMemo wbemKeyMemo) {
+			final List<String> line = lines.get(row);
+			for (int i = 0; i < keyColumnNumbers.length; i++) {
+				normalizedKeys[row * keyColumnNumbers.length + i] = WbemKeyMemo.normalize(
+					wbemKeyMemo,
+					line.get(keyColumnNumbers[i] - 1),
+					caseInsensitive
+				);
+			}
+		}
+
+		/**
+		 * @return the (normalized) value of the <code>i</code>-th key column of a valid row
+		 */
+		private String keyValue(final int row, final int i) {
+			return normalizedKeys != null
+				? normalizedKeys[row * keyColumnNumbers.length + i]
+				: lines.get(row).get(keyColumnNumbers[i] - 1);
+		}
+
+		/**
+		 * Compare the composite key of a valid row of this table with the key of a valid row of another table (or of
+		 * this table), column by column
+		 */
+		int compare(final int row, final SortedTable other, final int otherRow) {
+			for (int i = 0; i < keyColumnNumbers.length; i++) {
+				final int comparison = Keys.compare(keyValue(row, i), other.keyValue(otherRow, i), foldCase);
+				if (comparison != 0) {
+					return comparison;
+				}
+			}
+			return 0;
+		}
+	}
+}
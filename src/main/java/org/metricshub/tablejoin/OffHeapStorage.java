@@ -0,0 +1,480 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Entries of a {@link JoinIndex} stored outside of the heap, in direct {@link ByteBuffer}s, so that the garbage
+ * collector never has to scan them (see {@link JoinIndex#offHeap()}).
+ * <p>
+ * Each entry (the normalized key, then the right line) is serialized in a segment of the data, its strings as UTF-16
+ * characters, so that the keys are compared character by character without being decoded. The slots of the
+ * open-addressing hash table, also in a direct {@link ByteBuffer}, hold the hash of each key and the position of its
+ * entry. The right lines are decoded into new lists at each lookup.
+ * <p>
+ * The lookups hold a read lock, so that {@link #close()} can free the memory of the buffers as soon as the lookups in
+ * progress are done, without waiting for the garbage collector.
+ *
+ */
+final class OffHeapStorage implements Closeable {
+
+	/**
+	 * Size of a slot: the hash of the key, the segment of the entry (plus 1, so that 0 is an empty slot) and the
+	 * offset of the entry in its segment
+	 */
+	private static final int SLOT_SIZE = 12;
+
+	/**
+	 * Maximum number of slots, so that the slots fit in a single {@link ByteBuffer}
+	 */
+	private static final int MAX_CAPACITY = 1 << 27;
+
+	/**
+	 * Minimum size of a segment of the data, in bytes
+	 */
+	private static final int SEGMENT_SIZE = 1 << 20;
+
+	/**
+	 * The length of a <code>null</code> string
+	 */
+	private static final int NULL_LENGTH = -1;
+
+	/**
+	 * Frees the memory of a direct {@link ByteBuffer}, or <code>null</code> if the JVM doesn't expose a way to do it
+	 */
+	private static final Deallocator DEALLOCATOR = deallocator();
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private ByteBuffer slots;
+	private ByteBuffer[] segments;
+	/**
+	 * The segments seen as UTF-16 characters, to decode the strings in bulk
+	 */
+	private CharBuffer[] characters;
+	private final boolean foldCase;
+
+	private OffHeapStorage(final Builder builder) {
+		this.slots = builder.slots;
+		this.segments = builder.segments.toArray(new ByteBuffer[0]);
+		this.characters = new CharBuffer[segments.length];
+		for (int i = 0; i < segments.length; i++) {
+			// The strings start at even offsets (all the serialized values have an even size)
+			final ByteBuffer segment = segments[i].duplicate().order(ByteOrder.nativeOrder());
+			segment.clear();
+			characters[i] = segment.asCharBuffer();
+		}
+		this.foldCase = builder.foldCase;
+	}
+
+	/**
+	 * Find the right line of a single-column key
+	 *
+	 * @param hash
+	 *             The hash of the key
+	 * @param normalizedKey
+	 *             The normalized key
+	 * @return the matching right line (decoded), or <code>null</code> if there is none
+	 * @throws IllegalStateException
+	 *             When this storage has been closed
+	 */
+	List<String> find(final int hash, final String normalizedKey) throws IllegalStateException {
+		final Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			checkOpen();
+			final int mask = slots.capacity() / SLOT_SIZE - 1;
+			int slot = Keys.mix(hash) & mask;
+			int segment;
+			while ((segment = slots.getInt(slot * SLOT_SIZE + 4)) != 0) {
+				if (slots.getInt(slot * SLOT_SIZE) == hash) {
+					final ByteBuffer entry = segments[segment - 1];
+					final int offset = slots.getInt(slot * SLOT_SIZE + 8);
+
+					// The count of key values (1) is skipped
+					final int lineOffset = skipEqual(entry, offset + 4, normalizedKey);
+					if (lineOffset >= 0) {
+						return readLine(entry, characters[segment - 1], lineOffset);
+					}
+				}
+				slot = (slot + 1) & mask;
+			}
+			return null;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Find the right line of a composite key
+	 *
+	 * @param hash
+	 *             The hash of the composite key
+	 * @param normalizedKey
+	 *             The normalized values of the key, or <code>null</code> to use the values of the left line directly
+	 * @param leftLine
+	 *             The left line
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the key columns in the left line
+	 * @return the matching right line (decoded), or <code>null</code> if there is none
+	 * @throws IllegalStateException
+	 *             When this storage has been closed
+	 */
+	List<String> findComposite(
+		final int hash,
+		final String[] normalizedKey,
+		final List<String> leftLine,
+		final int[] leftKeyColumnNumbers
+	) throws IllegalStateException {
+		final Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			checkOpen();
+			final int mask = slots.capacity() / SLOT_SIZE - 1;
+			int slot = Keys.mix(hash) & mask;
+			int segment;
+			while ((segment = slots.getInt(slot * SLOT_SIZE + 4)) != 0) {
+				if (slots.getInt(slot * SLOT_SIZE) == hash) {
+					final ByteBuffer entry = segments[segment - 1];
+					int offset = slots.getInt(slot * SLOT_SIZE + 8);
+					final int valueCount = entry.getInt(offset);
+					offset += 4;
+					for (int i = 0; offset >= 0 && i < valueCount; i++) {
+						final String value = normalizedKey != null
+							? normalizedKey[i]
+							: leftLine.get(leftKeyColumnNumbers[i] - 1);
+						offset = skipEqual(entry, offset, value);
+					}
+					if (offset >= 0) {
+						return readLine(entry, characters[segment - 1], offset);
+					}
+				}
+				slot = (slot + 1) & mask;
+			}
+			return null;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Add the hash of each key to the given Bloom filter
+	 *
+	 * @throws IllegalStateException
+	 *             When this storage has been closed
+	 */
+	void addHashes(final BloomFilter bloomFilter) throws IllegalStateException {
+		final Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			checkOpen();
+			for (int position = 0; position < slots.capacity(); position += SLOT_SIZE) {
+				if (slots.getInt(position + 4) != 0) {
+					bloomFilter.add(slots.getInt(position));
+				}
+			}
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Free the off-heap memory of this storage, once the lookups in progress are done. When the JVM doesn't expose a
+	 * way to free a direct {@link ByteBuffer}, the memory is freed as soon as the (small) {@link ByteBuffer} objects are
+	 * collected, even if this storage is still referenced.
+	 */
+	@Override
+	public void close() {
+		final Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			if (slots == null) {
+				return;
+			}
+			free(slots);
+			for (final ByteBuffer segment : segments) {
+				free(segment);
+			}
+			slots = null;
+			segments = null;
+			characters = null;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * @return whether this storage has been closed
+	 */
+	boolean isClosed() {
+		final Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return slots == null;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             When this storage has been closed (the read lock must be held)
+	 */
+	private void checkOpen() throws IllegalStateException {
+		if (slots == null) {
+			throw new IllegalStateException("The off-heap index has been closed");
+		}
+	}
+
+	/**
+	 * Free the memory of a direct buffer, which must not be used anymore (nor any of its views)
+	 */
+	private static void free(final ByteBuffer buffer) {
+		if (DEALLOCATOR == null) {
+			return;
+		}
+		try {
+			DEALLOCATOR.free(buffer);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// The memory will be freed when the buffer is collected
+		}
+	}
+
+	/**
+	 * @return the way to free the memory of a direct buffer exposed by this JVM: <code>Unsafe.invokeCleaner()</code>
+	 * (Java 9+) or the <code>Cleaner</code> of the buffer (Java 8), or <code>null</code> if none is accessible
+	 */
+	private static Deallocator deallocator() {
+		try {
+			final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			final Object unsafe = theUnsafe.get(null);
+			return buffer -> invokeCleaner.invoke(unsafe, buffer);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// Not Java 9+
+		}
+		try {
+			final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+			final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+			return buffer -> {
+				final Object bufferCleaner = cleaner.invoke(buffer);
+				if (bufferCleaner != null) {
+					clean.invoke(bufferCleaner);
+				}
+			};
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Compare the string serialized at the given offset with the given value
+	 *
+	 * @return the offset after the serialized string if it is equal to the value, -1 otherwise
+	 */
+	private int skipEqual(final ByteBuffer segment, final int offset, final String value) {
+		final int length = segment.getInt(offset);
+		if (length == NULL_LENGTH || value == null) {
+			return length == NULL_LENGTH && value == null ? offset + 4 : -1;
+		}
+		if (length != value.length()) {
+			return -1;
+		}
+		final int start = offset + 4;
+		for (int i = 0; i < length; i++) {
+			final char c1 = segment.getChar(start + 2 * i);
+			final char c2 = value.charAt(i);
+			if (c1 != c2 && (!foldCase || Keys.fold(c1) != Keys.fold(c2))) {
+				return -1;
+			}
+		}
+		return start + 2 * length;
+	}
+
+	/**
+	 * Decode the line serialized at the given offset, each cell with a bulk copy of its characters
+	 *
+	 * @param segment
+	 *             The segment of the line
+	 * @param segmentCharacters
+	 *             The same segment, seen as UTF-16 characters
+	 * @param offset
+	 *             The offset of the line in the segment
+	 */
+	private static List<String> readLine(final ByteBuffer segment, final CharBuffer segmentCharacters, final int offset) {
+		final int cellCount = segment.getInt(offset);
+		final List<String> line = new ArrayList<>(cellCount);
+
+		// A view of its own, as the bulk reads move its position, and a buffer reused by the cells of the line
+		final CharBuffer view = segmentCharacters.duplicate();
+		char[] chars = new char[0];
+		int position = offset + 4;
+		for (int cell = 0; cell < cellCount; cell++) {
+			final int length = segment.getInt(position);
+			position += 4;
+			if (length == NULL_LENGTH) {
+				line.add(null);
+			} else {
+				if (chars.length < length) {
+					chars = new char[Math.max(length, 2 * chars.length)];
+				}
+				view.position(position / 2);
+				view.get(chars, 0, length);
+				line.add(new String(chars, 0, length));
+				position += 2 * length;
+			}
+		}
+		return line;
+	}
+
+	/**
+	 * Frees the memory of a direct {@link ByteBuffer}
+	 */
+	@FunctionalInterface
+	private interface Deallocator {
+		void free(ByteBuffer buffer) throws ReflectiveOperationException;
+	}
+
+	/**
+	 * Builds an {@link OffHeapStorage} entry by entry. The keys must be distinct.
+	 */
+	static final class Builder {
+
+		private final ByteBuffer slots;
+		private final List<ByteBuffer> segments = new ArrayList<>();
+		private final boolean foldCase;
+		private ByteBuffer segment;
+
+		/**
+		 * @param keyCount
+		 *             The number of entries that will be added
+		 * @param foldCase
+		 *             Whether the case of the keys is folded when they are compared
+		 * @throws IllegalStateException
+		 *             When there are too many entries to fit in the slots of a single buffer
+		 */
+		Builder(final int keyCount, final boolean foldCase) throws IllegalStateException {
+			// Keep the load factor under 50%, like the heap index
+			int capacity = 16;
+			while (capacity < 2L * keyCount) {
+				capacity <<= 1;
+			}
+			if (capacity > MAX_CAPACITY) {
+				throw new IllegalStateException("Too many keys to be stored off-heap (keyCount=" + keyCount + ")");
+			}
+			this.slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE).order(ByteOrder.nativeOrder());
+			this.foldCase = foldCase;
+		}
+
+		/**
+		 * Add an entry
+		 *
+		 * @param hash
+		 *             The hash of the key, as computed by {@link JoinIndex}
+		 * @param key
+		 *             A {@link String} for a single-column key, a {@link String} array for a composite key
+		 * @param line
+		 *             The right line of the key
+		 */
+		void add(final int hash, final Object key, final List<String> line) {
+			final String[] values = key instanceof String ? new String[] { (String) key } : (String[]) key;
+			int size = 8;
+			for (final String value : values) {
+				size += sizeOf(value);
+			}
+			for (final String cell : line) {
+				size += sizeOf(cell);
+			}
+			if (segment == null || segment.remaining() < size) {
+				segment = ByteBuffer.allocateDirect(Math.max(SEGMENT_SIZE, size)).order(ByteOrder.nativeOrder());
+				segments.add(segment);
+			}
+
+			final int mask = slots.capacity() / SLOT_SIZE - 1;
+			int slot = Keys.mix(hash) & mask;
+			while (slots.getInt(slot * SLOT_SIZE + 4) != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots.putInt(slot * SLOT_SIZE, hash);
+			slots.putInt(slot * SLOT_SIZE + 4, segments.size());
+			slots.putInt(slot * SLOT_SIZE + 8, segment.position());
+
+			segment.putInt(values.length);
+			for (final String value : values) {
+				putString(value);
+			}
+			segment.putInt(line.size());
+			for (final String cell : line) {
+				putString(cell);
+			}
+		}
+
+		/**
+		 * @return the number of bytes of a serialized string
+		 */
+		private static int sizeOf(final String value) {
+			return value == null ? 4 : 4 + 2 * value.length();
+		}
+
+		private void putString(final String value) {
+			if (value == null) {
+				segment.putInt(NULL_LENGTH);
+				return;
+			}
+			segment.putInt(value.length());
+			for (int i = 0; i < value.length(); i++) {
+				segment.putChar(value.charAt(i));
+			}
+		}
+
+		/**
+		 * Replace the last segment with an exact copy of its used bytes, so that small indexes don't take a whole
+		 * segment
+		 */
+		private void trimSegment() {
+			if (segment == null || segment.remaining() == 0) {
+				return;
+			}
+			segment.flip();
+			final ByteBuffer trimmed = ByteBuffer.allocateDirect(segment.limit()).order(ByteOrder.nativeOrder());
+			trimmed.put(segment);
+			free(segment);
+			segments.set(segments.size() - 1, trimmed);
+			segment = trimmed;
+		}
+
+		OffHeapStorage build() {
+			trimSegment();
+			return new OffHeapStorage(this);
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The columns of the left and right tables that are kept in the result of a JOIN operation (in the given order).
+ * <p>
+ * The resulting rows only hold the projected cells: the left cells, then the right cells (or the default right line,
+ * which is already projected). A projected column that a row doesn't have results in an empty cell, so that all the
+ * resulting rows have the same columns. When the tables are parsed, the cells of the columns that are neither
+ * projected nor used as key are skipped, without creating any {@link String}.
+ *
+ */
+final class Projection {
+
+	/**
+	 * The projected columns of the left table, or <code>null</code> to keep all of them
+	 */
+	private final int[] leftColumnNumbers;
+
+	/**
+	 * The projected columns of the right table, or <code>null</code> to keep all of them
+	 */
+	private final int[] rightColumnNumbers;
+
+	private Projection(final int[] leftColumnNumbers, final int[] rightColumnNumbers) {
+		this.leftColumnNumbers = leftColumnNumbers;
+		this.rightColumnNumbers = rightColumnNumbers;
+	}
+
+	/**
+	 * Create the projection of the given columns
+	 *
+	 * @param leftColumnNumbers
+	 *             The numbers of the columns of the left table that are kept, or <code>null</code> to keep all of them
+	 * @param rightColumnNumbers
+	 *             The numbers of the columns of the right table that are kept, or <code>null</code> to keep all of them
+	 * @return a new {@link Projection}, or <code>null</code> if all the columns are kept
+	 * @throws IllegalArgumentException
+	 *             When no column is projected at all, or one of the column numbers is lower than 1
+	 */
+	static Projection of(final int[] leftColumnNumbers, final int[] rightColumnNumbers)
+		throws IllegalArgumentException {
+		if (leftColumnNumbers == null && rightColumnNumbers == null) {
+			return null;
+		}
+		if (
+			leftColumnNumbers != null &&
+			leftColumnNumbers.length == 0 &&
+			rightColumnNumbers != null &&
+			rightColumnNumbers.length == 0
+		) {
+			throw new IllegalArgumentException("At least one column must be projected");
+		}
+		return new Projection(checkColumnNumbers(leftColumnNumbers), checkColumnNumbers(rightColumnNumbers));
+	}
+
+	/**
+	 * Check the given column numbers
+	 *
+	 * @return a copy of the column numbers
+	 * @throws IllegalArgumentException
+	 *             When one of the column numbers is lower than 1
+	 */
+	private static int[] checkColumnNumbers(final int[] columnNumbers) throws IllegalArgumentException {
+		if (columnNumbers == null) {
+			return null;
+		}
+		for (final int columnNumber : columnNumbers) {
+			if (columnNumber < 1) {
+				throw new IllegalArgumentException("Invalid projected column number (columnNumber=" + columnNumber + ")");
+			}
+		}
+		return columnNumbers.clone();
+	}
+
+	/**
+	 * Project the left line and the right line
+	 *
+	 * @param leftLine
+	 *             The left line
+	 * @param rightLine
+	 *             The matching right line, or the default right line
+	 * @param projectRightLine
+	 *             Whether the right line is projected (<code>false</code> for the default right line)
+	 * @return a new line, with the projected cells of both lines
+	 */
+	List<String> concat(final List<String> leftLine, final List<String> rightLine, final boolean projectRightLine) {
+		final int[] rightColumns = projectRightLine ? rightColumnNumbers : null;
+		final List<String> line = new ArrayList<>(size(leftLine, leftColumnNumbers) + size(rightLine, rightColumns));
+		addCells(line, leftLine, leftColumnNumbers);
+		addCells(line, rightLine, rightColumns);
+		return line;
+	}
+
+	/**
+	 * @return the number of projected cells of the given line
+	 */
+	private static int size(final List<String> line, final int[] columnNumbers) {
+		return columnNumbers != null ? columnNumbers.length : line.size();
+	}
+
+	/**
+	 * Add the projected cells of the given line (empty for the columns that the line doesn't have)
+	 */
+	private static void addCells(final List<String> target, final List<String> line, final int[] columnNumbers) {
+		if (columnNumbers == null) {
+			target.addAll(line);
+			return;
+		}
+		final int size = line.size();
+		for (final int columnNumber : columnNumbers) {
+			target.add(columnNumber <= size ? line.get(columnNumber - 1) : "");
+		}
+	}
+
+	/**
+	 * @param keyColumnNumbers
+	 *             The numbers of the key columns of the left table
+	 * @param rowFilter
+	 *             The filter of the rows of the left table, or <code>null</code>
+	 * @return which columns of the left table must be parsed, or <code>null</code> if all of them must be parsed
+	 * @see CsvTokenizer#parseTable(CharSequence, boolean[], java.util.function.Predicate)
+	 */
+	boolean[] getLeftParsedColumns(final int[] keyColumnNumbers, final RowFilter rowFilter) {
+		return parsedColumns(leftColumnNumbers, keyColumnNumbers, rowFilter);
+	}
+
+	/**
+	 * @param keyColumnNumbers
+	 *             The numbers of the key columns of the right table
+	 * @param rowFilter
+	 *             The filter of the rows of the right table, or <code>null</code>
+	 * @return which columns of the right table must be parsed, or <code>null</code> if all of them must be parsed
+	 * @see CsvTokenizer#parseTable(CharSequence, boolean[], java.util.function.Predicate)
+	 */
+	boolean[] getRightParsedColumns(final int[] keyColumnNumbers, final RowFilter rowFilter) {
+		return parsedColumns(rightColumnNumbers, keyColumnNumbers, rowFilter);
+	}
+
+	/**
+	 * Compute which columns of a table must be parsed
+	 *
+	 * @param columnNumbers
+	 *             The numbers of the projected columns, or <code>null</code> if all the columns are projected
+	 * @param keyColumnNumbers
+	 *             The numbers of the key columns
+	 * @param rowFilter
+	 *             The filter of the rows, or <code>null</code>
+	 * @return the projected columns, the key columns and the filtered column, indexed by column number - 1, or
+	 * <code>null</code> if all the columns must be parsed
+	 * @see CsvTokenizer#parseTable(CharSequence, boolean[], java.util.function.Predicate)
+	 */
+	static boolean[] parsedColumns(
+		final int[] columnNumbers,
+		final int[] keyColumnNumbers,
+		final RowFilter rowFilter
+	) {
+		if (columnNumbers == null) {
+			return null;
+		}
+		int max = rowFilter != null ? rowFilter.getColumnNumber() : 0;
+		for (final int columnNumber : columnNumbers) {
+			max = Math.max(max, columnNumber);
+		}
+		for (final int keyColumnNumber : keyColumnNumbers) {
+			max = Math.max(max, keyColumnNumber);
+		}
+		final boolean[] parsedColumns = new boolean[max];
+		for (final int columnNumber : columnNumbers) {
+			parsedColumns[columnNumber - 1] = true;
+		}
+		for (final int keyColumnNumber : keyColumnNumbers) {
+			parsedColumns[keyColumnNumber - 1] = true;
+		}
+		if (rowFilter != null) {
+			parsedColumns[rowFilter.getColumnNumber() - 1] = true;
+		}
+		return parsedColumns;
+	}
+}
@@ -0,0 +1,197 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Condition on one column of a row, applied to the rows of a table before they are joined, so that the rejected rows
+ * are never indexed, looked up nor copied.
+ * <p>
+ * A row that doesn't have the column is tested as if the cell was empty. Instances are immutable and thread-safe,
+ * and can be created from a specification, e.g. for a CSV table whose status is in the 3rd column:
+ * <ul>
+ * <li><code>3=OK</code>: the cell is equal to <code>OK</code></li>
+ * <li><code>3!=OK</code>: the cell is not equal to <code>OK</code></li>
+ * <li><code>3~^(OK|Degraded)$</code>: the regular expression is found in the cell</li>
+ * <li><code>3!~^(OK|Degraded)$</code>: the regular expression is not found in the cell</li>
+ * </ul>
+ *
+ */
+public final class RowFilter implements Predicate<List<String>> {
+
+	/**
+	 * How the cell is compared with the value
+	 */
+	private enum Operator {
+		EQUAL_TO("="),
+		NOT_EQUAL_TO("!="),
+		MATCHES("~"),
+		NOT_MATCHES("!~");
+
+		private final String symbol;
+
+		Operator(final String symbol) {
+			this.symbol = symbol;
+		}
+	}
+
+	private final int columnNumber;
+	private final Operator operator;
+	private final String value;
+	private final Pattern pattern;
+
+	private RowFilter(final int columnNumber, final Operator operator, final String value)
+		throws IllegalArgumentException {
+		if (columnNumber < 1) {
+			throw new IllegalArgumentException("Invalid column number (columnNumber=" + columnNumber + ")");
+		}
+		if (value == null) {
+			throw new IllegalArgumentException("Value cannot be null");
+		}
+		this.columnNumber = columnNumber;
+		this.operator = operator;
+		this.value = value;
+		if (operator == Operator.MATCHES || operator == Operator.NOT_MATCHES) {
+			try {
+				this.pattern = Pattern.compile(value);
+			} catch (PatternSyntaxException e) {
+				throw new IllegalArgumentException("Invalid regular expression: " + value, e);
+			}
+		} else {
+			this.pattern = null;
+		}
+	}
+
+	/**
+	 * @param columnNumber
+	 *             The number of the tested column
+	 * @param value
+	 *             The value the cell must be equal to
+	 * @return a new {@link RowFilter}
+	 * @throws IllegalArgumentException
+	 *             When columnNumber is lower than 1, or value is <code>null</code>
+	 */
+	public static RowFilter equalTo(final int columnNumber, final String value) throws IllegalArgumentException {
+		return new RowFilter(columnNumber, Operator.EQUAL_TO, value);
+	}
+
+	/**
+	 * @param columnNumber
+	 *             The number of the tested column
+	 * @param value
+	 *             The value the cell must not be equal to
+	 * @return a new {@link RowFilter}
+	 * @throws IllegalArgumentException
+	 *             When columnNumber is lower than 1, or value is <code>null</code>
+	 */
+	public static RowFilter notEqualTo(final int columnNumber, final String value) throws IllegalArgumentException {
+		return new RowFilter(columnNumber, Operator.NOT_EQUAL_TO, value);
+	}
+
+	/**
+	 * @param columnNumber
+	 *             The number of the tested column
+	 * @param regex
+	 *             The regular expression that must be found in the cell
+	 * @return a new {@link RowFilter}
+	 * @throws IllegalArgumentException
+	 *             When columnNumber is lower than 1, or regex is <code>null</code> or invalid
+	 */
+	public static RowFilter matches(final int columnNumber, final String regex) throws IllegalArgumentException {
+		return new RowFilter(columnNumber, Operator.MATCHES, regex);
+	}
+
+	/**
+	 * @param columnNumber
+	 *             The number of the tested column
+	 * @param regex
+	 *             The regular expression that must not be found in the cell
+	 * @return a new {@link RowFilter}
+	 * @throws IllegalArgumentException
+	 *             When columnNumber is lower than 1, or regex is <code>null</code> or invalid
+	 */
+	public static RowFilter notMatches(final int columnNumber, final String regex) throws IllegalArgumentException {
+		return new RowFilter(columnNumber, Operator.NOT_MATCHES, regex);
+	}
+
+	/**
+	 * Create a {@link RowFilter} from its specification: the column number, the operator (<code>=</code>,
+	 * <code>!=</code>, <code>~</code> or <code>!~</code>) and the value, e.g. <code>3!=OK</code>
+	 *
+	 * @param specification
+	 *             The specification of the filter
+	 * @return a new {@link RowFilter}
+	 * @throws IllegalArgumentException
+	 *             When the specification is <code>null</code> or invalid
+	 */
+	public static RowFilter parse(final String specification) throws IllegalArgumentException {
+		if (specification == null) {
+			throw new IllegalArgumentException("Row filter specification cannot be null");
+		}
+		int i = 0;
+		while (i < specification.length() && Character.isDigit(specification.charAt(i))) {
+			i++;
+		}
+		if (i > 0 && i < 10) {
+			final int columnNumber = Integer.parseInt(specification.substring(0, i));
+			for (final Operator operator : Operator.values()) {
+				if (specification.startsWith(operator.symbol, i)) {
+					return new RowFilter(columnNumber, operator, specification.substring(i + operator.symbol.length()));
+				}
+			}
+		}
+		throw new IllegalArgumentException("Invalid row filter specification: " + specification);
+	}
+
+	/**
+	 * @return the number of the tested column
+	 */
+	public int getColumnNumber() {
+		return columnNumber;
+	}
+
+	@Override
+	public boolean test(final List<String> row) {
+		final String cell = columnNumber <= row.size() ? row.get(columnNumber - 1) : "";
+		switch (operator) {
+			case EQUAL_TO:
+				return value.equals(cell);
+			case NOT_EQUAL_TO:
+				return !value.equals(cell);
+			case MATCHES:
+				return pattern.matcher(cell).find();
+			default:
+				return !pattern.matcher(cell).find();
+		}
+	}
+
+	/**
+	 * @return the specification of this filter (see {@link #parse(String)})
+	 */
+	@Override
+	public String toString() {
+		return columnNumber + operator.symbol + value;
+	}
+}
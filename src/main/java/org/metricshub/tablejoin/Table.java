@@ -0,0 +1,405 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact, immutable table of text cells.
+ * <p>
+ * Where a <code>List&lt;List&lt;String&gt;&gt;</code> costs one {@link List} per row and one {@link String} per cell,
+ * a {@link Table} keeps all its cells one after the other in a single <code>char</code> buffer, with an
+ * <code>int</code> offset per cell and per row to locate them. The cells are exposed as {@link CharSequence} views
+ * of that buffer: no {@link String} is created unless explicitly asked for.
+ * <p>
+ * Rows and cells are numbered from 0, like in a {@link List}.
+ *
+ */
+public final class Table {
+
+	private final char[] buffer;
+
+	/**
+	 * Cell i is <code>buffer[cellOffsets[i], cellOffsets[i + 1])</code>
+	 */
+	private final int[] cellOffsets;
+
+	/**
+	 * Row r is made of the cells <code>[rowOffsets[r], rowOffsets[r + 1])</code>
+	 */
+	private final int[] rowOffsets;
+
+	private Table(final char[] buffer, final int[] cellOffsets, final int[] rowOffsets) {
+		this.buffer = buffer;
+		this.cellOffsets = cellOffsets;
+		this.rowOffsets = rowOffsets;
+	}
+
+	/**
+	 * Parse a CSV table, like {@link TableJoin#stringToTable(String, String)} does
+	 *
+	 * @param csvTable
+	 *             The CSV text (entries are separated by end-of-lines \n, empty lines are discarded)
+	 * @param separator
+	 *             The columns separator
+	 * @return a new {@link Table}
+	 * @throws IllegalArgumentException
+	 *             When csvTable or separator is <code>null</code>
+	 */
+	public static Table fromCsv(final CharSequence csvTable, final String separator) throws IllegalArgumentException {
+		if (csvTable == null) {
+			throw new IllegalArgumentException("CSV table cannot be null");
+		}
+		if (separator == null) {
+			throw new IllegalArgumentException("Separator cannot be null");
+		}
+		// The cells can never be longer than the CSV text itself
+		final Builder builder = new Builder(csvTable.length());
+		new CsvTokenizer(separator).parseTable(csvTable, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Copy a <code>List&lt;List&lt;String&gt;&gt;</code> table. <code>null</code> rows are ignored, <code>null</code>
+	 * cells are copied as empty cells.
+	 *
+	 * @param table
+	 *             The table to copy
+	 * @return a new {@link Table}
+	 * @throws IllegalArgumentException
+	 *             When table is <code>null</code>
+	 */
+	public static Table fromList(final List<List<String>> table) throws IllegalArgumentException {
+		if (table == null) {
+			throw new IllegalArgumentException("Table cannot be null");
+		}
+		final Builder builder = builder();
+		for (final List<String> row : table) {
+			if (row != null) {
+				for (final String cell : row) {
+					builder.addCell(cell != null ? cell : "");
+				}
+				builder.endRow();
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return a new {@link Builder}, to create a {@link Table} row by row
+	 */
+	public static Builder builder() {
+		return new Builder(256);
+	}
+
+	/**
+	 * @return the number of rows
+	 */
+	public int getRowCount() {
+		return rowOffsets.length - 1;
+	}
+
+	/**
+	 * @param row
+	 *             The row number (from 0)
+	 * @return the number of cells in the given row
+	 * @throws IndexOutOfBoundsException
+	 *             When the row doesn't exist
+	 */
+	public int getCellCount(final int row) {
+		checkRow(row);
+		return rowOffsets[row + 1] - rowOffsets[row];
+	}
+
+	/**
+	 * @param row
+	 *             The row number (from 0)
+	 * @param cell
+	 *             The cell number in the row (from 0)
+	 * @return a view of the cell (its {@link Object#toString()} method creates a {@link String})
+	 * @throws IndexOutOfBoundsException
+	 *             When the cell doesn't exist
+	 */
+	public CharSequence getCell(final int row, final int cell) {
+		final int index = cellIndex(row, cell);
+		return new CellView(cellOffsets[index], cellOffsets[index + 1]);
+	}
+
+	/**
+	 * @param row
+	 *             The row number (from 0)
+	 * @return a copy of the given row, as a {@link List} of {@link String} values
+	 * @throws IndexOutOfBoundsException
+	 *             When the row doesn't exist
+	 */
+	public List<String> getRow(final int row) {
+		checkRow(row);
+		final int from = rowOffsets[row];
+		final int to = rowOffsets[row + 1];
+		final List<String> line = new ArrayList<>(to - from);
+		for (int index = from; index < to; index++) {
+			line.add(new String(buffer, cellOffsets[index], cellOffsets[index + 1] - cellOffsets[index]));
+		}
+		return line;
+	}
+
+	/**
+	 * @return a copy of this table, as a {@link List} of rows, each row being a {@link List} of {@link String} values
+	 */
+	public List<List<String>> toList() {
+		final int rowCount = getRowCount();
+		final List<List<String>> table = new ArrayList<>(rowCount);
+		for (int row = 0; row < rowCount; row++) {
+			table.add(getRow(row));
+		}
+		return table;
+	}
+
+	/**
+	 * Format this table as CSV, exactly like {@link TableJoin#tableToString(List, String)} does
+	 *
+	 * @param separator
+	 *             The columns separator (appended to each cell)
+	 * @return the CSV text (rows are separated by end-of-lines \n)
+	 */
+	public String toCsv(final String separator) {
+		final int cellCount = cellOffsets.length - 1;
+		final StringBuilder csv = new StringBuilder(
+			cellOffsets[cellCount] + cellCount * separator.length() + getRowCount()
+		);
+		final int rowCount = getRowCount();
+		for (int row = 0; row < rowCount; row++) {
+			if (row > 0) {
+				csv.append('\n');
+			}
+			for (int index = rowOffsets[row]; index < rowOffsets[row + 1]; index++) {
+				csv.append(buffer, cellOffsets[index], cellOffsets[index + 1] - cellOffsets[index]).append(separator);
+			}
+			// A row is always terminated by the separator, even without any cell
+			if (rowOffsets[row] == rowOffsets[row + 1]) {
+				csv.append(separator);
+			}
+		}
+		return csv.toString();
+	}
+
+	/**
+	 * @return the index of the first character of the given cell in the buffer
+	 */
+	int cellStart(final int row, final int cell) {
+		return cellOffsets[cellIndex(row, cell)];
+	}
+
+	/**
+	 * @return the index after the last character of the given cell in the buffer
+	 */
+	int cellEnd(final int row, final int cell) {
+		return cellOffsets[cellIndex(row, cell) + 1];
+	}
+
+	/**
+	 * @return the backing buffer of this table (not to be modified)
+	 */
+	char[] buffer() {
+		return buffer;
+	}
+
+	private int cellIndex(final int row, final int cell) {
+		checkRow(row);
+		final int index = rowOffsets[row] + cell;
+		if (cell < 0 || index >= rowOffsets[row + 1]) {
+			throw new IndexOutOfBoundsException("Invalid cell (row=" + row + ", cell=" + cell + ")");
+		}
+		return index;
+	}
+
+	private void checkRow(final int row) {
+		if (row < 0 || row >= getRowCount()) {
+			throw new IndexOutOfBoundsException("Invalid row (row=" + row + ")");
+		}
+	}
+
+	/**
+	 * Read-only view of a region of the buffer
+	 */
+	private final class CellView implements CharSequence {
+
+		private final int start;
+		private final int end;
+
+		private CellView(final int start, final int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public int length() {
+			return end - start;
+		}
+
+		@Override
+		public char charAt(final int index) {
+			if (index < 0 || index >= end - start) {
+				throw new IndexOutOfBoundsException("Invalid index (index=" + index + ")");
+			}
+			return buffer[start + index];
+		}
+
+		@Override
+		public CharSequence subSequence(final int from, final int to) {
+			if (from < 0 || to > end - start || from > to) {
+				throw new IndexOutOfBoundsException("Invalid range (from=" + from + ", to=" + to + ")");
+			}
+			return new CellView(start + from, start + to);
+		}
+
+		@Override
+		public String toString() {
+			return new String(buffer, start, end - start);
+		}
+	}
+
+	/**
+	 * Builds a {@link Table} row by row: the cells of a row are added one by one, then the row is ended.
+	 */
+	public static final class Builder {
+
+		private char[] buffer;
+		private int length;
+		private int[] cellOffsets = new int[64];
+		private int cellCount;
+		private int[] rowOffsets = new int[16];
+		private int rowCount;
+		private boolean rowStarted;
+
+		private Builder(final int capacity) {
+			this.buffer = new char[Math.max(capacity, 16)];
+		}
+
+		/**
+		 * Add a cell to the current row
+		 *
+		 * @param cell
+		 *             The value of the cell
+		 * @return this builder
+		 */
+		public Builder addCell(final CharSequence cell) {
+			return addCell(cell, 0, cell.length());
+		}
+
+		/**
+		 * Add a region of a text as a cell of the current row
+		 *
+		 * @param text
+		 *             The text
+		 * @param start
+		 *             Index of the first character of the cell
+		 * @param end
+		 *             Index after the last character of the cell
+		 * @return this builder
+		 */
+		public Builder addCell(final CharSequence text, final int start, final int end) {
+			ensureCapacity(end - start);
+			if (text instanceof String) {
+				((String) text).getChars(start, end, buffer, length);
+				length += end - start;
+			} else {
+				for (int i = start; i < end; i++) {
+					buffer[length++] = text.charAt(i);
+				}
+			}
+			return endCell();
+		}
+
+		/**
+		 * Copy a cell of another table to the current row
+		 *
+		 * @param table
+		 *             The source table
+		 * @param row
+		 *             The row of the cell in the source table
+		 * @param cell
+		 *             The number of the cell in the row
+		 * @return this builder
+		 */
+		Builder addCell(final Table table, final int row, final int cell) {
+			final int start = table.cellStart(row, cell);
+			final int cellLength = table.cellEnd(row, cell) - start;
+			ensureCapacity(cellLength);
+			System.arraycopy(table.buffer, start, buffer, length, cellLength);
+			length += cellLength;
+			return endCell();
+		}
+
+		/**
+		 * End the current row (which may have no cell at all)
+		 *
+		 * @return this builder
+		 */
+		public Builder endRow() {
+			if (rowCount + 2 > rowOffsets.length) {
+				rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+			}
+			rowOffsets[++rowCount] = cellCount;
+			rowStarted = false;
+			return this;
+		}
+
+		/**
+		 * @return whether cells have been added since the last row was ended
+		 */
+		boolean isRowStarted() {
+			return rowStarted;
+		}
+
+		/**
+		 * @return the new {@link Table} (the current row is ended first if it has cells)
+		 */
+		public Table build() {
+			if (rowStarted) {
+				endRow();
+			}
+			return new Table(
+				Arrays.copyOf(buffer, length),
+				Arrays.copyOf(cellOffsets, cellCount + 1),
+				Arrays.copyOf(rowOffsets, rowCount + 1)
+			);
+		}
+
+		private Builder endCell() {
+			if (cellCount + 2 > cellOffsets.length) {
+				cellOffsets = Arrays.copyOf(cellOffsets, cellOffsets.length * 2);
+			}
+			// End of the cell, i.e. start of the next one
+			cellOffsets[++cellCount] = length;
+			rowStarted = true;
+			return this;
+		}
+
+		private void ensureCapacity(final int cellLength) {
+			if (length + cellLength > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + cellLength));
+			}
+		}
+	}
+}
@@ -20,15 +20,18 @@ package org.metricshub.tablejoin;
  * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
  */
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.Predicate;
 
 /**
  * Joins to CSV-formatted tables (Strings) and as well as Lists formatted tables
@@ -38,6 +41,16 @@ import java.util.stream.Stream;
  */
 public class TableJoin {
 
+	/**
+	 * Minimum number of left rows probed by each task in parallel mode
+	 */
+	private static final int MIN_PARALLEL_CHUNK_SIZE = 1024;
+
+	/**
+	 * Number of chunks per available processor in parallel mode, to balance the load between the threads
+	 */
+	private static final int PARALLEL_CHUNKS_PER_CPU = 4;
+
 	private TableJoin() {}
 
 	/**
@@ -72,135 +85,1652 @@ public class TableJoin {
 		final String defaultRightLine,
 		final boolean wbemKeyType,
 		final boolean caseInsensitive
+	) throws IllegalArgumentException {
+		return join(
+			leftTable,
+			rightTable,
+			leftKeyColumnNumber,
+			rightKeyColumnNumber,
+			separator,
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			JoinOptions.DEFAULT
+		);
+	}
+
+	/**
+	 * Joins to CSV-formatted tables (Strings) as an SQL JOIN statement would (INNER or LEFT JOIN)
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param separator
+	 *             The columns separator
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN). Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, formatted as a CSV table (one entry per line, with the same separator as specified)
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static String join(
+		final String leftTable,
+		final String rightTable,
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final String separator,
+		final String defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		return join(
+			leftTable,
+			rightTable,
+			new int[] { leftKeyColumnNumber },
+			new int[] { rightKeyColumnNumber },
+			separator,
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			options
+		);
+	}
+
+	/**
+	 * Joins to CSV-formatted tables (Strings) on a composite key, as an SQL JOIN statement would (INNER or LEFT JOIN)
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param separator
+	 *             The columns separator
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN). Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, formatted as a CSV table (one entry per line, with the same separator as specified)
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static String join(
+		final String leftTable,
+		final String rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final String separator,
+		final String defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		return join(
+			leftTable,
+			rightTable,
+			leftKeyColumnNumbers,
+			rightKeyColumnNumbers,
+			separator,
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			null,
+			null,
+			options
+		);
+	}
+
+	/**
+	 * Joins to CSV-formatted tables (Strings) on a composite key, as an SQL JOIN statement would (INNER or LEFT JOIN),
+	 * and keep only the given columns of each table in the result (like <code>SELECT l.c1, l.c3, r.c2 FROM l JOIN r</code>)
+	 * <p>
+	 * The cells of the columns that are neither kept nor used as key are skipped when parsing the tables, without
+	 * creating any {@link String}. A projected column that a row doesn't have results in an empty cell.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param separator
+	 *             The columns separator
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN).
+	 *             It replaces the projected cells of the right row, as it is. Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param leftColumnNumbers
+	 *             The numbers of the columns of the left table kept in the result, in that order, or <code>null</code>
+	 *             to keep all of them
+	 * @param rightColumnNumbers
+	 *             The numbers of the columns of the right table kept in the result, in that order, or
+	 *             <code>null</code> to keep all of them
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, formatted as a CSV table (one entry per line, with the same separator as specified)
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static String join(
+		final String leftTable,
+		final String rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final String separator,
+		final String defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final int[] leftColumnNumbers,
+		final int[] rightColumnNumbers,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		return join(
+			leftTable,
+			rightTable,
+			leftKeyColumnNumbers,
+			rightKeyColumnNumbers,
+			separator,
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			leftColumnNumbers,
+			rightColumnNumbers,
+			null,
+			null,
+			options
+		);
+	}
+
+	/**
+	 * Joins to CSV-formatted tables (Strings) on a composite key, as an SQL JOIN statement would (INNER or LEFT JOIN),
+	 * keeping only the rows that pass the given filters and the given columns of each table
+	 * (like <code>SELECT l.c1, r.c2 FROM l JOIN r ON l.c2 = r.c1 WHERE l.c3 = 'OK'</code>)
+	 * <p>
+	 * The filters are applied as soon as each row is parsed, so the rejected rows are never indexed, looked up nor
+	 * copied.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param separator
+	 *             The columns separator
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN).
+	 *             It replaces the projected cells of the right row, as it is. Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param leftColumnNumbers
+	 *             The numbers of the columns of the left table kept in the result, in that order, or <code>null</code>
+	 *             to keep all of them
+	 * @param rightColumnNumbers
+	 *             The numbers of the columns of the right table kept in the result, in that order, or
+	 *             <code>null</code> to keep all of them
+	 * @param leftRowFilter
+	 *             The specification of the filter of the left rows (see {@link RowFilter#parse(String)}), e.g.
+	 *             <code>3!=OK</code>, or <code>null</code> to keep all the left rows
+	 * @param rightRowFilter
+	 *             The specification of the filter of the right rows, or <code>null</code> to keep all the right rows
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, formatted as a CSV table (one entry per line, with the same separator as specified)
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static String join(
+		final String leftTable,
+		final String rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final String separator,
+		final String defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final int[] leftColumnNumbers,
+		final int[] rightColumnNumbers,
+		final String leftRowFilter,
+		final String rightRowFilter,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		if (separator == null || "".equals(separator)) {
+			throw new IllegalArgumentException("Separator cannot be null or empty");
+		}
+		checkKeyColumnNumbers(leftKeyColumnNumbers, rightKeyColumnNumbers);
+		final Projection projection = Projection.of(leftColumnNumbers, rightColumnNumbers);
+		final RowFilter leftFilter = leftRowFilter != null ? RowFilter.parse(leftRowFilter) : null;
+		final RowFilter rightFilter = rightRowFilter != null ? RowFilter.parse(rightRowFilter) : null;
+
+		final JoinStats stats = options != null ? options.getStats() : null;
+		long start = stats != null ? System.nanoTime() : 0;
+		final List<List<String>> leftTableList = stringToTable(
+			leftTable,
+			separator,
+			projection != null ? projection.getLeftParsedColumns(leftKeyColumnNumbers, leftFilter) : null,
+			leftFilter,
+			options
+		);
+		final List<List<String>> rightTableList = stringToTable(
+			rightTable,
+			separator,
+			projection != null ? projection.getRightParsedColumns(rightKeyColumnNumbers, rightFilter) : null,
+			rightFilter,
+			options
+		);
+		// The default line separator is always semicolon
+		final List<String> defaultRightLineList = lineToList(defaultRightLine, ";");
+		if (stats != null) {
+			stats.addParseNanos(System.nanoTime() - start);
+		}
+
+		// The resulting rows are only formatted, so they don't need to be copied
+		final List<List<String>> result = join(
+			leftTableList,
+			rightTableList,
+			leftKeyColumnNumbers,
+			rightKeyColumnNumbers,
+			defaultRightLineList,
+			wbemKeyType,
+			caseInsensitive,
+			leftColumnNumbers,
+			rightColumnNumbers,
+			(options != null ? options : JoinOptions.DEFAULT).withRowViews()
+		);
+
+		start = stats != null ? System.nanoTime() : 0;
+		final String output = tableToString(result, separator);
+		if (stats != null) {
+			stats.addOutputNanos(System.nanoTime() - start);
+		}
+		return output;
+	}
+
+	/**
+	 * Joins to CSV-formatted tables (Strings) on a composite key, in the given mode: as an SQL INNER JOIN statement
+	 * would, or keeping the left rows that have a match in the right table (SEMI JOIN), or that have none (ANTI JOIN)
+	 * <p>
+	 * In the SEMI and ANTI modes, only the key columns of the right table are parsed and indexed.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param separator
+	 *             The columns separator
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param mode
+	 *             What is returned for each left row (see {@link JoinMode})
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, formatted as a CSV table (one entry per line, with the same separator as specified)
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static String join(
+		final String leftTable,
+		final String rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final String separator,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final JoinMode mode,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		if (separator == null || "".equals(separator)) {
+			throw new IllegalArgumentException("Separator cannot be null or empty");
+		}
+		if (mode == null) {
+			throw new IllegalArgumentException("Join mode cannot be null");
+		}
+		checkKeyColumnNumbers(leftKeyColumnNumbers, rightKeyColumnNumbers);
+
+		final JoinStats stats = options != null ? options.getStats() : null;
+		long start = stats != null ? System.nanoTime() : 0;
+		final List<List<String>> leftTableList = stringToTable(leftTable, separator, null, null, options);
+		// Only the keys of the right table are needed in the SEMI and ANTI modes
+		final List<List<String>> rightTableList = stringToTable(
+			rightTable,
+			separator,
+			mode == JoinMode.JOIN ? null : Projection.parsedColumns(new int[0], rightKeyColumnNumbers, null),
+			null,
+			options
+		);
+		if (stats != null) {
+			stats.addParseNanos(System.nanoTime() - start);
+		}
+
+		// The resulting rows are only formatted, so they don't need to be copied
+		final List<List<String>> result = join(
+			leftTableList,
+			rightTableList,
+			leftKeyColumnNumbers,
+			rightKeyColumnNumbers,
+			wbemKeyType,
+			caseInsensitive,
+			mode,
+			(options != null ? options : JoinOptions.DEFAULT).withRowViews()
+		);
+
+		start = stats != null ? System.nanoTime() : 0;
+		final String output = tableToString(result, separator);
+		if (stats != null) {
+			stats.addOutputNanos(System.nanoTime() - start);
+		}
+		return output;
+	}
+
+	/**
+	 * Joins a CSV-formatted table (String) with a right table that has already been indexed,
+	 * as an SQL JOIN statement would (INNER or LEFT JOIN)
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param rightTableIndex
+	 *             The index of the right table (see {@link JoinIndex#build(List, int, boolean, boolean)})
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param separator
+	 *             The columns separator
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN). Leave empty or null if you want an INNER JOIN.
+	 * @return The result of the JOIN operation, formatted as a CSV table (one entry per line, with the same separator as specified)
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static String join(
+		final String leftTable,
+		final JoinIndex rightTableIndex,
+		final int leftKeyColumnNumber,
+		final String separator,
+		final String defaultRightLine
+	) throws IllegalArgumentException {
+		return join(leftTable, rightTableIndex, leftKeyColumnNumber, separator, defaultRightLine, JoinOptions.DEFAULT);
+	}
+
+	/**
+	 * Joins a CSV-formatted table (String) with a right table that has already been indexed,
+	 * as an SQL JOIN statement would (INNER or LEFT JOIN)
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param rightTableIndex
+	 *             The index of the right table (see {@link JoinIndex#build(List, int, boolean, boolean)})
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param separator
+	 *             The columns separator
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN). Leave empty or null if you want an INNER JOIN.
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, formatted as a CSV table (one entry per line, with the same separator as specified)
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static String join(
+		final String leftTable,
+		final JoinIndex rightTableIndex,
+		final int leftKeyColumnNumber,
+		final String separator,
+		final String defaultRightLine,
+		final JoinOptions options
 	) throws IllegalArgumentException {
 		if (separator == null || "".equals(separator)) {
 			throw new IllegalArgumentException("Separator cannot be null or empty");
 		}
 
-		final List<List<String>> leftTableList = stringToTable(leftTable, separator);
-		final List<List<String>> rightTableList = stringToTable(rightTable, separator);
-		// The default line separator is always semicolon
-		final List<String> defaultRightLineList = lineToList(defaultRightLine, ";");
+		final JoinStats stats = options != null ? options.getStats() : null;
+		long start = stats != null ? System.nanoTime() : 0;
+		final List<List<String>> leftTableList = stringToTable(leftTable, separator, null, null, options);
+		// The default line separator is always semicolon
+		final List<String> defaultRightLineList = lineToList(defaultRightLine, ";");
+		if (stats != null) {
+			stats.addParseNanos(System.nanoTime() - start);
+		}
+
+		// The resulting rows are only formatted, so they don't need to be copied
+		final List<List<String>> result = join(
+			leftTableList,
+			rightTableIndex,
+			leftKeyColumnNumber,
+			defaultRightLineList,
+			(options != null ? options : JoinOptions.DEFAULT).withRowViews()
+		);
+
+		start = stats != null ? System.nanoTime() : 0;
+		final String output = tableToString(result, separator);
+		if (stats != null) {
+			stats.addOutputNanos(System.nanoTime() - start);
+		}
+		return output;
+	}
+
+	/**
+	 * Joins a CSV-formatted table (String) with several right tables in turn, as a chain of SQL JOIN statements
+	 * would (INNER or LEFT JOIN), in a single pass
+	 * <p>
+	 * The result is the same as joining the left table with the first right table, then the result with the second
+	 * right table, and so on, but the tables are parsed and the result is formatted only once.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param joinSpecs
+	 *             The right tables and how they are matched, in the order of the JOIN operations (see {@link JoinSpec})
+	 * @param separator
+	 *             The columns separator
+	 * @param options
+	 *             How the JOIN operations are performed (see {@link JoinOptions})
+	 * @return The result of the last JOIN operation, formatted as a CSV table (one entry per line, with the same
+	 * separator as specified)
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static String join(
+		final String leftTable,
+		final List<JoinSpec> joinSpecs,
+		final String separator,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		if (separator == null || "".equals(separator)) {
+			throw new IllegalArgumentException("Separator cannot be null or empty");
+		}
+
+		final JoinStats stats = options != null ? options.getStats() : null;
+		long start = stats != null ? System.nanoTime() : 0;
+		final List<List<String>> leftTableList = stringToTable(leftTable, separator, null, null, options);
+		if (stats != null) {
+			stats.addParseNanos(System.nanoTime() - start);
+		}
+
+		// The resulting rows are only formatted, so they don't need to be copied
+		final List<List<String>> result = join(
+			leftTableList,
+			joinSpecs,
+			(options != null ? options : JoinOptions.DEFAULT).withRowViews()
+		);
+
+		start = stats != null ? System.nanoTime() : 0;
+		final String output = tableToString(result, separator);
+		if (stats != null) {
+			stats.addOutputNanos(System.nanoTime() - start);
+		}
+		return output;
+	}
+
+	/**
+	 * Joins to CSV-formatted tables read from {@link Reader}s as an SQL JOIN statement would (INNER or LEFT JOIN),
+	 * and writes the result to the given {@link Appendable}.
+	 * <p>
+	 * Only the right table is held in memory (as the lookup table). The left table is parsed, joined and written
+	 * one row at a time, so the memory usage doesn't depend on the size of the left table.
+	 * The output is the same as the one of {@link #join(String, String, int, int, String, String, boolean, boolean)}.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param separator
+	 *             The columns separator
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN). Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param output
+	 *             Where the result of the JOIN operation is written, formatted as a CSV table (one entry per line, with the same separator as specified)
+	 * @throws IOException
+	 *             When reading one of the tables or writing the result fails
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static void join(
+		final Reader leftTable,
+		final Reader rightTable,
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final String separator,
+		final String defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final Appendable output
+	) throws IOException, IllegalArgumentException {
+		join(
+			leftTable,
+			rightTable,
+			leftKeyColumnNumber,
+			rightKeyColumnNumber,
+			separator,
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			output,
+			JoinOptions.DEFAULT
+		);
+	}
+
+	/**
+	 * Joins to CSV-formatted tables read from {@link Reader}s as an SQL JOIN statement would (INNER or LEFT JOIN),
+	 * and writes the result to the given {@link Appendable}.
+	 * <p>
+	 * The right table is held in memory (as the lookup table) as long as it fits in the memory budget of the options
+	 * (see {@link JoinOptions#getMemoryBudget()}). Beyond that, both tables are hash-partitioned into temporary files
+	 * and joined partition by partition: the output is still the same, row for row, and the temporary files are deleted
+	 * afterwards. The other options don't apply here: the rows are always joined sequentially, with a hash index.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are separated by end-of-lines \n)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param separator
+	 *             The columns separator
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN). Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param output
+	 *             Where the result of the JOIN operation is written, formatted as a CSV table (one entry per line, with the same separator as specified)
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @throws IOException
+	 *             When reading one of the tables, writing the result or using the temporary files fails
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static void join(
+		final Reader leftTable,
+		final Reader rightTable,
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final String separator,
+		final String defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final Appendable output,
+		final JoinOptions options
+	) throws IOException, IllegalArgumentException {
+		if (separator == null || "".equals(separator)) {
+			throw new IllegalArgumentException("Separator cannot be null or empty");
+		}
+		checkKeyColumnNumbers(leftKeyColumnNumber, rightKeyColumnNumber);
+		if (output == null) {
+			throw new IllegalArgumentException("Output cannot be null");
+		}
+
+		if (leftTable == null) {
+			return;
+		}
+
+		// The default line separator is always semicolon
+		final List<String> defaultRightLineList = lineToList(defaultRightLine, ";");
+		final boolean handleDefaultRightLine = !defaultRightLineList.isEmpty();
+		if (rightTable == null && !handleDefaultRightLine) {
+			return;
+		}
+
+		final CsvTokenizer tokenizer = new CsvTokenizer(separator, options != null ? options.getCellDictionary() : null);
+		GraceHashJoin.join(
+			tokenizer.rowReader(leftTable),
+			rightTable != null ? tokenizer.rowReader(rightTable) : null,
+			new int[] { leftKeyColumnNumber },
+			new int[] { rightKeyColumnNumber },
+			defaultRightLineList,
+			wbemKeyType,
+			caseInsensitive,
+			options != null ? options : JoinOptions.DEFAULT,
+			separator,
+			output
+		);
+	}
+
+	/**
+	 * Joins to CSV files as an SQL JOIN statement would (INNER or LEFT JOIN), and writes the result to a file.
+	 * <p>
+	 * Both files are memory-mapped and tokenized directly from their bytes, without being decoded to {@link String}
+	 * first: only the keys of the right table are held in the heap, so the files can be larger than the heap.
+	 * The files are expected to be UTF-8 encoded (or in any ASCII-compatible encoding, as long as the separator is
+	 * ASCII). The content of the output file is the same as the result of
+	 * {@link #join(String, String, int, int, String, String, boolean, boolean)}, UTF-8 encoded.
+	 *
+	 * @param leftTable
+	 *             The file of the left table (entries are separated by end-of-lines \n)
+	 * @param rightTable
+	 *             The file of the right table
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param separator
+	 *             The columns separator
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN). Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param output
+	 *             The file where the result of the JOIN operation is written (created, or overwritten if it exists),
+	 *             formatted as a CSV table (one entry per line, with the same separator as specified). It cannot be
+	 *             one of the tables, which are read while the output is written.
+	 * @throws IOException
+	 *             When mapping one of the tables or writing the result fails
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely, e.g. when the output file is
+	 *             one of the tables
+	 */
+	public static void join(
+		final Path leftTable,
+		final Path rightTable,
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final String separator,
+		final String defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final Path output
+	) throws IOException, IllegalArgumentException {
+		if (separator == null || "".equals(separator)) {
+			throw new IllegalArgumentException("Separator cannot be null or empty");
+		}
+		checkKeyColumnNumbers(leftKeyColumnNumber, rightKeyColumnNumber);
+		if (leftTable == null || rightTable == null || output == null) {
+			throw new IllegalArgumentException("Table and output files cannot be null");
+		}
+		// Truncating a mapped table would lose it, and fail the JOIN
+		if (Files.exists(output) && (Files.isSameFile(output, leftTable) || Files.isSameFile(output, rightTable))) {
+			throw new IllegalArgumentException("The output file cannot be one of the tables (output=" + output + ")");
+		}
+
+		// The default line separator is always semicolon
+		MappedFileJoin.join(
+			leftTable,
+			rightTable,
+			leftKeyColumnNumber,
+			rightKeyColumnNumber,
+			separator,
+			lineToList(defaultRightLine, ";"),
+			wbemKeyType,
+			caseInsensitive,
+			output
+		);
+	}
+
+	/**
+	 * Transform the {@link List} table to a {@link String} representation
+	 * [[a1,b1,c2],[a1,b1,c1]]
+	 *  =&gt;
+	 * a1,b1,c1,
+	 * a2,b2,c2,
+	 *
+	 * @param table The table result we wish to parse
+	 * @param separator The cells separator on each line
+	 * @return {@link String} value
+	 */
+	protected static String tableToString(final List<List<String>> table, final String separator) {
+		if (table != null) {
+			final StringBuilder csv = new StringBuilder(csvLength(table, separator));
+			appendTable(table, separator, csv);
+			return csv.toString();
+		}
+		return null;
+	}
+
+	/**
+	 * Write the CSV representation of the {@link List} table to the given {@link Appendable} (a {@link java.io.Writer},
+	 * a {@link StringBuilder}...), exactly as {@link #tableToString(List, String)} formats it: each cell is followed
+	 * by the separator, and the lines are separated by end-of-lines \n (<code>null</code> lines are skipped)
+	 *
+	 * @param table
+	 *             The table to write. Nothing is written if it is <code>null</code>.
+	 * @param separator
+	 *             The cells separator on each line
+	 * @param output
+	 *             Where the table is written
+	 * @throws IOException
+	 *             When writing to the output fails
+	 */
+	public static void appendTable(final List<List<String>> table, final String separator, final Appendable output)
+		throws IOException {
+		if (table == null) {
+			return;
+		}
+		if (output instanceof StringBuilder) {
+			appendTable(table, separator, (StringBuilder) output);
+			return;
+		}
+		boolean firstLine = true;
+		for (final List<String> line : table) {
+			if (line == null) {
+				continue;
+			}
+			if (!firstLine) {
+				output.append('\n');
+			}
+			appendCells(line, separator, output);
+			firstLine = false;
+		}
+	}
+
+	/**
+	 * Append the CSV representation of the {@link List} table to the given {@link StringBuilder}, exactly as
+	 * {@link #tableToString(List, String)} formats it. The capacity of the {@link StringBuilder} is ensured up front,
+	 * from the length of the cells.
+	 *
+	 * @param table
+	 *             The table to write. Nothing is written if it is <code>null</code>.
+	 * @param separator
+	 *             The cells separator on each line
+	 * @param output
+	 *             Where the table is written
+	 */
+	public static void appendTable(final List<List<String>> table, final String separator, final StringBuilder output) {
+		if (table == null) {
+			return;
+		}
+		output.ensureCapacity(output.length() + csvLength(table, separator));
+		boolean firstLine = true;
+		for (final List<String> line : table) {
+			if (line == null) {
+				continue;
+			}
+			if (!firstLine) {
+				output.append('\n');
+			}
+			for (final String cell : line) {
+				output.append(cell).append(separator);
+			}
+			// A line without cells is still terminated by the separator
+			if (line.isEmpty()) {
+				output.append(separator);
+			}
+			firstLine = false;
+		}
+	}
+
+	/**
+	 * @return the exact number of characters of the CSV representation of the given table
+	 */
+	private static int csvLength(final List<List<String>> table, final String separator) {
+		final int separatorLength = separator.length();
+		long length = 0;
+		int lineCount = 0;
+		for (final List<String> line : table) {
+			if (line == null) {
+				continue;
+			}
+			for (final String cell : line) {
+				length += (cell != null ? cell.length() : 4) + separatorLength;
+			}
+			if (line.isEmpty()) {
+				length += separatorLength;
+			}
+			lineCount++;
+		}
+		length += Math.max(0, lineCount - 1);
+		// Beyond the maximum size of an array, the StringBuilder will fail anyway
+		return (int) Math.min(length, Integer.MAX_VALUE - 8);
+	}
+
+	/**
+	 * Return the List representation of the CSV String table :
+	 * a1,b1,c1,
+	 * a2,b2,c2,
+	 * =&gt;
+	 * [[a1,b1,c2],[a1,b1,c1]]
+	 *
+	 * @param csvTable
+	 *             The CSV table we wish to parse
+	 * @param separator
+	 *             The cells separator
+	 * @return {@link List} of {@link List} table
+	 */
+	public static List<List<String>> stringToTable(final String csvTable, final String separator) {
+		return stringToTable(csvTable, separator, null);
+	}
+
+	/**
+	 * Return the List representation of the CSV String table, whose identical cells share the same {@link String}
+	 * instance
+	 *
+	 * @param csvTable
+	 *             The CSV table we wish to parse
+	 * @param separator
+	 *             The cells separator
+	 * @param cellDictionary
+	 *             The dictionary of the cell values, or <code>null</code> to create a new {@link String} per cell
+	 * @return {@link List} of {@link List} table
+	 */
+	public static List<List<String>> stringToTable(
+		final String csvTable,
+		final String separator,
+		final CellDictionary cellDictionary
+	) {
+		if (csvTable != null) {
+			return new CsvTokenizer(separator, cellDictionary).parseTable(csvTable);
+		}
+		return null;
+	}
+
+	/**
+	 * Parse some columns and some rows of a CSV table
+	 * (see {@link CsvTokenizer#parseTable(CharSequence, boolean[], Predicate)})
+	 *
+	 * @param csvTable
+	 *             The CSV table we wish to parse
+	 * @param separator
+	 *             The cells separator
+	 * @param parsedColumns
+	 *             Which columns are parsed, indexed by column number - 1, or <code>null</code> to parse all of them
+	 * @param rowFilter
+	 *             The rows kept in the table, or <code>null</code> to keep all of them
+	 * @param options
+	 *             The options of the JOIN operation, which may hold a {@link CellDictionary}, or <code>null</code>
+	 * @return {@link List} of {@link List} table, where the cells of the other columns are <code>null</code>
+	 */
+	private static List<List<String>> stringToTable(
+		final String csvTable,
+		final String separator,
+		final boolean[] parsedColumns,
+		final Predicate<List<String>> rowFilter,
+		final JoinOptions options
+	) {
+		if (csvTable == null) {
+			return null;
+		}
+		final CsvTokenizer tokenizer = new CsvTokenizer(separator, options != null ? options.getCellDictionary() : null);
+		if (parsedColumns == null && rowFilter == null) {
+			return tokenizer.parseTable(csvTable);
+		}
+		return tokenizer.parseTable(csvTable, parsedColumns, rowFilter);
+	}
+
+	/**
+	 * Transform a line to a list
+	 * a1,b1,c1, =&gt; [ a1, b1, c1 ]
+	 * @param line
+	 *             The CSV line we wish to parse
+	 * @param separator
+	 *             The cells serparator
+	 * @return {@link List} of {@link String}
+	 */
+	public static List<String> lineToList(final String line, final String separator) {
+		if (line != null && !line.isEmpty()) {
+			return new CsvTokenizer(separator).parseLine(line);
+		}
+		return new ArrayList<>();
+	}
+
+	/**
+	 * Joins two tables ({@link List} of {@link List}) as an SQL JOIN statement
+	 * would (INNER or LEFT JOIN)
+	 *
+	 * @param leftTable
+	 *             The left table (entries are defined in a {@link List} of {@link String} values)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
+	 *             Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @return The result of the JOIN operation, a {@link List} of {@link List} table (one entry per {@link List} wrapped in a parent {@link List})
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final List<List<String>> rightTable,
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) throws IllegalArgumentException {
+		return join(
+			leftTable,
+			rightTable,
+			leftKeyColumnNumber,
+			rightKeyColumnNumber,
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			JoinOptions.DEFAULT
+		);
+	}
+
+	/**
+	 * Joins two tables ({@link List} of {@link List}) as an SQL JOIN statement
+	 * would (INNER or LEFT JOIN)
+	 *
+	 * @param leftTable
+	 *             The left table (entries are defined in a {@link List} of {@link String} values)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
+	 *             Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, a {@link List} of {@link List} table (one entry per {@link List} wrapped in a parent {@link List})
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final List<List<String>> rightTable,
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		// Sanity check
+		checkKeyColumnNumbers(leftKeyColumnNumber, rightKeyColumnNumber);
+
+		return join(
+			leftTable,
+			rightTable,
+			new int[] { leftKeyColumnNumber },
+			new int[] { rightKeyColumnNumber },
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			options
+		);
+	}
+
+	/**
+	 * Joins two tables ({@link List} of {@link List}) on a composite key, as an SQL JOIN statement
+	 * would (INNER or LEFT JOIN)
+	 * <p>
+	 * The values of the key columns are hashed and compared one by one: there is no need to concatenate them
+	 * into a synthetic key column.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are defined in a {@link List} of {@link String} values)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
+	 *             Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, a {@link List} of {@link List} table (one entry per {@link List} wrapped in a parent {@link List})
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final List<List<String>> rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		return join(
+			leftTable,
+			rightTable,
+			leftKeyColumnNumbers,
+			rightKeyColumnNumbers,
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			null,
+			null,
+			options
+		);
+	}
+
+	/**
+	 * Joins two tables ({@link List} of {@link List}) on a composite key, as an SQL JOIN statement
+	 * would (INNER or LEFT JOIN), and keep only the given columns of each table in the result
+	 * (like <code>SELECT l.c1, l.c3, r.c2 FROM l JOIN r</code>)
+	 * <p>
+	 * The resulting rows hold the projected cells of the left row, then the projected cells of the right row.
+	 * A projected column that a row doesn't have results in an empty cell.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are defined in a {@link List} of {@link String} values)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
+	 *             It replaces the projected cells of the right row, as it is. Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param leftColumnNumbers
+	 *             The numbers of the columns of the left table kept in the result, in that order, or <code>null</code>
+	 *             to keep all of them
+	 * @param rightColumnNumbers
+	 *             The numbers of the columns of the right table kept in the result, in that order, or
+	 *             <code>null</code> to keep all of them
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions}). The resulting rows are always copies
+	 *             when columns are projected.
+	 * @return The result of the JOIN operation, a {@link List} of {@link List} table (one entry per {@link List} wrapped in a parent {@link List})
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final List<List<String>> rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final int[] leftColumnNumbers,
+		final int[] rightColumnNumbers,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		// Sanity check
+		checkKeyColumnNumbers(leftKeyColumnNumbers, rightKeyColumnNumbers);
+		final Projection projection = Projection.of(leftColumnNumbers, rightColumnNumbers);
+
+		if (leftTable == null) {
+			return null;
+		}
+
+		// LEFT JOIN
+		final boolean handleDefaultRightLine = defaultRightLine != null && !defaultRightLine.isEmpty();
+		if (rightTable == null && !handleDefaultRightLine) {
+			return new ArrayList<>();
+		}
+
+		// Walk both tables in the order of their keys, if they are sorted
+		final JoinAlgorithm algorithm = options != null ? options.getAlgorithm() : JoinAlgorithm.HASH;
+		final JoinStats stats = options != null ? options.getStats() : null;
+		if (algorithm != JoinAlgorithm.HASH) {
+			final List<List<String>> result = MergeJoin.join(
+				leftTable,
+				rightTable,
+				leftKeyColumnNumbers,
+				rightKeyColumnNumbers,
+				defaultRightLine,
+				handleDefaultRightLine,
+				wbemKeyType,
+				caseInsensitive,
+				options != null ? options.getWbemKeyMemo() : null,
+				options != null && options.isRowViews(),
+				projection,
+				stats
+			);
+			if (result != null) {
+				return result;
+			}
+			if (algorithm == JoinAlgorithm.MERGE) {
+				throw new IllegalArgumentException(
+					"The tables must be sorted by their key to be joined with the MERGE algorithm"
+				);
+			}
+		}
+
+		// Initialize the lookup table (a hash map)
+		final JoinIndex rightTableIndex = JoinIndex.build(
+			rightTable,
+			rightKeyColumnNumbers,
+			wbemKeyType,
+			caseInsensitive,
+			options
+		);
+
+		return join(leftTable, rightTableIndex, leftKeyColumnNumbers, defaultRightLine, options, projection);
+	}
+
+	/**
+	 * Joins two tables ({@link List} of {@link List}) on a composite key, as an SQL JOIN statement
+	 * would (INNER or LEFT JOIN), keeping only the rows that pass the given filters and the given columns of each table
+	 * (like <code>SELECT l.c1, r.c2 FROM l JOIN r ON l.c2 = r.c1 WHERE l.c3 = 'OK'</code>)
+	 * <p>
+	 * The rejected right rows are not indexed, and the rejected left rows are not looked up.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are defined in a {@link List} of {@link String} values)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
+	 *             It replaces the projected cells of the right row, as it is. Leave empty or null if you want an INNER JOIN.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param leftColumnNumbers
+	 *             The numbers of the columns of the left table kept in the result, in that order, or <code>null</code>
+	 *             to keep all of them
+	 * @param rightColumnNumbers
+	 *             The numbers of the columns of the right table kept in the result, in that order, or
+	 *             <code>null</code> to keep all of them
+	 * @param leftRowFilter
+	 *             The left rows that are joined (e.g. a {@link RowFilter}), or <code>null</code> to join all of them
+	 * @param rightRowFilter
+	 *             The right rows that are indexed, or <code>null</code> to index all of them
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, a {@link List} of {@link List} table (one entry per {@link List} wrapped in a parent {@link List})
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final List<List<String>> rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final int[] leftColumnNumbers,
+		final int[] rightColumnNumbers,
+		final Predicate<List<String>> leftRowFilter,
+		final Predicate<List<String>> rightRowFilter,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		return join(
+			filter(leftTable, leftRowFilter),
+			filter(rightTable, rightRowFilter),
+			leftKeyColumnNumbers,
+			rightKeyColumnNumbers,
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive,
+			leftColumnNumbers,
+			rightColumnNumbers,
+			options
+		);
+	}
+
+	/**
+	 * @return the rows of the given table that pass the given filter (the same table if there is no filter)
+	 */
+	private static List<List<String>> filter(final List<List<String>> table, final Predicate<List<String>> rowFilter) {
+		if (table == null || rowFilter == null) {
+			return table;
+		}
+		final List<List<String>> filteredTable = new ArrayList<>();
+		for (final List<String> row : table) {
+			if (rowFilter.test(row)) {
+				filteredTable.add(row);
+			}
+		}
+		return filteredTable;
+	}
+
+	/**
+	 * Joins two tables ({@link List} of {@link List}) on a composite key, in the given mode: as an SQL INNER JOIN
+	 * statement would, or keeping the left rows that have a match in the right table (SEMI JOIN), or that have none
+	 * (ANTI JOIN)
+	 * <p>
+	 * In the SEMI and ANTI modes, only the keys of the right table are indexed, and the resulting rows are the left rows
+	 * themselves (not copies), in their original order. The algorithm option is ignored in these modes.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are defined in a {@link List} of {@link String} values)
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @param mode
+	 *             What is returned for each left row (see {@link JoinMode})
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, a {@link List} of {@link List} table (one entry per {@link List} wrapped in a parent {@link List})
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final List<List<String>> rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive,
+		final JoinMode mode,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		if (mode == null) {
+			throw new IllegalArgumentException("Join mode cannot be null");
+		}
+		if (mode == JoinMode.JOIN) {
+			return join(
+				leftTable,
+				rightTable,
+				leftKeyColumnNumbers,
+				rightKeyColumnNumbers,
+				null,
+				wbemKeyType,
+				caseInsensitive,
+				options
+			);
+		}
+
+		// Sanity check
+		checkKeyColumnNumbers(leftKeyColumnNumbers, rightKeyColumnNumbers);
+
+		if (leftTable == null) {
+			return null;
+		}
+
+		// A set of the keys of the right table
+		final JoinOptions joinOptions = options != null ? options : JoinOptions.DEFAULT;
+		final JoinIndex rightTableKeys = JoinIndex.build(
+			rightTable,
+			rightKeyColumnNumbers,
+			wbemKeyType,
+			caseInsensitive,
+			joinOptions,
+			true
+		);
+
+		final boolean keepMatches = mode == JoinMode.SEMI;
+		final JoinStats stats = joinOptions.getStats();
+		final long start = stats != null ? System.nanoTime() : 0;
+		final List<List<String>> result = joinInChunks(
+			leftTable,
+			joinOptions,
+			chunk -> filterByMatch(chunk, rightTableKeys, leftKeyColumnNumbers, keepMatches, stats)
+		);
+		if (stats != null) {
+			stats.addJoin();
+			stats.addLeftRows(leftTable.size());
+			stats.addProbeNanos(System.nanoTime() - start);
+		}
+		return result;
+	}
+
+	/**
+	 * Keep the left rows that have a match in the right table (SEMI JOIN), or that have none (ANTI JOIN), sequentially
+	 *
+	 * @param leftTable
+	 *             The left rows
+	 * @param rightTableKeys
+	 *             The keys of the right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the key columns in the left table
+	 * @param keepMatches
+	 *             Whether the left rows that have a match are kept, or the ones that have none
+	 * @param stats
+	 *             Where the left rows are counted, or <code>null</code>
+	 * @return the kept left rows, as they are
+	 */
+	private static List<List<String>> filterByMatch(
+		final List<List<String>> leftTable,
+		final JoinIndex rightTableKeys,
+		final int[] leftKeyColumnNumbers,
+		final boolean keepMatches,
+		final JoinStats stats
+	) {
+		final List<List<String>> result = new ArrayList<>();
+		for (final List<String> leftLine : leftTable) {
+			if (!isValidLeftLine(leftKeyColumnNumbers, leftLine)) {
+				if (stats != null) {
+					stats.addInvalidLeftRow();
+				}
+				continue;
+			}
+			final boolean match = rightTableKeys.lookup(leftLine, leftKeyColumnNumbers, stats) != null;
+			if (stats != null) {
+				if (match) {
+					stats.addMatchedLeftRow();
+				} else {
+					stats.addUnmatchedLeftRow();
+				}
+			}
+			if (match == keepMatches) {
+				result.add(leftLine);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Joins a table with several right tables in turn, as a chain of SQL JOIN statements would (INNER or LEFT JOIN),
+	 * in a single pass
+	 * <p>
+	 * The indexes of all the right tables are built first. Then each row of the left table is joined with each right
+	 * table in turn, with one lookup per index: the result is the same as joining the left table with the first right
+	 * table, then the result with the second right table, and so on, but no intermediate table is created.
+	 *
+	 * @param leftTable
+	 *             The left table (entries are defined in a {@link List} of {@link String} values)
+	 * @param joinSpecs
+	 *             The right tables and how they are matched, in the order of the JOIN operations (see {@link JoinSpec})
+	 * @param options
+	 *             How the JOIN operations are performed (see {@link JoinOptions}). The algorithm is always HASH.
+	 * @return The result of the last JOIN operation, or <code>null</code> if the left table is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             When joinSpecs is <code>null</code> or contains <code>null</code>
+	 */
+	public static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final List<JoinSpec> joinSpecs,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		if (joinSpecs == null || joinSpecs.contains(null)) {
+			throw new IllegalArgumentException("Join specs cannot be null");
+		}
+
+		if (leftTable == null) {
+			return null;
+		}
+
+		return ChainedJoin.join(leftTable, joinSpecs, options != null ? options : JoinOptions.DEFAULT);
+	}
+
+	/**
+	 * Joins two {@link Table} instances, as an SQL JOIN statement would (INNER or LEFT JOIN)
+	 * <p>
+	 * The keys are matched directly in the buffers of the tables, and the result is a new {@link Table}:
+	 * unlike with <code>List&lt;List&lt;String&gt;&gt;</code> tables, no {@link String} is created for each cell.
+	 *
+	 * @param leftTable
+	 *             The left table
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
+	 *             Leave empty or null if you want an INNER JOIN. Its <code>null</code> cells are written
+	 *             as empty cells, since a {@link Table} has no <code>null</code> cells.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @return The result of the JOIN operation, as a new {@link Table}
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static Table join(
+		final Table leftTable,
+		final Table rightTable,
+		final int leftKeyColumnNumber,
+		final int rightKeyColumnNumber,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) throws IllegalArgumentException {
+		// Sanity check
+		checkKeyColumnNumbers(leftKeyColumnNumber, rightKeyColumnNumber);
+
+		return join(
+			leftTable,
+			rightTable,
+			new int[] { leftKeyColumnNumber },
+			new int[] { rightKeyColumnNumber },
+			defaultRightLine,
+			wbemKeyType,
+			caseInsensitive
+		);
+	}
+
+	/**
+	 * Joins two {@link Table} instances on a composite key, as an SQL JOIN statement would (INNER or LEFT JOIN)
+	 *
+	 * @param leftTable
+	 *             The left table
+	 * @param rightTable
+	 *             The right table
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table (as many as in the left table)
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
+	 *             Leave empty or null if you want an INNER JOIN. Its <code>null</code> cells are written
+	 *             as empty cells, since a {@link Table} has no <code>null</code> cells.
+	 * @param wbemKeyType
+	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
+	 * @param caseInsensitive
+	 *             Whether the matching is done case insensitive
+	 * @return The result of the JOIN operation, as a new {@link Table}
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
+	 */
+	public static Table join(
+		final Table leftTable,
+		final Table rightTable,
+		final int[] leftKeyColumnNumbers,
+		final int[] rightKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean wbemKeyType,
+		final boolean caseInsensitive
+	) throws IllegalArgumentException {
+		// Sanity check
+		checkKeyColumnNumbers(leftKeyColumnNumbers, rightKeyColumnNumbers);
+
+		if (leftTable == null) {
+			return null;
+		}
+
+		// LEFT JOIN
+		final boolean handleDefaultRightLine = defaultRightLine != null && !defaultRightLine.isEmpty();
+		if (rightTable == null && !handleDefaultRightLine) {
+			return Table.builder().build();
+		}
 
-		final List<List<String>> result = join(
-			leftTableList,
-			rightTableList,
-			leftKeyColumnNumber,
-			rightKeyColumnNumber,
-			defaultRightLineList,
+		return ColumnarJoin.join(
+			leftTable,
+			rightTable,
+			leftKeyColumnNumbers,
+			rightKeyColumnNumbers,
+			defaultRightLine,
+			handleDefaultRightLine,
 			wbemKeyType,
 			caseInsensitive
 		);
-
-		return tableToString(result, separator);
 	}
 
 	/**
-	 * Transform the {@link List} table to a {@link String} representation
-	 * [[a1,b1,c2],[a1,b1,c1]]
-	 *  =&gt;
-	 * a1,b1,c1,
-	 * a2,b2,c2,
+	 * Joins a table ({@link List} of {@link List}) with a right table that has already been indexed,
+	 * as an SQL JOIN statement would (INNER or LEFT JOIN)
+	 * <p>
+	 * The same {@link JoinIndex} can be reused for as many joins as needed, which avoids indexing the same
+	 * right table again and again.
 	 *
-	 * @param table The table result we wish to parse
-	 * @param separator The cells separator on each line
-	 * @return {@link String} value
+	 * @param leftTable
+	 *             The left table (entries are defined in a {@link List} of {@link String} values)
+	 * @param rightTableIndex
+	 *             The index of the right table (see {@link JoinIndex#build(List, int, boolean, boolean)}).
+	 *             A <code>null</code> index is handled like an empty right table.
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
+	 *             Leave empty or null if you want an INNER JOIN.
+	 * @return The result of the JOIN operation, a {@link List} of {@link List} table (one entry per {@link List} wrapped in a parent {@link List})
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
 	 */
-	protected static String tableToString(final List<List<String>> table, final String separator) {
-		if (table != null) {
-			return table
-				.stream()
-				.filter(Objects::nonNull)
-				.map(line -> line.stream().collect(Collectors.joining(separator)) + separator)
-				.collect(Collectors.joining("\n"));
-		}
-		return null;
+	public static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final JoinIndex rightTableIndex,
+		final int leftKeyColumnNumber,
+		final List<String> defaultRightLine
+	) throws IllegalArgumentException {
+		return join(leftTable, rightTableIndex, leftKeyColumnNumber, defaultRightLine, JoinOptions.DEFAULT);
 	}
 
 	/**
-	 * Return the List representation of the CSV String table :
-	 * a1,b1,c1,
-	 * a2,b2,c2,
-	 * =&gt;
-	 * [[a1,b1,c2],[a1,b1,c1]]
+	 * Joins a table ({@link List} of {@link List}) with a right table that has already been indexed,
+	 * as an SQL JOIN statement would (INNER or LEFT JOIN)
+	 * <p>
+	 * The same {@link JoinIndex} can be reused for as many joins as needed, which avoids indexing the same
+	 * right table again and again.
 	 *
-	 * @param csvTable
-	 *             The CSV table we wish to parse
-	 * @param separator
-	 *             The cells separator
-	 * @return {@link List} of {@link List} table
+	 * @param leftTable
+	 *             The left table (entries are defined in a {@link List} of {@link String} values)
+	 * @param rightTableIndex
+	 *             The index of the right table (see {@link JoinIndex#build(List, int, boolean, boolean)}).
+	 *             A <code>null</code> index is handled like an empty right table.
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
+	 *             Leave empty or null if you want an INNER JOIN.
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
+	 * @return The result of the JOIN operation, a {@link List} of {@link List} table (one entry per {@link List} wrapped in a parent {@link List})
+	 * @throws IllegalArgumentException
+	 *             When one of the arguments prevents the operation from working safely
 	 */
-	public static List<List<String>> stringToTable(final String csvTable, final String separator) {
-		if (csvTable != null) {
-			return Stream
-				.of(csvTable.split("\n"))
-				.map(line -> lineToList(line, separator))
-				.filter(line -> !line.isEmpty())
-				.collect(Collectors.toList());
+	public static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final JoinIndex rightTableIndex,
+		final int leftKeyColumnNumber,
+		final List<String> defaultRightLine,
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		// Sanity check
+		if (leftKeyColumnNumber < 1) {
+			throw new IllegalArgumentException("Invalid key column number (leftKeyColumnNumber=" + leftKeyColumnNumber + ")");
 		}
-		return null;
-	}
-
-	/**
-	 * Transform a line to a list
-	 * a1,b1,c1, =&gt; [ a1, b1, c1 ]
-	 * @param line
-	 *             The CSV line we wish to parse
-	 * @param separator
-	 *             The cells serparator
-	 * @return {@link List} of {@link String}
-	 */
-	public static List<String> lineToList(String line, final String separator) {
-		if (line != null && !line.isEmpty()) {
-			// Make sure the line ends with the separator
-			line = !line.endsWith(separator) ? line + separator : line;
 
-			// Make sure we don't change the integrity of the line with the split in case of empty cells
-			final String[] split = line.split(separator, -1);
-			return Stream.of(split).limit(split.length - 1L).collect(Collectors.toList());
-		}
-		return new ArrayList<>();
+		return join(leftTable, rightTableIndex, new int[] { leftKeyColumnNumber }, defaultRightLine, options);
 	}
 
 	/**
-	 * Joins two tables ({@link List} of {@link List}) as an SQL JOIN statement
-	 * would (INNER or LEFT JOIN)
+	 * Joins a table ({@link List} of {@link List}) with a right table that has already been indexed on a composite key,
+	 * as an SQL JOIN statement would (INNER or LEFT JOIN)
 	 *
 	 * @param leftTable
 	 *             The left table (entries are defined in a {@link List} of {@link String} values)
-	 * @param rightTable
-	 *             The right table
-	 * @param leftKeyColumnNumber
-	 *             The number of the column that will be used as key in the left table
-	 * @param rightKeyColumnNumber
-	 *             The number of the column that will be used as key in the right table
+	 * @param rightTableIndex
+	 *             The index of the right table (see {@link JoinIndex#build(List, int[], boolean, boolean)}).
+	 *             A <code>null</code> index is handled like an empty right table.
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table (as many as in the index)
 	 * @param defaultRightLine
 	 *             Specify a default entry to be put if a matching  entry is not found in the right table (LEFT JOIN).
 	 *             Leave empty or null if you want an INNER JOIN.
-	 * @param wbemKeyType
-	 *             Whether the key is in the form of a WBEM path, which needs to be sorted before searching for matches
-	 * @param caseInsensitive
-	 *             Whether the matching is done case insensitive
+	 * @param options
+	 *             How the JOIN operation is performed (see {@link JoinOptions})
 	 * @return The result of the JOIN operation, a {@link List} of {@link List} table (one entry per {@link List} wrapped in a parent {@link List})
 	 * @throws IllegalArgumentException
 	 *             When one of the arguments prevents the operation from working safely
 	 */
 	public static List<List<String>> join(
 		final List<List<String>> leftTable,
-		final List<List<String>> rightTable,
-		final int leftKeyColumnNumber,
-		final int rightKeyColumnNumber,
+		final JoinIndex rightTableIndex,
+		final int[] leftKeyColumnNumbers,
 		final List<String> defaultRightLine,
-		final boolean wbemKeyType,
-		final boolean caseInsensitive
+		final JoinOptions options
+	) throws IllegalArgumentException {
+		return join(leftTable, rightTableIndex, leftKeyColumnNumbers, defaultRightLine, options, null);
+	}
+
+	/**
+	 * Joins a table with a right table that has already been indexed on a composite key, and keep the given columns
+	 *
+	 * @param projection
+	 *             The columns kept in the resulting rows, or <code>null</code> to keep all of them
+	 * @see #join(List, JoinIndex, int[], List, JoinOptions)
+	 */
+	private static List<List<String>> join(
+		final List<List<String>> leftTable,
+		final JoinIndex rightTableIndex,
+		final int[] leftKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final JoinOptions options,
+		final Projection projection
 	) throws IllegalArgumentException {
 		// Sanity check
-		if (leftKeyColumnNumber < 1 || rightKeyColumnNumber < 1) {
+		JoinIndex.checkKeyColumnNumbers(leftKeyColumnNumbers);
+		if (rightTableIndex != null && rightTableIndex.getKeyColumnNumbers().length != leftKeyColumnNumbers.length) {
 			throw new IllegalArgumentException(
-				"Invalid key column number (leftKeyColumnNumber=" +
-				leftKeyColumnNumber +
-				", rightKeyColumnNumber=" +
-				rightKeyColumnNumber +
+				"The number of left key columns (" +
+				leftKeyColumnNumbers.length +
+				") doesn't match with the key of the right table index (" +
+				rightTableIndex.getKeyColumnNumbers().length +
 				")"
 			);
 		}
@@ -211,46 +1741,121 @@ public class TableJoin {
 
 		// LEFT JOIN
 		final boolean handleDefaultRightLine = defaultRightLine != null && !defaultRightLine.isEmpty();
-		if (rightTable == null && !handleDefaultRightLine) {
+		if (rightTableIndex == null && !handleDefaultRightLine) {
 			return new ArrayList<>();
 		}
 
-		final Map<String, List<String>> rightTableLookup;
-
-		// Initialize the lookup table (a hash map)
-		if (null != rightTable) {
-			rightTableLookup =
-				rightTable
-					.stream()
-					.filter(line -> rightKeyColumnNumber <= line.size())
-					.collect(
-						Collectors.toMap(
-							line -> getKey(line, rightKeyColumnNumber, wbemKeyType, caseInsensitive),
-							Function.identity(),
-							(oldValue, newValue) -> oldValue
-						)
-					);
-		} else {
-			rightTableLookup = new HashMap<>();
-		}
-
-		// Stream the left table, line by line
-		return leftTable
-			.stream()
-			.filter(leftLine -> isValidLeftLine(leftKeyColumnNumber, leftLine))
-			.map(leftLine ->
-				joinLine(
-					leftLine,
-					leftKeyColumnNumber,
+		final JoinOptions joinOptions = options != null ? options : JoinOptions.DEFAULT;
+		final JoinStats stats = joinOptions.getStats();
+		final long start = stats != null ? System.nanoTime() : 0;
+		final List<List<String>> result = joinInChunks(
+			leftTable,
+			joinOptions,
+			chunk ->
+				probe(
+					chunk,
+					rightTableIndex,
+					leftKeyColumnNumbers,
 					defaultRightLine,
-					wbemKeyType,
-					caseInsensitive,
 					handleDefaultRightLine,
-					rightTableLookup
+					joinOptions,
+					projection
 				)
-			)
-			.filter(line -> !line.isEmpty())
-			.collect(Collectors.toList());
+		);
+		if (stats != null) {
+			stats.addJoin();
+			stats.addLeftRows(leftTable.size());
+			stats.addProbeNanos(System.nanoTime() - start);
+		}
+		return result;
+	}
+
+	/**
+	 * Join the left table in one go, or in parallel mode, split it in chunks joined concurrently (against read-only
+	 * indexes) and put the results back together in the order of the chunks
+	 *
+	 * @param leftTable
+	 *             The left table
+	 * @param joinOptions
+	 *             Whether the left table is joined in parallel, and the {@link java.util.concurrent.Executor} that
+	 *             joins the chunks
+	 * @param chunkJoin
+	 *             Joins the given rows of the left table, sequentially
+	 * @return The result of the JOIN operation
+	 */
+	static List<List<String>> joinInChunks(
+		final List<List<String>> leftTable,
+		final JoinOptions joinOptions,
+		final Function<List<List<String>>, List<List<String>>> chunkJoin
+	) {
+		final int leftSize = leftTable.size();
+		if (!joinOptions.isParallel() || leftSize < joinOptions.getParallelThreshold()) {
+			return chunkJoin.apply(leftTable);
+		}
+
+		final int chunkCount = PARALLEL_CHUNKS_PER_CPU * Runtime.getRuntime().availableProcessors();
+		final int chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE, (leftSize + chunkCount - 1) / chunkCount);
+		final List<CompletableFuture<List<List<String>>>> chunks = new ArrayList<>();
+		for (int from = 0; from < leftSize; from += chunkSize) {
+			final List<List<String>> chunk = leftTable.subList(from, Math.min(from + chunkSize, leftSize));
+			chunks.add(CompletableFuture.supplyAsync(() -> chunkJoin.apply(chunk), joinOptions.getExecutor()));
+		}
+
+		final List<List<String>> result = new ArrayList<>(leftSize);
+		try {
+			for (final CompletableFuture<List<List<String>>> chunk : chunks) {
+				result.addAll(chunk.join());
+			}
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+		return result;
+	}
+
+	/**
+	 * Probe the index of the right table with each row of the left table, sequentially
+	 *
+	 * @return The result of the JOIN operation on the given left rows
+	 */
+	private static List<List<String>> probe(
+		final List<List<String>> leftTable,
+		final JoinIndex rightTableIndex,
+		final int[] leftKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean handleDefaultRightLine,
+		final JoinOptions joinOptions,
+		final Projection projection
+	) {
+		final JoinStats stats = joinOptions.getStats();
+		final boolean rowViews = joinOptions.isRowViews();
+		final List<List<String>> result = new ArrayList<>();
+		for (final List<String> leftLine : leftTable) {
+			if (!isValidLeftLine(leftKeyColumnNumbers, leftLine)) {
+				if (stats != null) {
+					stats.addInvalidLeftRow();
+				}
+				continue;
+			}
+			final List<String> rightLine = rightTableIndex != null
+				? rightTableIndex.lookup(leftLine, leftKeyColumnNumbers, stats)
+				: null;
+			final List<String> joinedLine = concatLines(
+				leftLine,
+				rightLine,
+				defaultRightLine,
+				handleDefaultRightLine,
+				rowViews,
+				projection,
+				stats
+			);
+			if (!joinedLine.isEmpty()) {
+				result.add(joinedLine);
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -272,13 +1877,14 @@ public class TableJoin {
 		final boolean caseInsensitive
 	) {
 		// Extract the key column from the line
-		String key = line.get(keyColumnNumber - 1);
+		final String key = line.get(keyColumnNumber - 1);
 		// Special key options
-		if (caseInsensitive) {
-			key = key.toLowerCase();
-		}
 		if (wbemKeyType) {
-			key = normalizeWbemReference(key);
+			return WbemKeyNormalizer.normalize(key, caseInsensitive);
+		}
+		if (caseInsensitive) {
+			// Locale-independent, so that the result doesn't depend on the default locale of the JVM
+			return Keys.foldCase(key);
 		}
 		return key;
 	}
@@ -306,6 +1912,27 @@ public class TableJoin {
 		// @formatter:on
 	}
 
+	/**
+	 * Check if the given left line is valid for a composite key
+	 * <ol>
+	 * 		<li>Each of the leftKeyColumnNumbers must be less than or equal to the leftLine size</li>
+	 * 		<li>The leftLine keys at leftKeyColumnNumbers shouldn't be empty</li>
+	 * </ol>
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left line
+	 * @param leftLine
+	 *             The left line as {@link List}
+	 * @return <code>true</code> if the left line matches the conditions above
+	 */
+	public static boolean isValidLeftLine(final int[] leftKeyColumnNumbers, final List<String> leftLine) {
+		for (final int leftKeyColumnNumber : leftKeyColumnNumbers) {
+			if (!isValidLeftLine(leftKeyColumnNumber, leftLine)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Execute the INNER or LEFT JOIN on the given leftLine using the rightTableLookup
 	 * @param leftLine
@@ -336,73 +1963,202 @@ public class TableJoin {
 		final Map<String, List<String>> rightTableLookup
 	) {
 		// Extract the key column from the left line
-		String leftKey = getKey(leftLine, leftKeyColumnNumber, wbemKeyType, caseInsensitive);
+		final String leftKey = getKey(leftLine, leftKeyColumnNumber, wbemKeyType, caseInsensitive);
 
 		// Retrieve the right line that matches with the value of the left key
 		final List<String> rightLine = rightTableLookup.get(leftKey);
 
+		return concatLines(leftLine, rightLine, defaultRightLine, handleDefaultRightLine, false, null, null);
+	}
+
+	/**
+	 * Execute the INNER or LEFT JOIN on the given leftLine using the index of the right table
+	 * @param leftLine
+	 *             The row to join the right line on
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left line
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN).<br>
+	 *             Cannot be empty or null if handleDefaultRightLine is <code>true</code>.<br>
+	 *             Leave empty or null if you want an INNER JOIN when handleDefaultRightLine is <code>false</code>.
+	 * @param handleDefaultRightLine
+	 *             If <code>true</code> then LEFT JOIN is performed when the entry is not found in the right table.
+	 * @param rightTableIndex
+	 *             The index of the right table. A <code>null</code> index is handled like an empty right table.
+	 * @return a line representation, i.e. {@link List} of {@link String} values
+	 */
+	public static List<String> joinLine(
+		final List<String> leftLine,
+		final int leftKeyColumnNumber,
+		final List<String> defaultRightLine,
+		final boolean handleDefaultRightLine,
+		final JoinIndex rightTableIndex
+	) {
+		final List<String> rightLine = rightTableIndex != null
+			? rightTableIndex.lookup(leftLine, leftKeyColumnNumber)
+			: null;
+
+		return concatLines(leftLine, rightLine, defaultRightLine, handleDefaultRightLine, false, null, null);
+	}
+
+	/**
+	 * Execute the INNER or LEFT JOIN on the given leftLine using the index of the right table, on a composite key
+	 * @param leftLine
+	 *             The row to join the right line on
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left line
+	 * @param defaultRightLine
+	 *             Specify a default entry to be put if a matching entry is not found in the right table (LEFT JOIN).<br>
+	 *             Cannot be empty or null if handleDefaultRightLine is <code>true</code>.<br>
+	 *             Leave empty or null if you want an INNER JOIN when handleDefaultRightLine is <code>false</code>.
+	 * @param handleDefaultRightLine
+	 *             If <code>true</code> then LEFT JOIN is performed when the entry is not found in the right table.
+	 * @param rightTableIndex
+	 *             The index of the right table. A <code>null</code> index is handled like an empty right table.
+	 * @return a line representation, i.e. {@link List} of {@link String} values
+	 */
+	public static List<String> joinLine(
+		final List<String> leftLine,
+		final int[] leftKeyColumnNumbers,
+		final List<String> defaultRightLine,
+		final boolean handleDefaultRightLine,
+		final JoinIndex rightTableIndex
+	) {
+		final List<String> rightLine = rightTableIndex != null
+			? rightTableIndex.lookup(leftLine, leftKeyColumnNumbers)
+			: null;
+
+		return concatLines(leftLine, rightLine, defaultRightLine, handleDefaultRightLine, false, null, null);
+	}
+
+	/**
+	 * Concatenate the left line with the matching right line
+	 *
+	 * @param rowViews
+	 *             Whether the joined line is an immutable view of both lines (see {@link JoinedLine}) or a copy
+	 * @param projection
+	 *             The columns kept in the joined line, or <code>null</code> to keep all of them
+	 * @param stats
+	 *             Where the matched, defaulted and unmatched left lines are counted, or <code>null</code>
+	 * @return the joined line, or an empty line when there is no match and no default right line (INNER JOIN)
+	 */
+	static List<String> concatLines(
+		final List<String> leftLine,
+		final List<String> rightLine,
+		final List<String> defaultRightLine,
+		final boolean handleDefaultRightLine,
+		final boolean rowViews,
+		final Projection projection,
+		final JoinStats stats
+	) {
 		// Different cases, whether we have a default right line or not
+		if (rightLine != null) {
+			if (stats != null) {
+				stats.addMatchedLeftRow();
+			}
+			return projection != null ? projection.concat(leftLine, rightLine, true) : concat(leftLine, rightLine, rowViews);
+		}
+
+		// If we have a default right line, it means that each line of the left table will be added,
+		// sometimes with the matching right line from the right table, and sometimes with the default right line
 		if (handleDefaultRightLine) {
-			// If we have a default right line, it means that each line of the left table
-			// will be added
-			// sometimes with the matching right line from the right table, and sometimes
-			// with the default right line
-
-			return Stream
-				.concat(leftLine.stream(), rightLine != null ? rightLine.stream() : defaultRightLine.stream())
-				.collect(Collectors.toList());
-		} else {
-			// No default right line, which means that we first need to check whether the
-			// key is present in the right table
-			if (rightLine != null) {
-				return Stream.concat(leftLine.stream(), rightLine.stream()).collect(Collectors.toList());
+			if (stats != null) {
+				stats.addDefaultedLeftRow();
 			}
+			return projection != null
+				? projection.concat(leftLine, defaultRightLine, false)
+				: concat(leftLine, defaultRightLine, rowViews);
+		}
 
-			return new ArrayList<>();
+		if (stats != null) {
+			stats.addUnmatchedLeftRow();
 		}
+		return new ArrayList<>();
 	}
 
 	/**
-	 * Sort alphabetically the key properties of a WBEM object path so that we can match them easily while joining the 2 tables
-	 *
-	 * @param wbemPath
-	 *             WBEM objectPath to be "normalized"
-	 * @return Re-ordered WBEM path
+	 * @return the left line followed by the right line, as a view or as a new {@link ArrayList}
 	 */
-	private static String normalizeWbemReference(String wbemPath) {
-		// wbemPath is in the form below:
-		// class.key1="value1",key2="value2"
-		// Split the WBEM path to have the class and the list of key properties
-		int dotIndex = wbemPath.indexOf('.');
-		if (dotIndex < 1) {
-			// This is not the expected format, let's quit without touching that string
-			return wbemPath;
+	private static List<String> concat(
+		final List<String> leftLine,
+		final List<String> rightLine,
+		final boolean rowViews
+	) {
+		if (rowViews) {
+			return new JoinedLine(leftLine, rightLine);
 		}
-		String className = wbemPath.substring(0, dotIndex);
-		String keyProperties = wbemPath.substring(dotIndex + 1);
-
-		// Split the key properties in an array to be sorted
-		// We will split when we find ", which marks the end of the value of a key
-		// However, to avoid deleting the double quote, we will replace all occurrences of ", by "\n
-		// and then split on \n
-		keyProperties = keyProperties.replaceAll("\",", "\"\n");
-		String[] keyPropertyArray = keyProperties.split("\n");
+		final List<String> line = new ArrayList<>(leftLine.size() + rightLine.size());
+		line.addAll(leftLine);
+		line.addAll(rightLine);
+		return line;
+	}
 
-		// null?
-		if (keyPropertyArray == null) {
-			// Return wbemPath unchanged
-			return wbemPath;
+	/**
+	 * Check the key column numbers
+	 *
+	 * @param leftKeyColumnNumber
+	 *             The number of the column that will be used as key in the left table
+	 * @param rightKeyColumnNumber
+	 *             The number of the column that will be used as key in the right table
+	 * @throws IllegalArgumentException
+	 *             When one of the key column numbers is lower than 1
+	 */
+	private static void checkKeyColumnNumbers(final int leftKeyColumnNumber, final int rightKeyColumnNumber) {
+		if (leftKeyColumnNumber < 1 || rightKeyColumnNumber < 1) {
+			throw new IllegalArgumentException(
+				"Invalid key column number (leftKeyColumnNumber=" +
+				leftKeyColumnNumber +
+				", rightKeyColumnNumber=" +
+				rightKeyColumnNumber +
+				")"
+			);
 		}
+	}
 
-		// Sort the array of key properties
-		Arrays.sort(keyPropertyArray);
+	/**
+	 * Check the key column numbers of a composite key
+	 *
+	 * @param leftKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the left table
+	 * @param rightKeyColumnNumbers
+	 *             The numbers of the columns that will be used as key in the right table
+	 * @throws IllegalArgumentException
+	 *             When the key column numbers are missing, lower than 1, or not as many on both sides
+	 */
+	static void checkKeyColumnNumbers(final int[] leftKeyColumnNumbers, final int[] rightKeyColumnNumbers) {
+		JoinIndex.checkKeyColumnNumbers(leftKeyColumnNumbers);
+		JoinIndex.checkKeyColumnNumbers(rightKeyColumnNumbers);
+		if (leftKeyColumnNumbers.length != rightKeyColumnNumbers.length) {
+			throw new IllegalArgumentException(
+				"Invalid key column numbers (leftKeyColumnNumbers=" +
+				Arrays.toString(leftKeyColumnNumbers) +
+				", rightKeyColumnNumbers=" +
+				Arrays.toString(rightKeyColumnNumbers) +
+				")"
+			);
+		}
+	}
 
-		// Return a string with the key properties in the right order
-		StringBuilder result = new StringBuilder(className).append(".");
-		for (String keyPropertyItem : keyPropertyArray) {
-			result.append(keyPropertyItem).append(".");
+	/**
+	 * Append the cells of a line to the given output, each cell being followed by the separator
+	 *
+	 * @param line
+	 *             The cells to write
+	 * @param separator
+	 *             The cells separator
+	 * @param output
+	 *             Where the cells are written
+	 * @throws IOException
+	 *             When writing to the output fails
+	 */
+	static void appendCells(final List<String> line, final String separator, final Appendable output)
+		throws IOException {
+		for (final String cell : line) {
+			output.append(cell).append(separator);
+		}
+		// A line without cells is still terminated by the separator
+		if (line.isEmpty()) {
+			output.append(separator);
 		}
-		result.delete(result.length() - 1, result.length());
-		return result.toString();
 	}
 }
@@ -0,0 +1,270 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs many independent JOIN operations (or any other jobs) asynchronously, with a bounded concurrency and a bounded
+ * number of pending jobs.
+ * <p>
+ * Each job is a {@link Supplier} (typically a lambda calling one of the {@link TableJoin} methods) whose result
+ * completes the {@link CompletableFuture} returned on submission:
+ * <pre>
+ * TableJoinExecutor joinExecutor = new TableJoinExecutor(executor, 8, 1_000);
+ * CompletableFuture&lt;String&gt; result = joinExecutor.submit(() -&gt; TableJoin.join(left, right, 1, 1, ";", null, false, false));
+ * </pre>
+ * <p>
+ * At most <code>maxConcurrency</code> jobs run at the same time on the {@link Executor}, whatever its number of
+ * threads: the jobs are queued, and each task running on the {@link Executor} runs the queued jobs one after the
+ * other. The {@link Executor} can therefore be unbounded, like an executor of virtual threads on Java 21
+ * (<code>Executors.newVirtualThreadPerTaskExecutor()</code>). It is not shut down by this class.
+ * <p>
+ * At most <code>maxPendingJobs</code> jobs are queued or running: beyond that, the submission blocks until a job is
+ * completed, so that a producer of jobs cannot get ahead of the JOIN operations.
+ * <p>
+ * This class is thread-safe.
+ *
+ */
+public final class TableJoinExecutor {
+
+	private final Executor executor;
+	private final int maxConcurrency;
+	private final int maxPendingJobs;
+	private final Semaphore pendingJobPermits;
+	private final Queue<Job<?>> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger workerCount = new AtomicInteger();
+
+	/**
+	 * Create a new executor of jobs running on {@link ForkJoinPool#commonPool()}, without limit on the number of
+	 * pending jobs
+	 *
+	 * @param maxConcurrency
+	 *             The maximum number of jobs running at the same time
+	 * @throws IllegalArgumentException
+	 *             When maxConcurrency is lower than 1
+	 */
+	public TableJoinExecutor(final int maxConcurrency) throws IllegalArgumentException {
+		this(ForkJoinPool.commonPool(), maxConcurrency, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Create a new executor of jobs
+	 *
+	 * @param executor
+	 *             The {@link Executor} running the jobs
+	 * @param maxConcurrency
+	 *             The maximum number of jobs running at the same time
+	 * @param maxPendingJobs
+	 *             The maximum number of jobs queued or running, beyond which the submission of a job blocks
+	 * @throws IllegalArgumentException
+	 *             When executor is <code>null</code>, maxConcurrency is lower than 1, or maxPendingJobs is lower than
+	 *             maxConcurrency
+	 */
+	public TableJoinExecutor(final Executor executor, final int maxConcurrency, final int maxPendingJobs)
+		throws IllegalArgumentException {
+		if (executor == null) {
+			throw new IllegalArgumentException("Executor cannot be null");
+		}
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("Invalid maximum concurrency (maxConcurrency=" + maxConcurrency + ")");
+		}
+		if (maxPendingJobs < maxConcurrency) {
+			throw new IllegalArgumentException(
+				"Invalid maximum number of pending jobs (maxPendingJobs=" +
+				maxPendingJobs +
+				", maxConcurrency=" +
+				maxConcurrency +
+				")"
+			);
+		}
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+		this.maxPendingJobs = maxPendingJobs;
+		this.pendingJobPermits = new Semaphore(maxPendingJobs);
+	}
+
+	/**
+	 * Submit a job, waiting for one of the pending jobs to complete if there are already too many of them
+	 *
+	 * @param <T>
+	 *             The type of the result of the job
+	 * @param job
+	 *             The job, e.g. <code>() -&gt; TableJoin.join(...)</code>
+	 * @return the future result of the job, completed exceptionally with the exception thrown by the job, or with the
+	 * {@link RejectedExecutionException} of the {@link Executor}. A job whose future is cancelled before it starts is
+	 * not run.
+	 * @throws IllegalArgumentException
+	 *             When job is <code>null</code>
+	 * @throws InterruptedException
+	 *             When the current thread is interrupted while waiting for a pending job to complete
+	 */
+	public <T> CompletableFuture<T> submit(final Supplier<T> job) throws IllegalArgumentException, InterruptedException {
+		if (job == null) {
+			throw new IllegalArgumentException("Job cannot be null");
+		}
+		pendingJobPermits.acquire();
+		final Job<T> pendingJob = new Job<>(job);
+		queue.add(pendingJob);
+		startWorker();
+		return pendingJob.future;
+	}
+
+	/**
+	 * Submit a batch of jobs, one after the other, waiting for pending jobs to complete whenever there are too many of
+	 * them
+	 *
+	 * @param <T>
+	 *             The type of the results of the jobs
+	 * @param jobs
+	 *             The jobs
+	 * @return the future results of the jobs, in the same order as the jobs (see {@link #submit(Supplier)})
+	 * @throws IllegalArgumentException
+	 *             When jobs is <code>null</code> or contains <code>null</code>
+	 * @throws InterruptedException
+	 *             When the current thread is interrupted while waiting for a pending job to complete (the jobs
+	 *             already submitted keep running)
+	 */
+	public <T> List<CompletableFuture<T>> submitAll(final Collection<? extends Supplier<T>> jobs)
+		throws IllegalArgumentException, InterruptedException {
+		if (jobs == null) {
+			throw new IllegalArgumentException("Jobs cannot be null");
+		}
+		final List<CompletableFuture<T>> futures = new ArrayList<>(jobs.size());
+		for (final Supplier<T> job : jobs) {
+			futures.add(submit(job));
+		}
+		return futures;
+	}
+
+	/**
+	 * @return the maximum number of jobs running at the same time
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * @return the maximum number of jobs queued or running, beyond which the submission of a job blocks
+	 */
+	public int getMaxPendingJobs() {
+		return maxPendingJobs;
+	}
+
+	/**
+	 * @return the number of jobs queued or running
+	 */
+	public int getPendingJobCount() {
+		return maxPendingJobs - pendingJobPermits.availablePermits();
+	}
+
+	/**
+	 * Start a worker on the {@link Executor}, unless there are already as many workers as the maximum concurrency or
+	 * no queued job
+	 */
+	private void startWorker() {
+		int workers;
+		do {
+			workers = workerCount.get();
+			if (workers >= maxConcurrency || queue.isEmpty()) {
+				return;
+			}
+		} while (!workerCount.compareAndSet(workers, workers + 1));
+
+		try {
+			executor.execute(this::runQueuedJobs);
+		} catch (RejectedExecutionException e) {
+			// Without any other worker, nothing would run the queued jobs
+			if (workerCount.decrementAndGet() == 0) {
+				Job<?> job;
+				while ((job = queue.poll()) != null) {
+					job.fail(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Run the queued jobs until the queue is empty
+	 */
+	private void runQueuedJobs() {
+		try {
+			Job<?> job;
+			while ((job = queue.poll()) != null) {
+				job.run();
+			}
+		} finally {
+			workerCount.decrementAndGet();
+		}
+
+		// A job queued after the queue was found empty, while this worker still counted, would not run otherwise
+		startWorker();
+	}
+
+	/**
+	 * A submitted job and its future result
+	 */
+	private final class Job<T> {
+
+		private final Supplier<T> supplier;
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+
+		private Job(final Supplier<T> supplier) {
+			this.supplier = supplier;
+		}
+
+		/**
+		 * Run the job (unless its future is already completed, e.g. cancelled) and complete its future. The permit of
+		 * the job is released first, so that the actions depending on the future can submit new jobs.
+		 */
+		private void run() {
+			if (future.isDone()) {
+				pendingJobPermits.release();
+				return;
+			}
+			final T result;
+			try {
+				result = supplier.get();
+			} catch (RuntimeException | Error e) {
+				fail(e);
+				return;
+			}
+			pendingJobPermits.release();
+			future.complete(result);
+		}
+
+		private void fail(final Throwable throwable) {
+			pendingJobPermits.release();
+			future.completeExceptionally(throwable);
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memo of normalized WBEM paths (see {@link WbemKeyNormalizer}), used by the JOIN operations that are given one
+ * (see {@link JoinOptions.Builder#wbemKeyMemo(WbemKeyMemo)}).
+ * <p>
+ * As WBEM paths are long and highly repetitive from one polling cycle to the next, a memo kept from one cycle to the
+ * next normalizes each path only once. A memo is scoped by its owner: it can be shared by all the JOIN operations of
+ * a process, or kept per source, and dropped with it.
+ * <p>
+ * The memo is a bounded LRU cache, split in stripes selected by the hash of the path, each with its own lock and LRU
+ * order, so that concurrent JOIN operations rarely wait for each other.
+ * <p>
+ * This class is thread-safe.
+ *
+ */
+public final class WbemKeyMemo {
+
+	/**
+	 * Maximum number of stripes
+	 */
+	private static final int MAX_STRIPE_COUNT = 16;
+
+	/**
+	 * Minimum number of WBEM paths per stripe, so that small memos keep a single LRU order
+	 */
+	private static final int MIN_STRIPE_CAPACITY = 64;
+
+	private final int capacity;
+	private final Stripe[] stripes;
+	private final Stripe[] foldedStripes;
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * Create an empty memo
+	 *
+	 * @param capacity
+	 *             The maximum number of WBEM paths kept in the memo (the least recently used ones of each stripe are
+	 *             evicted first), for case sensitive and for case insensitive matching
+	 * @throws IllegalArgumentException
+	 *             When capacity is lower than 1
+	 */
+	public WbemKeyMemo(final int capacity) throws IllegalArgumentException {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Invalid memo capacity (capacity=" + capacity + ")");
+		}
+		this.capacity = capacity;
+
+		// A power of 2, so that a stripe is selected with a mask
+		int stripeCount = 1;
+		while (stripeCount < MAX_STRIPE_COUNT && capacity / (stripeCount * 2) >= MIN_STRIPE_CAPACITY) {
+			stripeCount <<= 1;
+		}
+		final int stripeCapacity = (capacity + stripeCount - 1) / stripeCount;
+		stripes = new Stripe[stripeCount];
+		foldedStripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe(stripeCapacity);
+			foldedStripes[i] = new Stripe(stripeCapacity);
+		}
+	}
+
+	/**
+	 * @return the maximum number of WBEM paths kept in the memo
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the number of WBEM paths whose normalized form was found in the memo
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * @return the number of WBEM paths that had to be normalized
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Normalize a WBEM path, from the memo if it is there
+	 *
+	 * @param wbemPath
+	 *             WBEM objectPath to be "normalized"
+	 * @param foldCase
+	 *             Whether the normalized path is meant for case insensitive matching
+	 * @return Re-ordered WBEM path
+	 * @see WbemKeyNormalizer#normalize(String, boolean)
+	 */
+	String normalize(final String wbemPath, final boolean foldCase) {
+		final Stripe[] memoStripes = foldCase ? foldedStripes : stripes;
+		final Stripe stripe = memoStripes[Keys.mix(wbemPath.hashCode()) & (memoStripes.length - 1)];
+		String normalized;
+		synchronized (stripe) {
+			normalized = stripe.get(wbemPath);
+		}
+		if (normalized != null) {
+			hitCount.increment();
+			return normalized;
+		}
+		missCount.increment();
+
+		normalized = WbemKeyNormalizer.normalize(wbemPath, foldCase);
+		synchronized (stripe) {
+			stripe.put(wbemPath, normalized);
+		}
+		return normalized;
+	}
+
+	/**
+	 * Normalize a WBEM path, through the given memo
+	 *
+	 * @param memo
+	 *             The memo, or <code>null</code> to normalize the path every time
+	 * @see #normalize(String, boolean)
+	 */
+	static String normalize(final WbemKeyMemo memo, final String wbemPath, final boolean foldCase) {
+		return memo != null ? memo.normalize(wbemPath, foldCase) : WbemKeyNormalizer.normalize(wbemPath, foldCase);
+	}
+
+	/**
+	 * A stripe of the memo: an LRU map, in access-order, that removes its eldest entry when it is full (guarded by its
+	 * own monitor)
+	 */
+	private static final class Stripe extends LinkedHashMap<String, String> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		private Stripe(final int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+			return size() > capacity;
+		}
+	}
+}
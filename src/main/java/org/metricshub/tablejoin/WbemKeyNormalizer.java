@@ -0,0 +1,210 @@
+package org.metricshub.tablejoin;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * TableJoin Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+/**
+ * Normalizes WBEM object paths so that they can be matched regardless of the order of their key properties.
+ * <p>
+ * A WBEM path is in the form <code>class.key1="value1",key2="value2"</code>. Its key properties are sorted
+ * alphabetically and joined with dots, e.g. <code>class.key1="value1".key2="value2"</code>. The path is parsed
+ * in a single pass: the key properties are located by their offsets and compared in place, so the normalized
+ * key is the only {@link String} that gets created.
+ * <p>
+ * This class has no state: the normalized keys can be memoized in a {@link WbemKeyMemo}, owned by the caller.
+ *
+ */
+public final class WbemKeyNormalizer {
+
+	private WbemKeyNormalizer() {}
+
+	/**
+	 * Sort alphabetically the key properties of a WBEM object path so that we can match them easily while joining the 2 tables
+	 *
+	 * @param wbemPath
+	 *             WBEM objectPath to be "normalized"
+	 * @return Re-ordered WBEM path
+	 */
+	public static String normalize(final String wbemPath) {
+		return normalize(wbemPath, false);
+	}
+
+	/**
+	 * Sort alphabetically the key properties of a WBEM object path so that we can match them easily while joining the 2 tables
+	 *
+	 * @param wbemPath
+	 *             WBEM objectPath to be "normalized"
+	 * @param foldCase
+	 *             Whether the normalized path is meant for case insensitive matching: the key properties are then
+	 *             sorted regardless of their case, and returned in lower case
+	 * @return Re-ordered WBEM path
+	 */
+	public static String normalize(final String wbemPath, final boolean foldCase) {
+		return normalizeWbemReference(wbemPath, foldCase);
+	}
+
+	/**
+	 * Sort the key properties of the given WBEM path
+	 *
+	 * @param wbemPath
+	 *             WBEM objectPath to be "normalized"
+	 * @param foldCase
+	 *             Whether the case of the key properties is folded
+	 * @return Re-ordered WBEM path
+	 */
+	private static String normalizeWbemReference(final String wbemPath, final boolean foldCase) {
+		// wbemPath is in the form below:
+		// class.key1="value1",key2="value2"
+		// Locate the class and the list of key properties
+		final int dotIndex = wbemPath.indexOf('.');
+		if (dotIndex < 1) {
+			// This is not the expected format, let's quit without touching that string
+			return foldCase ? Keys.foldCase(wbemPath) : wbemPath;
+		}
+		final int length = wbemPath.length();
+
+		// Locate the key properties: a key property ends with ", (the double quote is part of the key property)
+		// End-of-lines also separate key properties
+		// starts[i] and ends[i] are the boundaries of the i-th key property
+		int[] starts = new int[8];
+		int[] ends = new int[8];
+		int count = 0;
+		boolean split = false;
+		int propertyStart = dotIndex + 1;
+		int i = propertyStart;
+		while (i < length) {
+			final char c = wbemPath.charAt(i);
+			final int propertyEnd;
+			final int next;
+			if (c == '"' && i + 1 < length && wbemPath.charAt(i + 1) == ',') {
+				propertyEnd = i + 1;
+				next = i + 2;
+			} else if (c == '\n') {
+				propertyEnd = i;
+				next = i + 1;
+			} else {
+				i++;
+				continue;
+			}
+			if (count == starts.length) {
+				starts = grow(starts);
+				ends = grow(ends);
+			}
+			starts[count] = propertyStart;
+			ends[count] = propertyEnd;
+			count++;
+			split = true;
+			propertyStart = next;
+			i = next;
+		}
+		if (count == starts.length) {
+			starts = grow(starts);
+			ends = grow(ends);
+		}
+		starts[count] = propertyStart;
+		ends[count] = length;
+		count++;
+
+		// Like String.split(), trailing empty key properties are discarded (unless nothing was split)
+		if (split) {
+			while (count > 0 && starts[count - 1] == ends[count - 1]) {
+				count--;
+			}
+		}
+
+		// Sort the key properties (insertion sort, as there are only a few key properties in a WBEM path)
+		for (int j = 1; j < count; j++) {
+			final int start = starts[j];
+			final int end = ends[j];
+			int k = j - 1;
+			while (k >= 0 && compareRegions(wbemPath, starts[k], ends[k], start, end, foldCase) > 0) {
+				starts[k + 1] = starts[k];
+				ends[k + 1] = ends[k];
+				k--;
+			}
+			starts[k + 1] = start;
+			ends[k + 1] = end;
+		}
+
+		// Return a string with the key properties in the right order, separated with dots
+		final StringBuilder result = new StringBuilder(length + 1);
+		appendRegion(result, wbemPath, 0, dotIndex, foldCase);
+		for (int j = 0; j < count; j++) {
+			result.append('.');
+			appendRegion(result, wbemPath, starts[j], ends[j], foldCase);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Compare lexicographically two regions of the same string, like {@link String#compareTo(String)} would
+	 * (on the folded characters if foldCase is <code>true</code>)
+	 */
+	private static int compareRegions(
+		final String value,
+		final int start1,
+		final int end1,
+		final int start2,
+		final int end2,
+		final boolean foldCase
+	) {
+		final int length1 = end1 - start1;
+		final int length2 = end2 - start2;
+		final int min = Math.min(length1, length2);
+		for (int i = 0; i < min; i++) {
+			char c1 = value.charAt(start1 + i);
+			char c2 = value.charAt(start2 + i);
+			if (foldCase) {
+				c1 = Keys.fold(c1);
+				c2 = Keys.fold(c2);
+			}
+			if (c1 != c2) {
+				return c1 - c2;
+			}
+		}
+		return length1 - length2;
+	}
+
+	/**
+	 * Append a region of a string to the given {@link StringBuilder} (folding the case of its characters if foldCase
+	 * is <code>true</code>)
+	 */
+	private static void appendRegion(
+		final StringBuilder result,
+		final String value,
+		final int start,
+		final int end,
+		final boolean foldCase
+	) {
+		if (foldCase) {
+			for (int i = start; i < end; i++) {
+				result.append(Keys.fold(value.charAt(i)));
+			}
+		} else {
+			result.append(value, start, end);
+		}
+	}
+
+	private static int[] grow(final int[] array) {
+		final int[] grown = new int[array.length * 2];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
@@ -0,0 +1,82 @@
+package org.metricshub.tablejoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CellDictionaryTest {
+
+	@Test
+	void sharedCells() {
+		List<List<String>> first = TableJoin.stringToTable("host1;OK;\nhost2;OK;", ";");
+		assertNotSame(first.get(0).get(1), first.get(1).get(1));
+
+		final CellDictionary dictionary = new CellDictionary(1000);
+		assertEquals(1024, dictionary.getCapacity());
+		first = TableJoin.stringToTable("host1;OK;\nhost2;OK;;", ";", dictionary);
+		final List<List<String>> second = TableJoin.stringToTable("host1;OK;", ";", dictionary);
+		assertEquals(Arrays.asList(Arrays.asList("host1", "OK"), Arrays.asList("host2", "OK", "")), first);
+
+		// Across rows and across calls with the same dictionary
+		assertSame(first.get(0).get(1), first.get(1).get(1));
+		assertSame(first.get(0).get(0), second.get(0).get(0));
+		assertEquals(3, dictionary.getHitCount());
+		assertEquals(3, dictionary.getMissCount());
+
+		// Another dictionary shares nothing with the first one
+		final CellDictionary otherDictionary = new CellDictionary(16);
+		assertNotSame(first.get(0).get(0), TableJoin.stringToTable("host1;", ";", otherDictionary).get(0).get(0));
+		assertEquals(0, otherDictionary.getHitCount());
+
+		assertThrows(IllegalArgumentException.class, () -> new CellDictionary(0));
+	}
+
+	@Test
+	void admission() {
+		// A single slot: a value in use is not evicted by the other values
+		final CellDictionary dictionary = new CellDictionary(1);
+		final List<String> line = TableJoin.stringToTable("a;b;a;b;", ";", dictionary).get(0);
+		assertEquals(Arrays.asList("a", "b", "a", "b"), line);
+		assertSame(line.get(0), line.get(2));
+		assertNotSame(line.get(1), line.get(3));
+		assertEquals(1, dictionary.getHitCount());
+		assertEquals(3, dictionary.getMissCount());
+	}
+
+	@Test
+	void join() throws IOException {
+		final CellDictionary dictionary = new CellDictionary(64);
+		final JoinOptions options = JoinOptions.builder().cellDictionary(dictionary).build();
+		final String leftTable = "1;OK;\n2;OK;\n3;Failed;";
+		final String rightTable = "1;disk;\n2;disk;";
+		final String expected = "1;OK;1;disk;\n2;OK;2;disk;";
+		assertEquals(expected, TableJoin.join(leftTable, rightTable, 1, 1, ";", null, false, false, options));
+		// At least "OK" and "disk" are shared
+		final long hitCount = dictionary.getHitCount();
+		assertTrue(hitCount >= 2);
+
+		final StringBuilder output = new StringBuilder();
+		TableJoin.join(
+			new StringReader(leftTable),
+			new StringReader(rightTable),
+			1,
+			1,
+			";",
+			null,
+			false,
+			false,
+			output,
+			options
+		);
+		assertEquals(expected, output.toString());
+		assertTrue(dictionary.getHitCount() > hitCount);
+	}
+}
@@ -0,0 +1,104 @@
+package org.metricshub.tablejoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IncrementalJoinTest {
+
+	@Test
+	void leftJoin() {
+		final IncrementalJoin join = new IncrementalJoin(1, 1, Arrays.asList("none"), false, true);
+		assertTrue(join.putRight("r1", Arrays.asList("DISK1", "ssd")).isEmpty());
+
+		List<IncrementalJoin.Change> changes = join.putLeft("l1", Arrays.asList("disk1", "OK"));
+		assertEquals(1, changes.size());
+		assertEquals(IncrementalJoin.Change.Type.ADDED, changes.get(0).getType());
+		assertEquals("l1", changes.get(0).getLeftRowId());
+		assertNull(changes.get(0).getPreviousLine());
+		assertEquals(Arrays.asList("disk1", "OK", "DISK1", "ssd"), changes.get(0).getLine());
+
+		changes = join.putLeft("l2", Arrays.asList("disk2", "OK"));
+		assertEquals(Arrays.asList("disk2", "OK", "none"), changes.get(0).getLine());
+
+		// A right key appears: the default right line is replaced
+		changes = join.putRight("r2", Arrays.asList("disk2", "hdd"));
+		assertEquals(1, changes.size());
+		assertEquals(IncrementalJoin.Change.Type.UPDATED, changes.get(0).getType());
+		assertEquals(Arrays.asList("disk2", "OK", "none"), changes.get(0).getPreviousLine());
+		assertEquals(Arrays.asList("disk2", "OK", "disk2", "hdd"), changes.get(0).getLine());
+
+		// A duplicate right key doesn't change anything, until the first right row is deleted
+		assertTrue(join.putRight("r3", Arrays.asList("disk2", "duplicate")).isEmpty());
+		changes = join.removeRight("r2");
+		assertEquals(Arrays.asList("disk2", "OK", "disk2", "duplicate"), changes.get(0).getLine());
+
+		// The right key disappears: back to the default right line
+		changes = join.removeRight("r3");
+		assertEquals(Arrays.asList("disk2", "OK", "none"), changes.get(0).getLine());
+
+		// Updating a right row keeps its position, updating a left row keeps its position too
+		join.putLeft("l1", Arrays.asList("disk1", "Failed"));
+		assertEquals(
+			Arrays.asList(Arrays.asList("disk1", "Failed", "DISK1", "ssd"), Arrays.asList("disk2", "OK", "none")),
+			join.getResult()
+		);
+
+		changes = join.removeLeft("l1");
+		assertEquals(IncrementalJoin.Change.Type.REMOVED, changes.get(0).getType());
+		assertNull(changes.get(0).getLine());
+		assertTrue(join.removeLeft("l1").isEmpty());
+		assertTrue(join.removeRight("unknown").isEmpty());
+		assertEquals(1, join.getLeftRowCount());
+		assertEquals(1, join.getRightRowCount());
+	}
+
+	@Test
+	void innerJoin() {
+		final IncrementalJoin join = new IncrementalJoin(new int[] { 1, 2 }, new int[] { 2, 1 }, null, false, false);
+		join.putLeft("l1", Arrays.asList("a", "1", "left1"));
+		join.putLeft("l2", Arrays.asList("b", "2", "left2"));
+		join.putLeft("l3", Arrays.asList("a", "1", "left3"));
+		// Invalid left row (empty key)
+		join.putLeft("l4", Arrays.asList("", "1", "left4"));
+		assertTrue(join.getResult().isEmpty());
+
+		// Both left rows with the key are reported, in the order of the left rows
+		final List<IncrementalJoin.Change> changes = join.putRight("r1", Arrays.asList("1", "a", "right1"));
+		assertEquals(2, changes.size());
+		assertEquals("l1", changes.get(0).getLeftRowId());
+		assertEquals("l3", changes.get(1).getLeftRowId());
+
+		// Moving a right row to another key
+		join.putRight("r1", Arrays.asList("2", "b", "right1"));
+		assertEquals(Arrays.asList(Arrays.asList("b", "2", "left2", "2", "b", "right1")), join.getResult());
+
+		// Same result as a full JOIN
+		assertEquals(
+			TableJoin.join(
+				Arrays.asList(
+					Arrays.asList("a", "1", "left1"),
+					Arrays.asList("b", "2", "left2"),
+					Arrays.asList("a", "1", "left3")
+				),
+				Arrays.asList(Arrays.asList("2", "b", "right1")),
+				new int[] { 1, 2 },
+				new int[] { 2, 1 },
+				null,
+				false,
+				false,
+				JoinOptions.DEFAULT
+			),
+			join.getResult()
+		);
+
+		assertThrows(IllegalArgumentException.class, () -> join.putLeft(null, Arrays.asList("a")));
+		assertThrows(IllegalArgumentException.class, () -> join.putRight("r2", null));
+		assertThrows(IllegalArgumentException.class, () -> new IncrementalJoin(0, 1, null, false, false));
+	}
+}
@@ -0,0 +1,251 @@
+package org.metricshub.tablejoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+class JoinIndexTest {
+
+	private static final String RIGHT_CSV = "1;a;I;Good;\n3;c;III;Good;\n1;a;I;Duplicate;\n4;";
+	private static final List<List<String>> RIGHT_TABLE = TableJoin.stringToTable(RIGHT_CSV, ";");
+
+	@Test
+	void lookup() {
+		final JoinIndex index = JoinIndex.build(RIGHT_TABLE, 2, false, true);
+		assertEquals(2, index.size());
+		assertEquals(Arrays.asList("1", "a", "I", "Good"), index.lookup(Arrays.asList("A", "x"), 1));
+		assertEquals(Arrays.asList("3", "c", "III", "Good"), index.lookup(Arrays.asList("x", "C"), 2));
+		assertNull(index.lookup(Arrays.asList("B"), 1));
+
+		assertEquals(0, JoinIndex.build(null, 1, false, false).size());
+		assertThrows(IllegalArgumentException.class, () -> JoinIndex.build(RIGHT_TABLE, 0, false, false));
+	}
+
+	@Test
+	void caseInsensitive() {
+		final Locale defaultLocale = Locale.getDefault();
+		try {
+			// In Turkish, "I".toLowerCase() is not "i"
+			Locale.setDefault(new Locale("tr", "TR"));
+			final JoinIndex index = JoinIndex.build(TableJoin.stringToTable("TITLE;1;\nİ;2;", ";"), 1, false, true);
+			assertEquals(Arrays.asList("TITLE", "1"), index.get("title"));
+			assertEquals(Arrays.asList("TITLE", "1"), index.get("TiTlE"));
+			assertNull(index.get("titles"));
+			assertNull(JoinIndex.build(TableJoin.stringToTable("TITLE;1;", ";"), 1, false, false).get("title"));
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+
+		// WBEM key properties are sorted regardless of their case
+		final JoinIndex wbemIndex = JoinIndex.build(TableJoin.stringToTable("c.B=\"x\",a=\"y\";1;", ";"), 1, true, true);
+		assertEquals(Arrays.asList("c.B=\"x\",a=\"y\"", "1"), wbemIndex.get("C.A=\"Y\",b=\"X\""));
+		assertEquals("c.a=\"y\".b=\"x\"", TableJoin.getKey(Arrays.asList("C.b=\"X\",A=\"Y\""), 1, true, true));
+	}
+
+	@Test
+	void compositeKey() {
+		final JoinIndex index = JoinIndex.build(RIGHT_TABLE, new int[] { 1, 3 }, false, true);
+		assertEquals(2, index.size());
+		assertEquals(Arrays.asList("1", "a", "I", "Good"), index.lookup(Arrays.asList("x", "1", "i"), new int[] { 2, 3 }));
+		assertNull(index.lookup(Arrays.asList("1", "III"), new int[] { 1, 2 }));
+		assertThrows(IllegalArgumentException.class, () -> index.lookup(Arrays.asList("1", "I"), new int[] { 1 }));
+		assertThrows(IllegalArgumentException.class, () -> index.get("1"));
+		assertThrows(IllegalArgumentException.class, () -> JoinIndex.build(RIGHT_TABLE, new int[0], false, false));
+
+		// Each key column is normalized on its own
+		final JoinIndex wbemIndex = JoinIndex.build(
+			TableJoin.stringToTable("c.b=\"x\",a=\"y\";d.a=\"1\";1;", ";"),
+			new int[] { 1, 2 },
+			true,
+			false
+		);
+		assertEquals(
+			Arrays.asList("c.b=\"x\",a=\"y\"", "d.a=\"1\"", "1"),
+			wbemIndex.lookup(Arrays.asList("d.a=\"1\"", "c.a=\"y\",b=\"x\""), new int[] { 2, 1 })
+		);
+	}
+
+	@Test
+	void bloomFilter() {
+		final JoinIndex index = JoinIndex.build(RIGHT_TABLE, new int[] { 1, 3 }, false, true);
+		final JoinIndex filteredIndex = index.withBloomFilter(0.01);
+		assertFalse(index.hasBloomFilter());
+		assertTrue(filteredIndex.hasBloomFilter());
+		assertEquals(index.size(), filteredIndex.size());
+		final int[] keys = { 1, 2 };
+		assertEquals(Arrays.asList("1", "a", "I", "Good"), filteredIndex.lookup(Arrays.asList("1", "i"), keys));
+		assertEquals(Arrays.asList("3", "c", "III", "Good"), filteredIndex.lookup(Arrays.asList("3", "III"), keys));
+		assertNull(filteredIndex.lookup(Arrays.asList("2", "II"), keys));
+
+		final JoinStats stats = new JoinStats();
+		final List<List<String>> leftTable = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			leftTable.add(Arrays.asList(Integer.toString(i), "left"));
+		}
+		final JoinOptions options = JoinOptions.builder().bloomFilter(0.01).stats(stats).build();
+		assertEquals(
+			TableJoin.join(leftTable, RIGHT_TABLE, 1, 1, null, false, false),
+			TableJoin.join(leftTable, RIGHT_TABLE, 1, 1, null, false, false, options)
+		);
+		// Most of the 998 left rows without a match are rejected by the Bloom filter
+		assertTrue(stats.getBloomFilterSkippedProbeCount() > 900);
+
+		// Numeric keys are filtered before they are parsed, on the hash of their string
+		final JoinStats numericStats = new JoinStats();
+		final JoinOptions numericOptions = JoinOptions
+			.builder()
+			.numericKeys(true)
+			.bloomFilter(0.01)
+			.stats(numericStats)
+			.build();
+		assertEquals(
+			TableJoin.join(leftTable, RIGHT_TABLE, 1, 1, null, false, false),
+			TableJoin.join(leftTable, RIGHT_TABLE, 1, 1, null, false, false, numericOptions)
+		);
+		assertTrue(numericStats.getBloomFilterSkippedProbeCount() > 900);
+
+		assertThrows(IllegalArgumentException.class, () -> index.withBloomFilter(0));
+		assertThrows(IllegalArgumentException.class, () -> index.withBloomFilter(1));
+		assertThrows(IllegalArgumentException.class, () -> JoinOptions.builder().bloomFilter(-0.1));
+	}
+
+	@Test
+	void numericKeys() {
+		final JoinOptions options = JoinOptions.builder().numericKeys(true).build();
+		final List<List<String>> rightTable = TableJoin.stringToTable(
+			"7;seven;\n07;leading zero;\n-3;minus three;\nabc;text;\n1234567890123456789;long;\n7;duplicate;",
+			";"
+		);
+		final JoinIndex index = JoinIndex.build(rightTable, new int[] { 1 }, false, true, options);
+		assertTrue(index.isNumericKeys());
+		assertEquals(5, index.size());
+		assertEquals(Arrays.asList("7", "seven"), index.get("7"));
+		assertEquals(Arrays.asList("07", "leading zero"), index.get("07"));
+		assertEquals(Arrays.asList("-3", "minus three"), index.get("-3"));
+		assertEquals(Arrays.asList("abc", "text"), index.get("ABC"));
+		assertEquals(Arrays.asList("1234567890123456789", "long"), index.get("1234567890123456789"));
+		assertNull(index.get("+7"));
+		assertNull(index.get("-0"));
+		assertNull(index.get("8"));
+
+		// Same result as with string keys
+		final List<List<String>> leftTable = TableJoin.stringToTable("7;a;\n8;b;\n07;c;\nABC;d;\n-3;e;", ";");
+		assertEquals(
+			TableJoin.join(leftTable, rightTable, 1, 1, Arrays.asList("none"), false, true),
+			TableJoin.join(leftTable, rightTable, 1, 1, Arrays.asList("none"), false, true, options)
+		);
+
+		// Numeric keys are only used for single-column keys that are not WBEM paths
+		assertFalse(JoinIndex.build(rightTable, new int[] { 1, 2 }, false, false, options).isNumericKeys());
+		assertFalse(JoinIndex.build(rightTable, new int[] { 1 }, true, false, options).isNumericKeys());
+		assertFalse(JoinIndex.build(rightTable, 1, false, false).isNumericKeys());
+	}
+
+	@Test
+	void offHeap() {
+		final JoinIndex index = JoinIndex.build(RIGHT_TABLE, new int[] { 1, 3 }, false, true).withBloomFilter(0.01);
+		final JoinIndex offHeapIndex = index.offHeap();
+		assertFalse(index.isOffHeap());
+		assertTrue(offHeapIndex.isOffHeap());
+		assertTrue(offHeapIndex.hasBloomFilter());
+		assertSame(offHeapIndex, offHeapIndex.offHeap());
+		assertEquals(index.size(), offHeapIndex.size());
+		final int[] keys = { 1, 2 };
+		assertEquals(Arrays.asList("1", "a", "I", "Good"), offHeapIndex.lookup(Arrays.asList("1", "i"), keys));
+		assertEquals(Arrays.asList("3", "c", "III", "Good"), offHeapIndex.lookup(Arrays.asList("3", "III"), keys));
+		assertNull(offHeapIndex.lookup(Arrays.asList("2", "II"), keys));
+
+		// Same lookups as the heap index, including the keys written as integers and the null cells
+		final List<List<String>> rightTable = TableJoin.stringToTable("7;seven;\n07;zero;\nÉté;summer;\n;empty;", ";");
+		rightTable.get(1).set(1, null);
+		final JoinIndex numericIndex = JoinIndex.build(
+			rightTable,
+			new int[] { 1 },
+			false,
+			true,
+			JoinOptions.builder().numericKeys(true).build()
+		);
+		try (JoinIndex offHeapNumericIndex = numericIndex.offHeap()) {
+			assertEquals(numericIndex.size(), offHeapNumericIndex.size());
+			for (final String key : new String[] { "7", "07", "ÉTÉ", "été", "", "8", "seven" }) {
+				assertEquals(numericIndex.get(key), offHeapNumericIndex.get(key));
+			}
+			final List<List<String>> leftTable = TableJoin.stringToTable("7;a;\n8;b;\n07;c;\nété;d;", ";");
+			assertEquals(
+				TableJoin.join(leftTable, numericIndex, 1, Arrays.asList("none")),
+				TableJoin.join(leftTable, offHeapNumericIndex, 1, Arrays.asList("none"))
+			);
+		}
+
+		// A closed index cannot be used anymore, while closing a heap index has no effect
+		offHeapIndex.close();
+		assertThrows(IllegalStateException.class, () -> offHeapIndex.lookup(Arrays.asList("2", "II"), keys));
+		index.close();
+		assertEquals(Arrays.asList("1", "a", "I", "Good"), index.lookup(Arrays.asList("1", "i"), keys));
+
+		// Closing frees the off-heap memory right away, without waiting for the garbage collector
+		final BufferPoolMXBean directBuffers = ManagementFactory
+			.getPlatformMXBeans(BufferPoolMXBean.class)
+			.stream()
+			.filter(bufferPool -> "direct".equals(bufferPool.getName()))
+			.findFirst()
+			.get();
+		final long usedMemory = directBuffers.getMemoryUsed();
+		final JoinIndex closedIndex = index.offHeap();
+		assertTrue(directBuffers.getMemoryUsed() > usedMemory);
+		closedIndex.close();
+		assertTrue(directBuffers.getMemoryUsed() <= usedMemory);
+	}
+
+	@Test
+	void join() {
+		final JoinIndex index = JoinIndex.build(RIGHT_TABLE, 1, false, false);
+		final String leftTable = "1;A;i;\n2;B;ii;\n3;C;iii;";
+		assertEquals(
+			TableJoin.join(leftTable, "1;a;I;Good;\n3;c;III;Good;", 1, 1, ";", null, false, false),
+			TableJoin.join(leftTable, index, 1, ";", null)
+		);
+		assertEquals(
+			"1;A;i;1;a;I;Good;\n2;B;ii;x;\n3;C;iii;3;c;III;Good;",
+			TableJoin.join(leftTable, index, 1, ";", "x;")
+		);
+		assertEquals("", TableJoin.join(leftTable, (JoinIndex) null, 1, ";", null));
+		assertEquals("1;A;i;x;\n2;B;ii;x;\n3;C;iii;x;", TableJoin.join(leftTable, (JoinIndex) null, 1, ";", "x;"));
+	}
+
+	@Test
+	void cache() {
+		final JoinIndexCache cache = new JoinIndexCache(2);
+		final JoinIndex index = cache.get(RIGHT_TABLE, 1, false, false);
+
+		// Same content, different instance
+		assertSame(index, cache.get(TableJoin.stringToTable(RIGHT_CSV, ";"), 1, false, false));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		// Different options or content
+		assertNotSame(index, cache.get(RIGHT_TABLE, 1, false, true));
+		assertNotSame(index, cache.get(TableJoin.stringToTable("1;a;I;Good;", ";"), 1, false, false));
+		assertEquals(3, cache.getMissCount());
+
+		// The first index has been evicted
+		assertEquals(2, cache.size());
+		assertNotSame(index, cache.get(RIGHT_TABLE, 1, false, false));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertThrows(IllegalArgumentException.class, () -> new JoinIndexCache(0));
+	}
+}
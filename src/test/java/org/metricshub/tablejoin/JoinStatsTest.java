@@ -0,0 +1,192 @@
+package org.metricshub.tablejoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class JoinStatsTest {
+
+	private static final String LEFT_CSV = "1;L1;\n;empty;\n2;L2;\n3;L3;";
+	private static final String RIGHT_CSV = "x;1;\ny;1;\nshort;\nz;2;";
+
+	@Test
+	void counters() {
+		final JoinStats stats = new JoinStats();
+		final JoinOptions options = JoinOptions.builder().stats(stats).build();
+
+		assertEquals("1;L1;x;1;\n2;L2;z;2;", TableJoin.join(LEFT_CSV, RIGHT_CSV, 1, 2, ";", null, false, false, options));
+		assertEquals(1, stats.getJoinCount());
+		assertEquals(4, stats.getLeftRowCount());
+		assertEquals(1, stats.getInvalidLeftRowCount());
+		assertEquals(2, stats.getMatchedLeftRowCount());
+		assertEquals(0, stats.getDefaultedLeftRowCount());
+		assertEquals(1, stats.getUnmatchedLeftRowCount());
+		assertEquals(4, stats.getRightRowCount());
+		assertEquals(1, stats.getIgnoredRightRowCount());
+		assertEquals(1, stats.getDuplicateRightRowCount());
+		assertEquals(0, stats.getWbemNormalizationNanos());
+
+		// The counters are aggregated over all the JOIN operations
+		TableJoin.join(LEFT_CSV, RIGHT_CSV, 1, 2, ";", "none;none", false, false, options);
+		assertEquals(2, stats.getJoinCount());
+		assertEquals(8, stats.getLeftRowCount());
+		assertEquals(4, stats.getMatchedLeftRowCount());
+		assertEquals(1, stats.getDefaultedLeftRowCount());
+		assertEquals(1, stats.getUnmatchedLeftRowCount());
+
+		stats.reset();
+		assertEquals(0, stats.getJoinCount());
+		assertEquals(0, stats.getLeftRowCount());
+		assertEquals(0, stats.getProbeNanos());
+	}
+
+	@Test
+	void timings() {
+		// Enough rows for each step to take a measurable time
+		final StringBuilder left = new StringBuilder();
+		final StringBuilder right = new StringBuilder();
+		for (int i = 0; i < 10_000; i++) {
+			left.append(i).append(";left").append(i).append(";\n");
+			right.append(i).append(";right").append(i).append(";\n");
+		}
+		final JoinStats stats = new JoinStats();
+		TableJoin.join(
+			left.toString(),
+			right.toString(),
+			1,
+			1,
+			";",
+			null,
+			false,
+			false,
+			JoinOptions.builder().algorithm(JoinAlgorithm.HASH).stats(stats).build()
+		);
+		assertEquals(10_000, stats.getMatchedLeftRowCount());
+		assertTrue(stats.getParseNanos() > 0);
+		assertTrue(stats.getIndexBuildNanos() > 0);
+		assertTrue(stats.getProbeNanos() > 0);
+		assertTrue(stats.getOutputNanos() > 0);
+		assertEquals(0, stats.getWbemNormalizationNanos());
+	}
+
+	@Test
+	void algorithms() throws IOException {
+		final JoinStats hashStats = new JoinStats();
+		TableJoin.join(LEFT_CSV, RIGHT_CSV, 1, 2, ";", null, false, false, JoinOptions.builder().stats(hashStats).build());
+
+		// The MERGE algorithm and the JOIN of Readers count the same rows as the HASH algorithm
+		final JoinStats mergeStats = new JoinStats();
+		TableJoin.join(
+			LEFT_CSV,
+			RIGHT_CSV,
+			1,
+			2,
+			";",
+			null,
+			false,
+			false,
+			JoinOptions.builder().algorithm(JoinAlgorithm.MERGE).stats(mergeStats).build()
+		);
+		assertSameCounters(hashStats, mergeStats);
+
+		final JoinStats readerStats = new JoinStats();
+		TableJoin.join(
+			new StringReader(LEFT_CSV),
+			new StringReader(RIGHT_CSV),
+			1,
+			2,
+			";",
+			null,
+			false,
+			false,
+			new StringBuilder(),
+			JoinOptions.builder().stats(readerStats).build()
+		);
+		assertSameCounters(hashStats, readerStats);
+
+		// An unsorted table that falls back to the HASH algorithm is counted once
+		final JoinStats autoStats = new JoinStats();
+		TableJoin.join(
+			"3;L3;\n1;L1;",
+			RIGHT_CSV,
+			1,
+			2,
+			";",
+			null,
+			false,
+			false,
+			JoinOptions.builder().algorithm(JoinAlgorithm.AUTO).stats(autoStats).build()
+		);
+		assertEquals(1, autoStats.getJoinCount());
+		assertEquals(2, autoStats.getLeftRowCount());
+		assertEquals(4, autoStats.getRightRowCount());
+	}
+
+	@Test
+	void wbem() {
+		// Enough sorted rows for the normalization of the WBEM paths to take a measurable time
+		final StringBuilder left = new StringBuilder();
+		final StringBuilder right = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			final String deviceId = String.format("%04d", i);
+			left.append("CIM_Disk.DeviceID=\"").append(deviceId).append("\",Name=\"disk\";left;\n");
+			right.append("CIM_Disk.Name=\"disk\",DeviceID=\"").append(deviceId).append("\";right;\n");
+		}
+
+		// The HASH and the MERGE algorithms both time the normalization
+		for (final JoinAlgorithm algorithm : new JoinAlgorithm[] { JoinAlgorithm.HASH, JoinAlgorithm.MERGE }) {
+			final JoinStats stats = new JoinStats();
+			TableJoin.join(
+				left.toString(),
+				right.toString(),
+				1,
+				1,
+				";",
+				null,
+				true,
+				false,
+				JoinOptions.builder().algorithm(algorithm).stats(stats).build()
+			);
+			assertEquals(1000, stats.getMatchedLeftRowCount());
+			assertTrue(stats.getWbemNormalizationNanos() > 0);
+		}
+	}
+
+	@Test
+	void mxBean() throws JMException {
+		final JoinStats stats = new JoinStats();
+		TableJoin.join(LEFT_CSV, RIGHT_CSV, 1, 2, ";", null, false, false, JoinOptions.builder().stats(stats).build());
+
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName name = new ObjectName("org.metricshub.tablejoin:type=JoinStats,name=test");
+		server.registerMBean(stats, name);
+		try {
+			assertEquals(1L, server.getAttribute(name, "JoinCount"));
+			assertEquals(2L, server.getAttribute(name, "MatchedLeftRowCount"));
+			assertEquals(1L, server.getAttribute(name, "DuplicateRightRowCount"));
+			server.invoke(name, "reset", null, null);
+			assertEquals(0L, server.getAttribute(name, "JoinCount"));
+		} finally {
+			server.unregisterMBean(name);
+		}
+	}
+
+	private static void assertSameCounters(final JoinStats expected, final JoinStats actual) {
+		assertEquals(expected.getJoinCount(), actual.getJoinCount());
+		assertEquals(expected.getLeftRowCount(), actual.getLeftRowCount());
+		assertEquals(expected.getInvalidLeftRowCount(), actual.getInvalidLeftRowCount());
+		assertEquals(expected.getMatchedLeftRowCount(), actual.getMatchedLeftRowCount());
+		assertEquals(expected.getDefaultedLeftRowCount(), actual.getDefaultedLeftRowCount());
+		assertEquals(expected.getUnmatchedLeftRowCount(), actual.getUnmatchedLeftRowCount());
+		assertEquals(expected.getRightRowCount(), actual.getRightRowCount());
+		assertEquals(expected.getIgnoredRightRowCount(), actual.getIgnoredRightRowCount());
+		assertEquals(expected.getDuplicateRightRowCount(), actual.getDuplicateRightRowCount());
+	}
+}
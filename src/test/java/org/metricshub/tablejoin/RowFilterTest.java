@@ -0,0 +1,46 @@
+package org.metricshub.tablejoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RowFilterTest {
+
+	private static final List<String> ROW = Arrays.asList("disk1", "", "OK");
+
+	@Test
+	void parse() {
+		assertTrue(RowFilter.parse("3=OK").test(ROW));
+		assertFalse(RowFilter.parse("3!=OK").test(ROW));
+		assertTrue(RowFilter.parse("1~^disk[0-9]$").test(ROW));
+		assertFalse(RowFilter.parse("1!~disk").test(ROW));
+		assertEquals(3, RowFilter.parse("3!=OK").getColumnNumber());
+		assertEquals("12~a=b", RowFilter.parse("12~a=b").toString());
+
+		// Empty values, and missing cells tested as empty
+		assertTrue(RowFilter.parse("2=").test(ROW));
+		assertTrue(RowFilter.parse("4=").test(ROW));
+		assertTrue(RowFilter.parse("4!=OK").test(ROW));
+
+		assertThrows(IllegalArgumentException.class, () -> RowFilter.parse(null));
+		assertThrows(IllegalArgumentException.class, () -> RowFilter.parse("=OK"));
+		assertThrows(IllegalArgumentException.class, () -> RowFilter.parse("0=OK"));
+		assertThrows(IllegalArgumentException.class, () -> RowFilter.parse("3<OK"));
+		assertThrows(IllegalArgumentException.class, () -> RowFilter.parse("3~("));
+	}
+
+	@Test
+	void factories() {
+		assertTrue(RowFilter.equalTo(1, "disk1").test(ROW));
+		assertFalse(RowFilter.notEqualTo(1, "disk1").test(ROW));
+		assertTrue(RowFilter.matches(3, "O").test(ROW));
+		assertTrue(RowFilter.notMatches(3, "^Degraded$").test(ROW));
+		assertThrows(IllegalArgumentException.class, () -> RowFilter.equalTo(1, null));
+		assertThrows(IllegalArgumentException.class, () -> RowFilter.matches(-1, "x"));
+	}
+}
@@ -0,0 +1,127 @@
+package org.metricshub.tablejoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class TableJoinExecutorTest {
+
+	private static final String RIGHT_CSV = "host1;up;\nhost2;down;";
+
+	@Test
+	void submitAll() throws InterruptedException, ExecutionException {
+		final ExecutorService threadPool = Executors.newFixedThreadPool(4);
+		try {
+			final TableJoinExecutor joinExecutor = new TableJoinExecutor(threadPool, 2, 4);
+			final AtomicInteger running = new AtomicInteger();
+			final AtomicInteger maxRunning = new AtomicInteger();
+			final List<Supplier<String>> jobs = new ArrayList<>();
+			for (int host = 0; host < 50; host++) {
+				final String leftCsv = "host" + host + ";disk1;\nhost" + host + ";disk2;";
+				jobs.add(() -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					try {
+						return TableJoin.join(leftCsv, RIGHT_CSV, 1, 1, ";", "unknown;", false, false);
+					} finally {
+						running.decrementAndGet();
+					}
+				});
+			}
+
+			final List<CompletableFuture<String>> results = joinExecutor.submitAll(jobs);
+			assertEquals(50, results.size());
+			assertEquals("host2;disk1;host2;down;\nhost2;disk2;host2;down;", results.get(2).get());
+			assertEquals("host7;disk1;unknown;\nhost7;disk2;unknown;", results.get(7).get());
+			for (final CompletableFuture<String> result : results) {
+				result.get();
+			}
+			assertTrue(maxRunning.get() <= 2);
+			assertEquals(0, joinExecutor.getPendingJobCount());
+		} finally {
+			threadPool.shutdown();
+		}
+	}
+
+	@Test
+	void backpressure() throws InterruptedException, ExecutionException {
+		// The tasks of the executor are run by hand
+		final List<Runnable> tasks = Collections.synchronizedList(new ArrayList<>());
+		final TableJoinExecutor joinExecutor = new TableJoinExecutor(tasks::add, 1, 2);
+		final CompletableFuture<String> first = joinExecutor.submit(() -> "first");
+		final CompletableFuture<String> second = joinExecutor.submit(() -> "second");
+		assertEquals(2, joinExecutor.getPendingJobCount());
+		assertEquals(1, tasks.size());
+
+		// The third submission waits for a pending job to complete
+		final AtomicReference<CompletableFuture<String>> third = new AtomicReference<>();
+		final Thread producer = new Thread(() -> {
+			try {
+				third.set(joinExecutor.submit(() -> "third"));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		producer.start();
+		producer.join(200);
+		assertTrue(producer.isAlive());
+		assertFalse(first.isDone());
+
+		tasks.get(0).run();
+		producer.join();
+		for (int task = 1; task < tasks.size(); task++) {
+			tasks.get(task).run();
+		}
+		assertEquals(
+			Arrays.asList("first", "second", "third"),
+			Arrays.asList(first.get(), second.get(), third.get().get())
+		);
+		assertEquals(0, joinExecutor.getPendingJobCount());
+	}
+
+	@Test
+	void failures() throws InterruptedException {
+		final TableJoinExecutor joinExecutor = new TableJoinExecutor(Runnable::run, 1, 1);
+		final ExecutionException exception = assertThrows(
+			ExecutionException.class,
+			() -> joinExecutor.submit(() -> TableJoin.join("a;", "a;", 0, 1, ";", null, false, false)).get()
+		);
+		assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+		assertEquals(0, joinExecutor.getPendingJobCount());
+
+		// The jobs that cannot be run fail with the exception of the executor
+		final TableJoinExecutor rejectingExecutor = new TableJoinExecutor(
+			command -> {
+				throw new RejectedExecutionException("Shut down");
+			},
+			1,
+			1
+		);
+		final CompletableFuture<String> rejected = rejectingExecutor.submit(() -> "rejected");
+		assertInstanceOf(
+			RejectedExecutionException.class,
+			assertThrows(ExecutionException.class, rejected::get).getCause()
+		);
+		assertEquals(0, rejectingExecutor.getPendingJobCount());
+
+		assertThrows(IllegalArgumentException.class, () -> joinExecutor.submit(null));
+		assertThrows(IllegalArgumentException.class, () -> new TableJoinExecutor(0));
+		assertThrows(IllegalArgumentException.class, () -> new TableJoinExecutor(null, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new TableJoinExecutor(Runnable::run, 2, 1));
+	}
+}
@@ -3,14 +3,27 @@ package org.metricshub.tablejoin;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class TableJoinTest {
 
@@ -251,6 +264,92 @@ class TableJoinTest {
 		);
 	}
 
+	@Test
+	void streaming() throws IOException {
+		final String leftTable = "\n1;A;i;\n2;B;ii;\n\n3;C;iii;\n;D;iv;\n";
+		final String rightTable = "1;a;I;Good;\n3;c;III;Good;\n1;a;I;Duplicate;";
+
+		final StringBuilder innerJoin = new StringBuilder();
+		TableJoin.join(
+			new StringReader(leftTable),
+			new StringReader(rightTable),
+			1,
+			1,
+			";",
+			null,
+			false,
+			true,
+			innerJoin
+		);
+		assertEquals(TableJoin.join(leftTable, rightTable, 1, 1, ";", null, false, true), innerJoin.toString());
+
+		final StringBuilder leftJoin = new StringBuilder();
+		TableJoin.join(
+			new StringReader(leftTable),
+			new StringReader(rightTable),
+			2,
+			2,
+			";",
+			"default;right;line;",
+			false,
+			false,
+			leftJoin
+		);
+		assertEquals(
+			"1;A;i;default;right;line;\n2;B;ii;default;right;line;\n3;C;iii;default;right;line;\n;D;iv;default;right;line;",
+			leftJoin.toString()
+		);
+
+		final StringBuilder noRightTable = new StringBuilder();
+		TableJoin.join(new StringReader(leftTable), null, 1, 1, ";", "x;", false, false, noRightTable);
+		assertEquals("1;A;i;x;\n2;B;ii;x;\n3;C;iii;x;", noRightTable.toString());
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(new StringReader(leftTable), null, 1, 1, ";", null, false, false, null)
+		);
+	}
+
+	@Test
+	void parallel() {
+		final List<List<String>> leftTable = IntStream
+			.range(0, 20_000)
+			.mapToObj(i -> Arrays.asList(String.valueOf(i % 700), "left" + i))
+			.collect(Collectors.toList());
+		final List<List<String>> rightTable = IntStream
+			.range(0, 500)
+			.mapToObj(i -> Arrays.asList(String.valueOf(i), "right" + i))
+			.collect(Collectors.toList());
+		final List<String> defaultRightLine = Arrays.asList("none", "none");
+		final List<List<String>> innerJoin = TableJoin.join(leftTable, rightTable, 1, 1, null, false, false);
+		final List<List<String>> leftJoin = TableJoin.join(leftTable, rightTable, 1, 1, defaultRightLine, false, false);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final JoinOptions options = JoinOptions
+				.builder()
+				.parallel(true)
+				.parallelThreshold(1000)
+				.executor(executor)
+				.build();
+			assertEquals(innerJoin, TableJoin.join(leftTable, rightTable, 1, 1, null, false, false, options));
+			assertEquals(leftJoin, TableJoin.join(leftTable, rightTable, 1, 1, defaultRightLine, false, false, options));
+		} finally {
+			executor.shutdown();
+		}
+
+		// Common pool, below and above the threshold
+		final JoinOptions options = JoinOptions.builder().parallel(true).build();
+		assertEquals(innerJoin, TableJoin.join(leftTable, rightTable, 1, 1, null, false, false, options));
+		assertEquals(
+			innerJoin.subList(0, 500),
+			TableJoin.join(leftTable.subList(0, 510), rightTable, 1, 1, null, false, false, options)
+		);
+
+		assertThrows(IllegalArgumentException.class, () -> JoinOptions.builder().parallelThreshold(0));
+		assertThrows(IllegalArgumentException.class, () -> JoinOptions.builder().executor(null));
+	}
+
 	@Test
 	void testStringToTable() {
 		final String csvTable = "\n1;A;i;\n\n2;B;ii;\n\n\n3;C;iii;\n\n";
@@ -289,6 +388,29 @@ class TableJoinTest {
 		assertEquals(list, TableJoin.lineToList("a;b;c;", ";"));
 	}
 
+	@Test
+	void testLiteralSeparator() {
+		assertEquals(Arrays.asList("a", "b", "c"), TableJoin.lineToList("a|b|c|", "|"));
+		assertEquals(Arrays.asList("a", "b", "c"), TableJoin.lineToList("a.b.c", "."));
+		assertEquals(Arrays.asList("a", "", "b"), TableJoin.lineToList("a::::b::", "::"));
+		assertEquals(Arrays.asList("a", "b"), TableJoin.lineToList("a::b", "::"));
+
+		// Same as the line with the separator appended to it
+		assertEquals(Arrays.asList("a"), TableJoin.lineToList("a:", "::"));
+		assertEquals(Arrays.asList("a"), TableJoin.lineToList("a:::", "::"));
+		assertEquals(Arrays.asList("a\nb"), TableJoin.lineToList("a\nb", ";"));
+
+		assertEquals(
+			Stream.of(Arrays.asList("1", "A"), Arrays.asList("2", "B")).collect(Collectors.toList()),
+			TableJoin.stringToTable("1||A||\n\n2||B", "||")
+		);
+		// Lines are always split first, so a separator with an end-of-line never matches within a line
+		assertEquals(
+			Stream.of(Arrays.asList("1\t"), Arrays.asList("A"), Arrays.asList("2\t")).collect(Collectors.toList()),
+			TableJoin.stringToTable("1\t\nA\n2\t", "\t\n")
+		);
+	}
+
 	@Test
 	void testTableToString() {
 		assertEquals(null, TableJoin.tableToString(null, ";"));
@@ -316,4 +438,471 @@ class TableJoinTest {
 			)
 		);
 	}
+
+	@Test
+	void testCompositeKey() {
+		final String leftTable = "1;a;left1;\n1;b;left2;\n2;a;left3;\n;a;left4;";
+		final String rightTable = "A;1;right1;\n1;b;right2;\nb;1;right3;";
+
+		assertEquals(
+			"1;a;left1;A;1;right1;\n1;b;left2;b;1;right3;",
+			TableJoin.join(
+				leftTable,
+				rightTable,
+				new int[] { 1, 2 },
+				new int[] { 2, 1 },
+				";",
+				null,
+				false,
+				true,
+				JoinOptions.DEFAULT
+			)
+		);
+		assertEquals(
+			"1;a;left1;x;\n1;b;left2;b;1;right3;\n2;a;left3;x;",
+			TableJoin.join(
+				leftTable,
+				rightTable,
+				new int[] { 1, 2 },
+				new int[] { 2, 1 },
+				";",
+				"x;",
+				false,
+				false,
+				JoinOptions.DEFAULT
+			)
+		);
+
+		// Same result as a single key column
+		final List<List<String>> left = TableJoin.stringToTable(leftTable, ";");
+		final List<List<String>> right = TableJoin.stringToTable(rightTable, ";");
+		assertEquals(
+			TableJoin.join(left, right, 2, 1, null, false, true),
+			TableJoin.join(left, right, new int[] { 2 }, new int[] { 1 }, null, false, true, JoinOptions.DEFAULT)
+		);
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(left, right, new int[] { 1, 2 }, new int[] { 1 }, null, false, false, JoinOptions.DEFAULT)
+		);
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(left, right, new int[] { 1, 0 }, new int[] { 1, 2 }, null, false, false, JoinOptions.DEFAULT)
+		);
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(left, JoinIndex.build(right, 1, false, false), new int[] { 1, 2 }, null, JoinOptions.DEFAULT)
+		);
+	}
+
+	@Test
+	void testMergeJoin() {
+		final JoinOptions merge = JoinOptions.builder().algorithm(JoinAlgorithm.MERGE).build();
+		final JoinOptions auto = JoinOptions.builder().algorithm(JoinAlgorithm.AUTO).build();
+
+		// Sorted case insensitive, with duplicate keys on both sides
+		final String leftTable = "a;left1;\nB;left2;\nb;left3;\nc;left4;\nE;left5;";
+		final String rightTable = "A;right1;\nb;right2;\nB;right3;\nd;right4;\ne;right5;";
+		final String expected = "a;left1;A;right1;\nB;left2;b;right2;\nb;left3;b;right2;\nE;left5;e;right5;";
+		assertEquals(expected, TableJoin.join(leftTable, rightTable, 1, 1, ";", null, false, true, merge));
+		assertEquals(expected, TableJoin.join(leftTable, rightTable, 1, 1, ";", null, false, true, auto));
+		assertEquals(
+			TableJoin.join(leftTable, rightTable, 1, 1, ";", "x;", false, true),
+			TableJoin.join(leftTable, rightTable, 1, 1, ";", "x;", false, true, merge)
+		);
+
+		// Tables without random access are copied, not walked again for each row
+		final List<List<String>> leftRows = new LinkedList<>(TableJoin.stringToTable(leftTable, ";"));
+		final List<List<String>> rightRows = new LinkedList<>(TableJoin.stringToTable(rightTable, ";"));
+		assertEquals(
+			TableJoin.stringToTable(expected, ";"),
+			TableJoin.join(leftRows, rightRows, 1, 1, null, false, true, merge)
+		);
+
+		// Not sorted (case sensitive order)
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(leftTable, rightTable, 1, 1, ";", null, false, false, merge)
+		);
+		assertEquals(
+			TableJoin.join(leftTable, rightTable, 1, 1, ";", null, false, false),
+			TableJoin.join(leftTable, rightTable, 1, 1, ";", null, false, false, auto)
+		);
+
+		// A right key out of order after the last left key would be missed by the merge
+		assertEquals(
+			"b;left;b;right;",
+			TableJoin.join("b;left;", "a;right;\nc;right;\nb;right;", 1, 1, ";", null, false, false, auto)
+		);
+	}
+
+	@Test
+	void testChainedJoin() {
+		final String metrics = "disk1;host1;10;\ndisk2;host2;20;\ndisk3;host1;30;";
+		final String disks = "DISK1;ssd;\nDISK3;hdd;";
+		final String hosts = "host1;site1;\nhost2;site2;";
+		final String sites = "site1;Paris;";
+
+		// The key column of the sites is in the row built by the previous JOIN operations
+		final List<JoinSpec> joinSpecs = Arrays.asList(
+			JoinSpec
+				.builder()
+				.rightTable(disks, ";")
+				.keyColumns(1, 1)
+				.caseInsensitive(true)
+				.defaultRightLine("-;none")
+				.build(),
+			JoinSpec
+				.builder()
+				.rightTableIndex(JoinIndex.build(TableJoin.stringToTable(hosts, ";"), 1, false, false))
+				.keyColumns(2, 1)
+				.build(),
+			JoinSpec.builder().rightTable(sites, ";").keyColumns(7, 1).build()
+		);
+		final String expected =
+			"disk1;host1;10;DISK1;ssd;host1;site1;site1;Paris;\ndisk3;host1;30;DISK3;hdd;host1;site1;site1;Paris;";
+		assertEquals(expected, TableJoin.join(metrics, joinSpecs, ";", null));
+
+		// Same result as joining the tables one after the other
+		final String disksJoined = TableJoin.join(metrics, disks, 1, 1, ";", "-;none", false, true);
+		final String hostsJoined = TableJoin.join(disksJoined, hosts, 2, 1, ";", null, false, false);
+		assertEquals(expected, TableJoin.join(hostsJoined, sites, 7, 1, ";", null, false, false));
+
+		final List<List<String>> parallel = TableJoin.join(
+			TableJoin.stringToTable(metrics, ";"),
+			joinSpecs,
+			JoinOptions.builder().parallel(true).parallelThreshold(1).build()
+		);
+		assertEquals(TableJoin.stringToTable(expected, ";"), parallel);
+
+		assertNull(TableJoin.join((List<List<String>>) null, joinSpecs, null));
+		assertEquals(
+			TableJoin.stringToTable(metrics, ";"),
+			TableJoin.join(TableJoin.stringToTable(metrics, ";"), Collections.emptyList(), null)
+		);
+		assertThrows(IllegalArgumentException.class, () -> TableJoin.join(metrics, null, ";", null));
+		assertThrows(IllegalArgumentException.class, () -> JoinSpec.builder().rightTable(sites, ";").build());
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> JoinSpec.builder().rightTable(sites, ";").keyColumns(new int[] { 1, 2 }, new int[] { 1 }).build()
+		);
+	}
+
+	@Test
+	void testRowViews() {
+		final List<List<String>> leftTable = TableJoin.stringToTable("1;a;\n2;b;", ";");
+		final List<List<String>> rightTable = TableJoin.stringToTable("1;right;", ";");
+		final List<String> defaultRightLine = Arrays.asList("none");
+		final List<List<String>> copies = TableJoin.join(leftTable, rightTable, 1, 1, defaultRightLine, false, false);
+		final List<List<String>> views = TableJoin.join(
+			leftTable,
+			rightTable,
+			new int[] { 1 },
+			new int[] { 1 },
+			defaultRightLine,
+			false,
+			false,
+			JoinOptions.builder().rowViews(true).build()
+		);
+		assertEquals(copies, views);
+		assertEquals(Arrays.asList("1", "a", "1", "right"), views.get(0));
+		assertEquals(Arrays.asList("2", "b", "none"), views.get(1));
+		assertEquals(copies.hashCode(), views.hashCode());
+
+		// The views are immutable, the copies are not
+		assertThrows(UnsupportedOperationException.class, () -> views.get(0).set(0, "x"));
+		assertThrows(UnsupportedOperationException.class, () -> views.get(0).add("x"));
+		assertThrows(IndexOutOfBoundsException.class, () -> views.get(1).get(3));
+		copies.get(0).add("x");
+		assertEquals(Arrays.asList("1", "a", "1", "right", "x"), copies.get(0));
+	}
+
+	@Test
+	void testProjection() {
+		final String leftCsv = "1;a;x;\n2;b;y;\n3;c;";
+		final String rightCsv = "r1;1;one;I;\nr3;3;three;";
+		final int[] leftKey = { 1 };
+		final int[] rightKey = { 2 };
+
+		// Only the 3rd left column and the 4th then 3rd right columns are kept (missing cells are empty)
+		assertEquals(
+			"x;I;one;\n;;three;",
+			TableJoin.join(
+				leftCsv,
+				rightCsv,
+				leftKey,
+				rightKey,
+				";",
+				null,
+				false,
+				false,
+				new int[] { 3 },
+				new int[] { 4, 3 },
+				null
+			)
+		);
+
+		// The default right line replaces the projected right cells as it is, a null projection keeps all the columns
+		assertEquals(
+			"1;a;x;one;\n2;b;y;none;\n3;c;three;",
+			TableJoin.join(leftCsv, rightCsv, leftKey, rightKey, ";", "none", false, false, null, new int[] { 3 }, null)
+		);
+
+		final List<List<String>> leftTable = TableJoin.stringToTable(leftCsv, ";");
+		final List<List<String>> rightTable = TableJoin.stringToTable(rightCsv, ";");
+		assertEquals(
+			Arrays.asList(Arrays.asList("a", "r1"), Arrays.asList("b", "?"), Arrays.asList("c", "r3")),
+			TableJoin.join(
+				leftTable,
+				rightTable,
+				leftKey,
+				rightKey,
+				Arrays.asList("?"),
+				false,
+				false,
+				new int[] { 2 },
+				new int[] { 1 },
+				JoinOptions.builder().algorithm(JoinAlgorithm.MERGE).build()
+			)
+		);
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(leftTable, rightTable, leftKey, rightKey, null, false, false, new int[] { 0 }, null, null)
+		);
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(leftTable, rightTable, leftKey, rightKey, null, false, false, new int[0], new int[0], null)
+		);
+	}
+
+	@Test
+	void testRowFilters() {
+		final String leftCsv = "1;disk1;OK;\n2;disk2;Failed;\n3;disk3;Degraded;";
+		final String rightCsv = "1;ctrl1;\n2;ctrl2;\n3;ignored;";
+		final int[] key = { 1 };
+		assertEquals(
+			"disk2;ctrl2;\ndisk3;none;",
+			TableJoin.join(
+				leftCsv,
+				rightCsv,
+				key,
+				key,
+				";",
+				"none;",
+				false,
+				false,
+				new int[] { 2 },
+				new int[] { 2 },
+				"3!=OK",
+				"2!~^ignored$",
+				null
+			)
+		);
+
+		// Any predicate can filter the rows of List tables
+		final List<List<String>> result = TableJoin.join(
+			TableJoin.stringToTable(leftCsv, ";"),
+			TableJoin.stringToTable(rightCsv, ";"),
+			key,
+			key,
+			null,
+			false,
+			false,
+			null,
+			null,
+			row -> row.get(1).endsWith("1") || row.get(1).endsWith("3"),
+			RowFilter.notEqualTo(1, "1"),
+			null
+		);
+		assertEquals(Collections.singletonList(Arrays.asList("3", "disk3", "Degraded", "3", "ignored")), result);
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(leftCsv, rightCsv, key, key, ";", null, false, false, null, null, "OK", null, null)
+		);
+	}
+
+	@Test
+	void testJoinModes() {
+		final String leftCsv = "1;disk1;\n;empty;\n2;disk2;\n3;disk3;";
+		final String rightCsv = "x;1;\ny;1;\nz;3;";
+		final List<List<String>> left = TableJoin.stringToTable(leftCsv, ";");
+		final List<List<String>> right = TableJoin.stringToTable(rightCsv, ";");
+		final int[] leftKey = { 1 };
+		final int[] rightKey = { 2 };
+		final JoinStats stats = new JoinStats();
+		final JoinOptions options = JoinOptions.builder().stats(stats).build();
+
+		// The left rows are returned as they are, once, whatever the number of matching right rows
+		final List<List<String>> semi = TableJoin.join(
+			left,
+			right,
+			leftKey,
+			rightKey,
+			false,
+			false,
+			JoinMode.SEMI,
+			options
+		);
+		assertEquals(2, semi.size());
+		assertSame(left.get(0), semi.get(0));
+		assertSame(left.get(3), semi.get(1));
+		assertEquals(1, stats.getInvalidLeftRowCount());
+		assertEquals(2, stats.getMatchedLeftRowCount());
+		assertEquals(1, stats.getUnmatchedLeftRowCount());
+
+		// The left rows with an empty key are neither in the SEMI nor in the ANTI JOIN
+		final List<List<String>> anti = TableJoin.join(left, right, leftKey, rightKey, false, false, JoinMode.ANTI, null);
+		assertEquals(1, anti.size());
+		assertSame(left.get(2), anti.get(0));
+
+		assertEquals(
+			TableJoin.join(left, right, leftKey, rightKey, null, false, false, null),
+			TableJoin.join(left, right, leftKey, rightKey, false, false, JoinMode.JOIN, null)
+		);
+		assertEquals(
+			Collections.emptyList(),
+			TableJoin.join(left, null, leftKey, rightKey, false, false, JoinMode.SEMI, null)
+		);
+		assertEquals(3, TableJoin.join(left, null, leftKey, rightKey, false, false, JoinMode.ANTI, null).size());
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(left, right, leftKey, rightKey, false, false, null, null)
+		);
+
+		assertEquals(
+			"1;disk1;\n3;disk3;",
+			TableJoin.join(leftCsv, rightCsv, leftKey, rightKey, ";", false, false, JoinMode.SEMI, null)
+		);
+		assertEquals(
+			"2;disk2;",
+			TableJoin.join(leftCsv, rightCsv, leftKey, rightKey, ";", false, false, JoinMode.ANTI, null)
+		);
+	}
+
+	@Test
+	void testAppendTable() throws IOException {
+		final List<List<String>> table = Arrays.asList(
+			Arrays.asList("a1", "b1"),
+			null,
+			Collections.emptyList(),
+			Arrays.asList("a2", "", "c2")
+		);
+		final String expected = "a1<sep>b1<sep>\n<sep>\na2<sep><sep>c2<sep>";
+		assertEquals(expected, TableJoin.tableToString(table, "<sep>"));
+
+		final StringWriter writer = new StringWriter();
+		TableJoin.appendTable(table, "<sep>", writer);
+		assertEquals(expected, writer.toString());
+
+		final StringBuilder builder = new StringBuilder("header\n");
+		TableJoin.appendTable(table, "<sep>", builder);
+		assertEquals("header\n" + expected, builder.toString());
+
+		TableJoin.appendTable(null, ";", builder);
+		assertEquals("header\n" + expected, builder.toString());
+		assertNull(TableJoin.tableToString(null, ";"));
+		assertEquals("", TableJoin.tableToString(Collections.emptyList(), ";"));
+	}
+
+	@Test
+	void testMappedFiles(@TempDir final Path directory) throws IOException {
+		final String leftTable = "1;a;left1;\n2;b;left2;\n\n3;c;left3";
+		final String rightTable = "A;right1;\nB;right2;\nA;duplicate;\nd;right4;";
+		final Path leftFile = Files.write(directory.resolve("left.csv"), leftTable.getBytes(StandardCharsets.UTF_8));
+		final Path rightFile = Files.write(directory.resolve("right.csv"), rightTable.getBytes(StandardCharsets.UTF_8));
+		final Path outputFile = directory.resolve("output.csv");
+
+		TableJoin.join(leftFile, rightFile, 2, 1, ";", null, false, true, outputFile);
+		assertEquals(
+			TableJoin.join(leftTable, rightTable, 2, 1, ";", null, false, true),
+			new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8)
+		);
+
+		// The output file is overwritten
+		TableJoin.join(leftFile, rightFile, 2, 1, ";", "x;y", false, false, outputFile);
+		assertEquals(
+			TableJoin.join(leftTable, rightTable, 2, 1, ";", "x;y", false, false),
+			new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8)
+		);
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(leftFile, rightFile, 2, 1, "", null, false, false, outputFile)
+		);
+
+		// The tables are not overwritten by the output
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(leftFile, rightFile, 2, 1, ";", null, false, false, leftFile)
+		);
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TableJoin.join(leftFile, rightFile, 2, 1, ";", null, false, false, directory.resolve("./right.csv"))
+		);
+		assertEquals(leftTable, new String(Files.readAllBytes(leftFile), StandardCharsets.UTF_8));
+		assertEquals(rightTable, new String(Files.readAllBytes(rightFile), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testMemoryBudget(@TempDir final Path directory) throws IOException {
+		final String leftTable = IntStream
+			.range(0, 2000)
+			.mapToObj(i -> "key" + (i * 7 % 1500) + ";left" + i + ";")
+			.collect(Collectors.joining("\n"));
+		final String rightTable = IntStream
+			.range(0, 1000)
+			.mapToObj(i -> "KEY" + (i % 800) + ";right" + i + ";")
+			.collect(Collectors.joining("\n"));
+		final JoinOptions options = JoinOptions.builder().memoryBudget(4096).tempDirectory(directory).build();
+
+		for (final String defaultRightLine : Arrays.asList(null, "none;")) {
+			final StringBuilder output = new StringBuilder();
+			TableJoin.join(
+				new StringReader(leftTable),
+				new StringReader(rightTable),
+				1,
+				1,
+				";",
+				defaultRightLine,
+				false,
+				true,
+				output,
+				options
+			);
+			assertEquals(TableJoin.join(leftTable, rightTable, 1, 1, ";", defaultRightLine, false, true), output.toString());
+		}
+
+		// The spilled cells are read back as they were, even with unpaired surrogates
+		final String surrogateTable = IntStream
+			.range(0, 500)
+			.mapToObj(i -> "key\uD800" + i + ";\uD800cell" + i + ";")
+			.collect(Collectors.joining("\n"));
+		final StringBuilder surrogateOutput = new StringBuilder();
+		TableJoin.join(
+			new StringReader(surrogateTable),
+			new StringReader(surrogateTable),
+			1,
+			1,
+			";",
+			null,
+			false,
+			false,
+			surrogateOutput,
+			JoinOptions.builder().memoryBudget(1024).tempDirectory(directory).build()
+		);
+		assertEquals(
+			TableJoin.join(surrogateTable, surrogateTable, 1, 1, ";", null, false, false),
+			surrogateOutput.toString()
+		);
+		assertTrue(surrogateOutput.indexOf("\uD800cell499") >= 0);
+
+		// The temporary files have been deleted
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> JoinOptions.builder().memoryBudget(-1));
+	}
 }
@@ -0,0 +1,75 @@
+package org.metricshub.tablejoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TableTest {
+
+	private static final String CSV = "1;a;I;\n\n2;;II;extra;\n3;c";
+
+	@Test
+	void fromCsv() {
+		final Table table = Table.fromCsv(CSV, ";");
+		assertEquals(3, table.getRowCount());
+		assertEquals(4, table.getCellCount(1));
+		assertEquals("II", table.getCell(1, 2).toString());
+		assertEquals(0, table.getCell(1, 1).length());
+		assertEquals("I", table.getCell(1, 2).subSequence(1, 2).toString());
+		assertEquals(TableJoin.stringToTable(CSV, ";"), table.toList());
+		assertEquals(TableJoin.tableToString(TableJoin.stringToTable(CSV, ";"), ";"), table.toCsv(";"));
+
+		assertThrows(IndexOutOfBoundsException.class, () -> table.getCell(0, 3));
+		assertThrows(IndexOutOfBoundsException.class, () -> table.getCell(3, 0));
+		assertThrows(IllegalArgumentException.class, () -> Table.fromCsv(null, ";"));
+	}
+
+	@Test
+	void fromList() {
+		final List<List<String>> list = Arrays.asList(Arrays.asList("a", "b"), Collections.emptyList(), Arrays.asList("c"));
+		final Table table = Table.fromList(list);
+		assertEquals(list, table.toList());
+		assertEquals(TableJoin.tableToString(list, ","), table.toCsv(","));
+		assertEquals(Arrays.asList("c"), table.getRow(2));
+
+		final Table built = Table.builder().addCell("x").addCell("y;z", 2, 3).endRow().addCell("w").build();
+		assertEquals(Arrays.asList(Arrays.asList("x", "z"), Arrays.asList("w")), built.toList());
+	}
+
+	@Test
+	void join() {
+		final String leftTable = "1;A;i;\n2;B;ii;\n3;C;iii;\n;D;iv;";
+		final String rightTable = "a;x;\nc;y;\nC;z;";
+		final Table left = Table.fromCsv(leftTable, ";");
+		final Table right = Table.fromCsv(rightTable, ";");
+
+		assertEquals(
+			TableJoin.join(leftTable, rightTable, 2, 1, ";", null, false, true),
+			TableJoin.join(left, right, 2, 1, null, false, true).toCsv(";")
+		);
+		assertEquals(
+			TableJoin.join(leftTable, rightTable, 2, 1, ";", "-;", false, false),
+			TableJoin.join(left, right, 2, 1, Arrays.asList("-"), false, false).toCsv(";")
+		);
+		// The null cells of the default right line are empty cells
+		assertEquals(
+			TableJoin.join(leftTable, rightTable, 2, 1, ";", "-;;", false, false),
+			TableJoin.join(left, right, 2, 1, Arrays.asList("-", null), false, false).toCsv(";")
+		);
+		assertEquals(0, TableJoin.join(left, null, 1, 1, null, false, false).getRowCount());
+		assertNull(TableJoin.join(null, right, 1, 1, null, false, false));
+
+		// WBEM keys, on a composite key
+		final Table wbemLeft = Table.fromCsv("c.b=\"1\",a=\"2\";1;left;", ";");
+		final Table wbemRight = Table.fromCsv("1;C.A=\"2\",B=\"1\";right;", ";");
+		assertEquals(
+			"c.b=\"1\",a=\"2\";1;left;1;C.A=\"2\",B=\"1\";right;",
+			TableJoin.join(wbemLeft, wbemRight, new int[] { 1, 2 }, new int[] { 2, 1 }, null, true, true).toCsv(";")
+		);
+	}
+}
@@ -0,0 +1,81 @@
+package org.metricshub.tablejoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class WbemKeyMemoTest {
+
+	@Test
+	void normalize() {
+		final WbemKeyMemo memo = new WbemKeyMemo(2);
+		assertEquals(2, memo.getCapacity());
+		assertEquals("c.a=\"1\".b=\"2\"", memo.normalize("c.b=\"2\",a=\"1\"", false));
+		assertEquals("c.a=\"1\".b=\"2\"", memo.normalize("c.b=\"2\",a=\"1\"", false));
+		assertEquals(1, memo.getHitCount());
+		assertEquals(1, memo.getMissCount());
+
+		// Folded and unfolded paths are memoized apart
+		assertEquals("c.a=\"x\"", memo.normalize("C.A=\"x\"", true));
+		assertEquals(2, memo.getMissCount());
+
+		// Evict the first path
+		memo.normalize("c.x=\"1\"", false);
+		memo.normalize("c.y=\"1\"", false);
+		assertEquals("c.a=\"1\".b=\"2\"", memo.normalize("c.b=\"2\",a=\"1\"", false));
+		assertEquals(1, memo.getHitCount());
+		assertEquals(5, memo.getMissCount());
+
+		// Without a memo, the paths are normalized every time
+		assertEquals("c.a=\"1\".b=\"2\"", WbemKeyMemo.normalize(null, "c.b=\"2\",a=\"1\"", false));
+
+		assertThrows(IllegalArgumentException.class, () -> new WbemKeyMemo(0));
+	}
+
+	@Test
+	void stripes() {
+		// A large memo is split in stripes
+		final WbemKeyMemo memo = new WbemKeyMemo(10_000);
+		for (int pass = 0; pass < 2; pass++) {
+			for (int i = 0; i < 100; i++) {
+				assertEquals("c.a=\"1\".b=\"" + i + "\"", memo.normalize("c.b=\"" + i + "\",a=\"1\"", false));
+			}
+		}
+		assertEquals(100, memo.getHitCount());
+		assertEquals(100, memo.getMissCount());
+	}
+
+	@Test
+	void join() throws IOException {
+		final WbemKeyMemo memo = new WbemKeyMemo(64);
+		final JoinOptions options = JoinOptions.builder().wbemKeyMemo(memo).build();
+		final String leftTable = "c.b=\"2\",a=\"1\";OK;\nc.a=\"1\",b=\"2\";Failed;";
+		final String rightTable = "c.a=\"1\",b=\"2\";disk;";
+		final String expected =
+			"c.b=\"2\",a=\"1\";OK;c.a=\"1\",b=\"2\";disk;\n" + "c.a=\"1\",b=\"2\";Failed;c.a=\"1\",b=\"2\";disk;";
+		assertEquals(expected, TableJoin.join(leftTable, rightTable, 1, 1, ";", null, true, false, options));
+		assertEquals(2, memo.getMissCount());
+		assertEquals(1, memo.getHitCount());
+
+		// The memo is kept across the joins that use the same options
+		final List<List<String>> left = Arrays.asList(
+			Arrays.asList("c.a=\"1\"", "OK"),
+			Arrays.asList("c.a=\"1\"", "Failed")
+		);
+		final List<List<String>> right = Collections.singletonList(Arrays.asList("c.a=\"1\"", "disk"));
+		assertEquals(
+			Arrays.asList(
+				Arrays.asList("c.a=\"1\"", "OK", "c.a=\"1\"", "disk"),
+				Arrays.asList("c.a=\"1\"", "Failed", "c.a=\"1\"", "disk")
+			),
+			TableJoin.join(left, right, 1, 1, null, true, false, options)
+		);
+		assertEquals(3, memo.getMissCount());
+		assertEquals(3, memo.getHitCount());
+	}
+}
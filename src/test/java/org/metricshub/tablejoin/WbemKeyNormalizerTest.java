@@ -0,0 +1,23 @@
+package org.metricshub.tablejoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class WbemKeyNormalizerTest {
+
+	@Test
+	void normalize() {
+		assertEquals("class.a=\"1\".b=\"2\"", WbemKeyNormalizer.normalize("class.b=\"2\",a=\"1\""));
+		assertEquals("class.a=\"1\".b=\"2\"", WbemKeyNormalizer.normalize("class.a=\"1\",b=\"2\""));
+		assertEquals("class.a=\"x,y\".b=\"2\"", WbemKeyNormalizer.normalize("class.b=\"2\",a=\"x,y\""));
+		assertEquals("class.a=\"1\"", WbemKeyNormalizer.normalize("class.a=\"1\","));
+		assertEquals("class.", WbemKeyNormalizer.normalize("class."));
+		assertEquals("class", WbemKeyNormalizer.normalize("class.\n"));
+
+		// Not a WBEM path
+		assertEquals("class", WbemKeyNormalizer.normalize("class"));
+		assertEquals(".a=\"1\"", WbemKeyNormalizer.normalize(".a=\"1\""));
+		assertEquals("", WbemKeyNormalizer.normalize(""));
+	}
+}